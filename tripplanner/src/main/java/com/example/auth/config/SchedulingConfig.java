@@ -0,0 +1,10 @@
+package com.example.auth.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Enables @Scheduled background jobs such as the city matrix snapshot refresh.
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
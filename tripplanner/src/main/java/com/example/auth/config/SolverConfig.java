@@ -0,0 +1,70 @@
+package com.example.auth.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared CPU pool for the route solvers, the bounded executor running background
+ * optimization jobs, and the threads that push job progress to clients.
+ */
+@Configuration
+public class SolverConfig {
+
+    // Worker threads shared by all solver runs; 0 means one per available core.
+    @Value("${solver.parallelism:0}")
+    private int parallelism;
+
+    // Optimization jobs running at once, and jobs allowed to wait before new ones are rejected.
+    @Value("${optimization.jobs.threads:4}")
+    private int jobThreads;
+
+    @Value("${optimization.jobs.queue-capacity:100}")
+    private int jobQueueCapacity;
+
+    // Parallel solver work from every request shares this pool, so its size is the CPU budget.
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool solverPool() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        return new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("solver-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    // Background optimization jobs; a full queue rejects new jobs instead of piling up work.
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor optimizationExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(jobThreads, jobThreads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(jobQueueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "optimization-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Delivers job events (e.g. SSE writes) off the solver threads; at most one thread per job
+    // is busy at a time, so a stalled client holds up only its own job's events.
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService jobEventExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "job-events-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
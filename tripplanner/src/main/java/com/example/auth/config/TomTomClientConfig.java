@@ -0,0 +1,80 @@
+package com.example.auth.config;
+
+import com.example.auth.service.TokenBucketRateLimiter;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP client, executor and rate limiter shared by all TomTom calls.
+ */
+@Configuration
+public class TomTomClientConfig {
+
+    @Value("${tomtom.api.timeout-ms:5000}")
+    private int timeoutMs;
+
+    @Value("${tomtom.fetch.threads:8}")
+    private int fetchThreads;
+
+    @Value("${tomtom.api.qps:5}")
+    private double qps;
+
+    // Pooled keep-alive connections so parallel lookups reuse TLS sessions to api.tomtom.com.
+    @Bean
+    public RestTemplate tomTomRestTemplate() {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(fetchThreads * 2)
+                .setMaxConnPerRoute(fetchThreads)
+                .setDefaultSocketConfig(SocketConfig.custom()
+                        .setSoTimeout(Timeout.ofMilliseconds(timeoutMs))
+                        .build())
+                .build();
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(timeoutMs))
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(timeoutMs))
+                .setResponseTimeout(Timeout.ofMilliseconds(timeoutMs))
+                .build();
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .build();
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    // Bounded pool for distance lookups so matrix builds never run on the request thread alone.
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService distanceFetchExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(fetchThreads, fetchThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "distance-fetch-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    // Burst of one second's worth of calls keeps us inside the provider's QPS quota.
+    @Bean
+    public TokenBucketRateLimiter tomTomRateLimiter() {
+        return new TokenBucketRateLimiter(qps, (int) Math.max(1, Math.floor(qps)));
+    }
+}
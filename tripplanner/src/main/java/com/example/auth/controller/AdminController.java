@@ -9,6 +9,10 @@ import com.example.auth.repository.CityRepository;
 import com.example.auth.repository.PlaceRepository;
 import com.example.auth.repository.TripRepository;
 import com.example.auth.repository.UserRepository;
+import com.example.auth.service.CityMatrixSnapshotService;
+import com.example.auth.service.DistanceCacheService;
+import com.example.auth.service.RouteOptimizationService;
+import com.example.auth.service.RouteResultCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -22,6 +26,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/admin")
@@ -39,6 +44,18 @@ public class AdminController {
     @Autowired
     private TripRepository tripRepository;
 
+    @Autowired
+    private DistanceCacheService distanceCacheService;
+
+    @Autowired
+    private CityMatrixSnapshotService cityMatrixSnapshotService;
+
+    @Autowired
+    private RouteOptimizationService routeOptimizationService;
+
+    @Autowired
+    private RouteResultCache routeResultCache;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     // --- Cities CRUD ---
@@ -87,6 +104,7 @@ public class AdminController {
     public ResponseEntity<?> addPlace(@RequestBody Place place) {
         try {
             Place savedPlace = placeRepository.save(place);
+            cityMatrixSnapshotService.placeChanged(cityIdOf(savedPlace), savedPlace.getId());
             return ResponseEntity.ok(savedPlace);
         } catch (Exception ex) {
             return ResponseEntity.badRequest().body("Error adding place: " + ex.getMessage());
@@ -98,12 +116,25 @@ public class AdminController {
         try {
             Place existingPlace = placeRepository.findById(id)
                     .orElseThrow(() -> new RuntimeException("Place not found"));
+            boolean moved = existingPlace.getLatitude() != updatedPlace.getLatitude()
+                    || existingPlace.getLongitude() != updatedPlace.getLongitude();
+            Long previousCityId = cityIdOf(existingPlace);
             existingPlace.setName(updatedPlace.getName());
             existingPlace.setCategory(updatedPlace.getCategory());
             existingPlace.setCity(updatedPlace.getCity());
             existingPlace.setLatitude(updatedPlace.getLatitude());
             existingPlace.setLongitude(updatedPlace.getLongitude());
             Place savedPlace = placeRepository.save(existingPlace);
+            // Cached road distances to/from this place are stale once it moves.
+            if (moved) {
+                distanceCacheService.invalidatePlace(id);
+                routeOptimizationService.placeMoved(id);
+            }
+            Long cityId = cityIdOf(savedPlace);
+            if (moved || !Objects.equals(previousCityId, cityId)) {
+                cityMatrixSnapshotService.placeChanged(previousCityId, id);
+                cityMatrixSnapshotService.placeChanged(cityId, id);
+            }
             return ResponseEntity.ok(savedPlace);
         } catch (Exception ex) {
             return ResponseEntity.badRequest().body("Error updating place: " + ex.getMessage());
@@ -113,7 +144,11 @@ public class AdminController {
     @DeleteMapping("/places/{id}")
     public ResponseEntity<?> deletePlace(@PathVariable Long id) {
         try {
+            Long cityId = placeRepository.findById(id).map(this::cityIdOf).orElse(null);
             placeRepository.deleteById(id);
+            distanceCacheService.invalidatePlace(id);
+            routeOptimizationService.placeMoved(id);
+            cityMatrixSnapshotService.placeChanged(cityId, id);
             return ResponseEntity.ok("Place deleted successfully");
         } catch (Exception ex) {
             return ResponseEntity.badRequest().body("Error deleting place: " + ex.getMessage());
@@ -125,6 +160,22 @@ public class AdminController {
         return ResponseEntity.ok(placeRepository.findAll());
     }
 
+    // Helper to read a place's city id, which may be missing on incomplete payloads.
+    private Long cityIdOf(Place place) {
+        return place.getCity() == null ? null : place.getCity().getId();
+    }
+
+    // --- Distance cache ---
+    @GetMapping("/distance-cache/stats")
+    public ResponseEntity<Map<String, Long>> getDistanceCacheStats() {
+        return ResponseEntity.ok(distanceCacheService.getStats());
+    }
+
+    @GetMapping("/route-cache/stats")
+    public ResponseEntity<Map<String, Long>> getRouteCacheStats() {
+        return ResponseEntity.ok(routeResultCache.getStats());
+    }
+
     // --- Trips (view planned trips of all users) with Pagination ---
     @GetMapping("/trips")
     public ResponseEntity<?> getAllTrips(@RequestParam(defaultValue = "0") int page,
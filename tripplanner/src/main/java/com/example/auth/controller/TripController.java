@@ -6,16 +6,26 @@ import com.example.auth.repository.CityRepository;
 import com.example.auth.repository.PlaceRepository;
 import com.example.auth.repository.TripDayRepository;
 import com.example.auth.repository.TripRepository;
+import com.example.auth.service.DayRoute;
+import com.example.auth.service.Incumbent;
+import com.example.auth.service.OptimizationJob;
+import com.example.auth.service.OptimizationJobService;
+import com.example.auth.service.OptimizationResult;
 import com.example.auth.service.RouteOptimizationService;
+import com.example.auth.service.TripDayOptimizationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import com.example.auth.service.RouteDetails;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/trip")
@@ -36,6 +46,16 @@ public class TripController {
     @Autowired
     private RouteOptimizationService routeOptimizationService;
 
+    @Autowired
+    private TripDayOptimizationService tripDayOptimizationService;
+
+    @Autowired
+    private OptimizationJobService optimizationJobService;
+
+    // How long an optimization event stream may stay open.
+    @Value("${optimization.jobs.sse-timeout-ms:300000}")
+    private long sseTimeoutMs;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     /**
@@ -100,7 +120,11 @@ public class TripController {
      * Expects a JSON payload with:
      * {
      *   "selectedPlaces": [16, 18, 15, 13, 14],
-     *   "startingPlaceId": "16"
+     *   "startingPlaceId": "16",
+     *   "islands": 4,           (optional, parallel GA sub-populations)
+     *   "solver": "portfolio",  (optional, see TspSolverRegistry for names)
+     *   "incremental": true     (optional, default false: splice the edit into the day's stored tour
+     *                            instead of solving from scratch; faster, possibly a little longer)
      * }
      *
      * This endpoint will:
@@ -109,10 +133,15 @@ public class TripController {
      *  - Run a genetic algorithm–based optimizer.
      *  - Save the optimized route (as a JSON string of place names) in the TripDay.
      *  - Return a friendly response containing the names of the places.
+     *
+     * With {@code ?async=true} the optimization runs in the background instead: the response is
+     * 202 with a job id, and {@code GET /api/trip/jobs/{jobId}} reports its status and result.
+     * {@code GET /api/trip/jobs/{jobId}/events} streams the improving routes while it runs.
      */
     @PostMapping("/{tripId}/day/{dayNumber}/optimize")
     public ResponseEntity<?> optimizeRoute(@PathVariable Long tripId,
                                            @PathVariable int dayNumber,
+                                           @RequestParam(defaultValue = "false") boolean async,
                                            @RequestBody Map<String, Object> dayData) {
         try {
             Trip trip = tripRepository.findById(tripId)
@@ -137,47 +166,378 @@ public class TripController {
             Long startingPlaceId = Long.parseLong(startingPlaceObj.toString());
             Place startingPlace = placeRepository.findById(startingPlaceId)
                     .orElseThrow(() -> new RuntimeException("Starting place not found"));
-            tripDay.setStartingPlace(startingPlace);
-            tripDay.setSelectedPlaces(objectMapper.writeValueAsString(selectedPlacesObj));
 
-            List<Integer> selectedPlacesIds = new ArrayList<>();
+            List<Long> selectedPlacesIds = new ArrayList<>();
             if (selectedPlacesObj instanceof List<?>) {
                 for (Object o : (List<?>) selectedPlacesObj) {
-                    selectedPlacesIds.add(Integer.parseInt(o.toString()));
+                    selectedPlacesIds.add(Long.parseLong(o.toString()));
                 }
             } else {
                 return ResponseEntity.badRequest().body(Map.of("error", "selectedPlaces must be a list"));
             }
 
-            List<Place> places = placeRepository.findAllById(
-                    selectedPlacesIds.stream().map(Long::valueOf).toList()
-            );
+            Integer islands = dayData.get("islands") != null ? Integer.parseInt(dayData.get("islands").toString()) : null;
+            String solver = dayData.get("solver") != null ? dayData.get("solver").toString() : null;
+            boolean incremental = dayData.get("incremental") != null && Boolean.parseBoolean(dayData.get("incremental").toString());
+
+            if (async) {
+                // Solve on the optimization executor; the client polls the job for the result.
+                List<Long> dayPlaceIds = new ArrayList<>(selectedPlacesIds);
+                dayPlaceIds.add(startingPlaceId);
+                OptimizationJob job = optimizationJobService.submit(tripId, dayNumber, dayPlaceIds, budget ->
+                        tripDayOptimizationService.optimizeDay(tripDay, startingPlace, selectedPlacesIds,
+                                solver, islands, incremental, budget));
+                return ResponseEntity.accepted().body(Map.of(
+                        "jobId", job.getId(),
+                        "status", job.getStatus(),
+                        "statusUrl", "/api/trip/jobs/" + job.getId(),
+                        "eventsUrl", "/api/trip/jobs/" + job.getId() + "/events"
+                ));
+            }
 
-            List<Place> optimizedRoute = routeOptimizationService.optimizeRoute(startingPlace, places);
+            DayRoute dayRoute = tripDayOptimizationService.optimizeDay(tripDay, startingPlace, selectedPlacesIds,
+                    solver, islands, incremental, null);
+            return ResponseEntity.ok(toRouteResponse(dayRoute));
+        } catch (RejectedExecutionException ex) {
+            return ResponseEntity.status(503)
+                    .body(Map.of("error", "Too many optimizations queued, try again later"));
+        } catch (IllegalArgumentException ex) {
+            // Unknown solver name, or one that cannot handle this many places.
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", "Route optimization failed", "message", ex.getMessage()));
+        }
+    }
 
-            RouteDetails routeDetails = routeOptimizationService.getRouteDetails(optimizedRoute);
-            List<String> optimizedRouteNames = new ArrayList<>();
-            for (Place p : optimizedRoute) {
-                optimizedRouteNames.add(p.getName());
+    /**
+     * Optimizes several days of a trip in one request.
+     *
+     * Expects a JSON payload with:
+     * {
+     *   "days": [
+     *     { "dayNumber": 1, "startingPlaceId": 16, "selectedPlaces": [18, 15, 13] },
+     *     { "dayNumber": 2, "startingPlaceId": 16, "selectedPlaces": [14, 19, 21] }
+     *   ],
+     *   "solver": "ga-sa"       (optional, applies to every day)
+     * }
+     *
+     * One distance matrix is built for all referenced places, the days are solved in parallel,
+     * and all days are saved together. The response lists each day's route in the same form
+     * as the single-day endpoint, plus the trip totals.
+     */
+    @PostMapping("/{tripId}/optimize-all")
+    public ResponseEntity<?> optimizeAllDays(@PathVariable Long tripId,
+                                             @RequestBody Map<String, Object> tripData) {
+        try {
+            Trip trip = tripRepository.findById(tripId)
+                    .orElseThrow(() -> new RuntimeException("Trip not found"));
+            if (!(tripData.get("days") instanceof List<?> daysData) || daysData.isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "days must be a non-empty list"));
             }
 
+            List<TripDayOptimizationService.DaySelection> selections = new ArrayList<>();
+            for (Object dayObj : daysData) {
+                if (!(dayObj instanceof Map<?, ?> day) || day.get("dayNumber") == null
+                        || day.get("startingPlaceId") == null || !(day.get("selectedPlaces") instanceof List<?> selected)) {
+                    return ResponseEntity.badRequest().body(Map.of("error",
+                            "Each day needs dayNumber, startingPlaceId and a selectedPlaces list"));
+                }
+                List<Long> placeIds = new ArrayList<>();
+                for (Object o : selected) {
+                    placeIds.add(Long.parseLong(o.toString()));
+                }
+                selections.add(new TripDayOptimizationService.DaySelection(
+                        Integer.parseInt(day.get("dayNumber").toString()),
+                        Long.parseLong(day.get("startingPlaceId").toString()),
+                        placeIds));
+            }
+            String solver = tripData.get("solver") != null ? tripData.get("solver").toString() : null;
 
-            tripDay.setOptimizedRoute(objectMapper.writeValueAsString(optimizedRouteNames));
-            tripDay.setTotalDistance(routeDetails.getTotalDistance());
-            tripDay.setTotalTime(routeDetails.getTotalTime());
-            tripDayRepository.save(tripDay);
+            Map<Integer, DayRoute> dayRoutes = tripDayOptimizationService.optimizeTrip(trip, selections, solver, null);
+            return ResponseEntity.ok(toTripResponse("Trip optimized successfully", dayRoutes));
+        } catch (IllegalArgumentException ex) {
+            // Unknown day, starting place or solver name.
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", "Trip optimization failed", "message", ex.getMessage()));
+        }
+    }
 
+    /**
+     * Plans the whole trip from a list of wanted places: they are split over the trip's days
+     * and each day is ordered, every day starting and ending at the hotel.
+     *
+     * Expects a JSON payload with:
+     * {
+     *   "hotelPlaceId": 16,
+     *   "places": [18, 15, 13, 14, 19, 21, 22]
+     * }
+     *
+     * Days get neighbouring places and similar numbers of stops; the days are solved jointly,
+     * which gives shorter total travel than assigning places by hand and solving each day
+     * alone. Every TripDay's selection and optimized route are replaced. The response has the
+     * same form as optimize-all.
+     */
+    @PostMapping("/{tripId}/plan-days")
+    public ResponseEntity<?> planDays(@PathVariable Long tripId,
+                                      @RequestBody Map<String, Object> planData) {
+        try {
+            Trip trip = tripRepository.findById(tripId)
+                    .orElseThrow(() -> new RuntimeException("Trip not found"));
+            Object hotelObj = planData.get("hotelPlaceId");
+            if (hotelObj == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Missing hotelPlaceId in payload"));
+            }
+            if (!(planData.get("places") instanceof List<?> placesData)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "places must be a list"));
+            }
+            List<Long> placeIds = new ArrayList<>();
+            for (Object o : placesData) {
+                placeIds.add(Long.parseLong(o.toString()));
+            }
+
+            Map<Integer, DayRoute> dayRoutes = tripDayOptimizationService.planTrip(
+                    trip, Long.parseLong(hotelObj.toString()), placeIds, null);
+            return ResponseEntity.ok(toTripResponse("Trip planned successfully", dayRoutes));
+        } catch (IllegalArgumentException ex) {
+            // Unknown hotel, or a trip without days.
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            return ResponseEntity.status(500)
+                    .body(Map.of("error", "Trip planning failed", "message", ex.getMessage()));
+        }
+    }
+
+    /**
+     * Recommends where to stay for a day's plan: every hotel of the trip's city is ranked by
+     * the length of the best round trip from it over the selected places.
+     *
+     * Expects a JSON payload with:
+     * {
+     *   "selectedPlaces": [18, 15, 13, 14]
+     * }
+     *
+     * Returns at most {@code limit} hotels, shortest round trip first, each with its totals and
+     * the route it would give.
+     */
+    @PostMapping("/{tripId}/recommend-hotels")
+    public ResponseEntity<?> recommendHotels(@PathVariable Long tripId,
+                                             @RequestParam(defaultValue = "5") int limit,
+                                             @RequestBody Map<String, Object> dayData) {
+        try {
+            Trip trip = tripRepository.findById(tripId)
+                    .orElseThrow(() -> new RuntimeException("Trip not found"));
+            if (!(dayData.get("selectedPlaces") instanceof List<?> selectedData)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "selectedPlaces must be a list"));
+            }
+            if (limit < 1) {
+                return ResponseEntity.badRequest().body(Map.of("error", "limit must be at least 1"));
+            }
+            List<Long> selectedPlacesIds = new ArrayList<>();
+            for (Object o : selectedData) {
+                selectedPlacesIds.add(Long.parseLong(o.toString()));
+            }
+            List<Place> places = placeRepository.findAllById(selectedPlacesIds);
+            List<Place> hotels = placeRepository.findByCityAndCategory(trip.getCity(), PlaceCategory.HOTEL);
+
+            List<OptimizationResult> ranking = routeOptimizationService.rankStartingPlaces(hotels, places, limit, null);
+            List<Map<String, Object>> recommendations = new ArrayList<>();
+            for (OptimizationResult result : ranking) {
+                RouteDetails routeDetails = routeOptimizationService.getRouteDetails(result);
+                Place hotel = result.getPlaces().get(0);
+                List<String> route = new ArrayList<>();
+                for (Place p : result.getRoute()) {
+                    route.add(p.getName());
+                }
+                recommendations.add(Map.of(
+                        "placeId", hotel.getId(),
+                        "name", hotel.getName(),
+                        "totalDistance", routeDetails.getTotalDistance(),
+                        "totalTime", routeDetails.getTotalTime(),
+                        "optimizedRoute", route,
+                        "solver", result.getSolverName()
+                ));
+            }
             return ResponseEntity.ok(Map.of(
-                    "message", "Route optimized successfully",
-                    "optimizedRoute", optimizedRouteNames,
-                    "totalDistance", routeDetails.getTotalDistance(),
-                    "totalTime", routeDetails.getTotalTime()
+                    "hotels", recommendations,
+                    "candidates", hotels.size()
             ));
         } catch (Exception ex) {
             ex.printStackTrace();
             return ResponseEntity.status(500)
-                    .body(Map.of("error", "Route optimization failed", "message", ex.getMessage()));
+                    .body(Map.of("error", "Hotel recommendation failed", "message", ex.getMessage()));
+        }
+    }
+
+    /**
+     * Reports a background optimization job: its status, and once finished either the same
+     * route summary the synchronous endpoint returns or the error.
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getOptimizationJob(@PathVariable String jobId) {
+        OptimizationJob job = optimizationJobService.get(jobId);
+        if (job == null) {
+            return ResponseEntity.status(404).body(Map.of("error", "Job not found"));
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", job.getId());
+        response.put("tripId", job.getTripId());
+        response.put("dayNumber", job.getDayNumber());
+        response.put("status", job.getStatus());
+        response.put("createdAt", job.getCreatedAt());
+        response.put("finishedAt", job.getFinishedAt());
+        if (job.getResult() != null) {
+            response.put("result", toRouteResponse(job.getResult()));
+        }
+        if (job.getError() != null) {
+            response.put("error", job.getError());
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Server-Sent Events stream of a background optimization: "incumbent" events as the solvers
+     * find better routes (route, totals, GA generation or SA temperature, elapsed milliseconds;
+     * the event id is the incumbent's sequence number), then one "result" or "error" event,
+     * after which the stream closes. A client reading slowly skips to the latest route.
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamOptimizationJob(@PathVariable String jobId) {
+        OptimizationJob job = optimizationJobService.get(jobId);
+        if (job == null) {
+            return ResponseEntity.status(404).contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("error", "Job not found"));
+        }
+        Map<Long, String> placeNames = new HashMap<>();
+        for (Place place : placeRepository.findAllById(job.getPlaceIds())) {
+            placeNames.put(place.getId(), place.getName());
+        }
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        OptimizationJob.Listener listener = new OptimizationJob.Listener() {
+            @Override
+            public void onIncumbent(OptimizationJob job, Incumbent incumbent) {
+                send(job, SseEmitter.event().id(String.valueOf(incumbent.getSequence())).name("incumbent")
+                        .data(toIncumbentEvent(incumbent, placeNames)));
+            }
+
+            @Override
+            public void onFinished(OptimizationJob job) {
+                if (job.getResult() != null) {
+                    send(job, SseEmitter.event().name("result").data(toRouteResponse(job.getResult())));
+                } else {
+                    send(job, SseEmitter.event().name("error").data(Map.of("error", String.valueOf(job.getError()))));
+                }
+                emitter.complete();
+            }
+
+            private void send(OptimizationJob job, SseEmitter.SseEventBuilder event) {
+                try {
+                    emitter.send(event);
+                } catch (Exception e) {
+                    // Client went away; stop following the job, which keeps running.
+                    job.removeListener(this);
+                }
+            }
+        };
+        emitter.onCompletion(() -> job.removeListener(listener));
+        emitter.onTimeout(() -> job.removeListener(listener));
+        job.addListener(listener);
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Accepts the current best route of a background optimization: the remaining solver work is
+     * cancelled and the job finishes with that route, saved to the trip day as usual.
+     */
+    @PostMapping("/jobs/{jobId}/accept")
+    public ResponseEntity<?> acceptOptimizationJob(@PathVariable String jobId) {
+        OptimizationJob job = optimizationJobService.get(jobId);
+        if (job == null) {
+            return ResponseEntity.status(404).body(Map.of("error", "Job not found"));
+        }
+        if (job.isFinished()) {
+            return ResponseEntity.status(409).body(Map.of("error", "Job already finished", "status", job.getStatus()));
         }
+        job.accept();
+        return ResponseEntity.accepted().body(Map.of(
+                "jobId", job.getId(),
+                "status", job.getStatus(),
+                "message", "Optimization will stop with its current best route"
+        ));
+    }
+
+    private static Map<String, Object> toIncumbentEvent(Incumbent incumbent, Map<Long, String> placeNames) {
+        List<String> route = new ArrayList<>();
+        for (Long placeId : incumbent.getPlaceIds()) {
+            route.add(placeNames.get(placeId));
+        }
+        // Close the round trip, as the optimized route does.
+        if (!route.isEmpty()) {
+            route.add(route.get(0));
+        }
+        Map<String, Object> event = new HashMap<>();
+        event.put("route", route);
+        event.put("totalDistance", incumbent.getTotalDistance());
+        event.put("totalTime", incumbent.getTotalTime());
+        event.put("elapsedMs", incumbent.getElapsedMs());
+        if (incumbent.getGeneration() >= 0) {
+            event.put("generation", incumbent.getGeneration());
+        }
+        if (!Double.isNaN(incumbent.getTemperature())) {
+            event.put("temperature", incumbent.getTemperature());
+        }
+        return event;
+    }
+
+    // Each day's route as in the single-day response, plus the trip totals.
+    private static Map<String, Object> toTripResponse(String message, Map<Integer, DayRoute> dayRoutes) {
+        List<Map<String, Object>> days = new ArrayList<>();
+        double totalDistance = 0.0;
+        double totalTime = 0.0;
+        for (Map.Entry<Integer, DayRoute> entry : dayRoutes.entrySet()) {
+            Map<String, Object> day = new HashMap<>(toRouteResponse(entry.getValue()));
+            day.remove("message");
+            day.put("dayNumber", entry.getKey());
+            days.add(day);
+            totalDistance += entry.getValue().getRouteDetails().getTotalDistance();
+            totalTime += entry.getValue().getRouteDetails().getTotalTime();
+        }
+        return Map.of(
+                "message", message,
+                "days", days,
+                "totalDistance", totalDistance,
+                "totalTime", totalTime
+        );
+    }
+
+    private static Map<String, Object> toRouteResponse(DayRoute dayRoute) {
+        RouteDetails routeDetails = dayRoute.getRouteDetails();
+        List<String> optimizedRouteNames = dayRoute.getPlaceNames();
+
+        // Per-leg figures come straight from the optimization matrix.
+        List<Map<String, Object>> legs = new ArrayList<>();
+        for (int i = 0; i < routeDetails.getLegs().size(); i++) {
+            legs.add(Map.of(
+                    "from", optimizedRouteNames.get(i),
+                    "to", optimizedRouteNames.get(i + 1),
+                    "distance", routeDetails.getLegs().get(i).getDistance(),
+                    "travelTime", routeDetails.getLegs().get(i).getTravelTime()
+            ));
+        }
+
+        return Map.of(
+                "message", "Route optimized successfully",
+                "optimizedRoute", optimizedRouteNames,
+                "totalDistance", routeDetails.getTotalDistance(),
+                "totalTime", routeDetails.getTotalTime(),
+                "legs", legs,
+                "solver", dayRoute.getSolverName()
+        );
     }
 
     /**
@@ -0,0 +1,39 @@
+package com.example.auth.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "cached_routes")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedRoute {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 of the canonical cache key (starting place, sorted place ids, solver, matrix version)
+    @Column(nullable = false, unique = true, length = 64)
+    private String keyHash;
+
+    // Every place of the route as ",id,id,...," so a place's routes can be found with LIKE
+    @Lob
+    private String memberIds;
+
+    // JSON strings: place ids in visiting order, and meters / seconds of each leg including the way back
+    @Lob
+    private String routeIds;
+
+    @Lob
+    private String legMeters;
+
+    @Lob
+    private String legSeconds;
+
+    private String solverName;
+
+    private LocalDateTime createdAt;
+}
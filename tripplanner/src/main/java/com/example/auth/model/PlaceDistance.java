@@ -0,0 +1,30 @@
+package com.example.auth.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "place_distances",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"origin_place_id", "destination_place_id"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlaceDistance {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Plain ids rather than @ManyToOne so that deleting a place never trips a foreign key.
+    @Column(name = "origin_place_id", nullable = false)
+    private Long originPlaceId;
+
+    @Column(name = "destination_place_id", nullable = false)
+    private Long destinationPlaceId;
+
+    private double lengthInMeters;
+    private double travelTimeInSeconds;
+
+    private LocalDateTime updatedAt;
+}
@@ -32,6 +32,10 @@ public class TripDay {
     // JSON string: optimized route (list of place IDs in order)
     @Lob
     private String optimizedRoute;
+
+    // JSON string: optimized visiting order as place IDs, starting place first (used for incremental re-optimization)
+    @Lob
+    private String optimizedRouteIds;
     private double totalDistance;
     private double totalTime;
 }
@@ -0,0 +1,25 @@
+package com.example.auth.repository;
+
+import com.example.auth.model.CachedRoute;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Optional;
+
+@Repository
+public interface CachedRouteRepository extends JpaRepository<CachedRoute, Long> {
+    Optional<CachedRoute> findByKeyHash(String keyHash);
+
+    // Drops every cached route that visits the given place.
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CachedRoute r WHERE r.memberIds LIKE CONCAT('%,', :placeId, ',%')")
+    int deleteByMemberId(@Param("placeId") Long placeId);
+
+    @Modifying
+    @Transactional
+    int deleteByKeyHash(String keyHash);
+}
@@ -0,0 +1,26 @@
+package com.example.auth.repository;
+
+import com.example.auth.model.PlaceDistance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PlaceDistanceRepository extends JpaRepository<PlaceDistance, Long> {
+    Optional<PlaceDistance> findByOriginPlaceIdAndDestinationPlaceId(Long originPlaceId, Long destinationPlaceId);
+
+    List<PlaceDistance> findByOriginPlaceIdInAndDestinationPlaceIdIn(Collection<Long> originPlaceIds,
+                                                                     Collection<Long> destinationPlaceIds);
+
+    // Drops every cached leg that starts or ends at the given place.
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PlaceDistance d WHERE d.originPlaceId = :placeId OR d.destinationPlaceId = :placeId")
+    int deleteByPlaceId(@Param("placeId") Long placeId);
+}
@@ -0,0 +1,52 @@
+package com.example.auth.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Parallel simulated annealing chains, started from a nearest-neighbour tour unless given a start.
+ */
+@Component
+public class AnnealingTspSolver implements TspSolver {
+
+    @Autowired
+    @Qualifier("solverPool")
+    private ForkJoinPool solverPool;
+
+    @Value("${solver.sa.initial-temperature:10000.0}")
+    private double initialTemperature;
+
+    @Value("${solver.sa.cooling-rate:0.995}")
+    private double coolingRate;
+
+    @Value("${solver.sa.iterations-per-temperature:500}")
+    private int iterationsPerTemperature;
+
+    // Independent SA chains run in parallel; capped by the solver pool's parallelism.
+    @Value("${solver.sa.chains:4}")
+    private int chains;
+
+    @Override
+    public String getName() {
+        return "sa";
+    }
+
+    @Override
+    public int[] solve(TspProblem problem, SolverBudget budget) {
+        return anneal(problem, TourUtils.nearestNeighbourTour(problem.getDistanceMatrix()), budget);
+    }
+
+    // Anneals from the given tour, e.g. a GA result.
+    public int[] anneal(TspProblem problem, int[] start, SolverBudget budget) {
+        if (problem.getSize() < 3) {
+            return start;
+        }
+        int chainCount = Math.max(1, Math.min(chains, solverPool.getParallelism()));
+        return new ParallelSimulatedAnnealingTSP(problem.getDistanceMatrix(), initialTemperature, coolingRate,
+                iterationsPerTemperature, chainCount, solverPool).run(start, budget);
+    }
+}
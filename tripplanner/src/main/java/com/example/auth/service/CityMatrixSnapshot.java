@@ -0,0 +1,153 @@
+package com.example.auth.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read-only, memory-mapped all-pairs matrix for the places of one city.
+ *
+ * File layout (little endian):
+ * <pre>
+ * int    magic        'TPMX'
+ * int    version      2
+ * long   cityId
+ * int    n            number of places
+ * long[n]             place ids; position = dense matrix index
+ * double[2n]          latitude, longitude of each place when its cells were fetched
+ * float[n*n]          meters, row-major [origin][destination]
+ * float[n*n]          seconds, row-major [origin][destination]
+ * </pre>
+ * Cells that could not be routed are stored as NaN. Reads go straight to the mapped pages,
+ * so looking up a cell allocates nothing. The stored coordinates let a rebuild spot places
+ * that moved, even after a restart lost the record of the edit.
+ */
+public class CityMatrixSnapshot {
+
+    static final int MAGIC = 0x54504D58; // "TPMX"
+    static final int VERSION = 2;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4;
+
+    private final long cityId;
+    private final long[] placeIds;
+    private final Map<Long, Integer> indexByPlaceId;
+    private final MappedByteBuffer buffer;
+    private final int coordinatesOffset;
+    private final int metersOffset;
+    private final int secondsOffset;
+
+    private CityMatrixSnapshot(long cityId, long[] placeIds, MappedByteBuffer buffer) {
+        this.cityId = cityId;
+        this.placeIds = placeIds;
+        this.buffer = buffer;
+        int n = placeIds.length;
+        this.coordinatesOffset = HEADER_BYTES + 8 * n;
+        this.metersOffset = coordinatesOffset + 16 * n;
+        this.secondsOffset = metersOffset + 4 * n * n;
+        this.indexByPlaceId = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            indexByPlaceId.put(placeIds[i], i);
+        }
+    }
+
+    /**
+     * Maps an existing snapshot file into memory.
+     */
+    public static CityMatrixSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a version " + VERSION + " matrix snapshot: " + path);
+            }
+            long cityId = buffer.getLong(8);
+            int n = buffer.getInt(16);
+            long expected = HEADER_BYTES + 24L * n + 8L * n * n;
+            if (channel.size() != expected) {
+                throw new IOException("Truncated matrix snapshot " + path + ": " + channel.size() + " != " + expected);
+            }
+            long[] placeIds = new long[n];
+            for (int i = 0; i < n; i++) {
+                placeIds[i] = buffer.getLong(HEADER_BYTES + 8 * i);
+            }
+            return new CityMatrixSnapshot(cityId, placeIds, buffer);
+        }
+    }
+
+    /**
+     * Writes a snapshot to a temporary file and atomically moves it into place, so readers
+     * never observe a half-written matrix.
+     */
+    public static void write(Path path, long cityId, long[] placeIds, double[] latitudes, double[] longitudes,
+                             float[] meters, float[] seconds) throws IOException {
+        int n = placeIds.length;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 24 * n + 8 * n * n).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(cityId).putInt(n);
+        for (long id : placeIds) {
+            buffer.putLong(id);
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putDouble(latitudes[i]).putDouble(longitudes[i]);
+        }
+        for (float m : meters) {
+            buffer.putFloat(m);
+        }
+        for (float s : seconds) {
+            buffer.putFloat(s);
+        }
+        buffer.flip();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public long getCityId() {
+        return cityId;
+    }
+
+    public int size() {
+        return placeIds.length;
+    }
+
+    public long getPlaceId(int index) {
+        return placeIds[index];
+    }
+
+    // Dense index of the place in this snapshot, or -1 if the snapshot does not contain it.
+    public int indexOf(long placeId) {
+        Integer index = indexByPlaceId.get(placeId);
+        return index == null ? -1 : index;
+    }
+
+    public double latitude(int index) {
+        return buffer.getDouble(coordinatesOffset + 16 * index);
+    }
+
+    public double longitude(int index) {
+        return buffer.getDouble(coordinatesOffset + 16 * index + 8);
+    }
+
+    // NaN when the pair could not be routed at build time.
+    public float meters(int origin, int destination) {
+        return buffer.getFloat(metersOffset + 4 * (origin * placeIds.length + destination));
+    }
+
+    public float seconds(int origin, int destination) {
+        return buffer.getFloat(secondsOffset + 4 * (origin * placeIds.length + destination));
+    }
+}
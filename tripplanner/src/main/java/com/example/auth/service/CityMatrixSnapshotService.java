@@ -0,0 +1,287 @@
+package com.example.auth.service;
+
+import com.example.auth.model.City;
+import com.example.auth.model.Place;
+import com.example.auth.repository.CityRepository;
+import com.example.auth.repository.PlaceRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Precomputed all-pairs matrices per city, kept as memory-mapped snapshot files.
+ *
+ * A background job builds a snapshot for every city from the configured distance provider
+ * and maps it at startup. Optimize requests whose places all belong to one snapshotted city
+ * are then served by {@link #slice(List)} with no provider calls. Admin edits mark the
+ * changed places dirty; only their rows and columns are re-fetched on the next rebuild,
+ * every other cell is copied from the previous snapshot. A place whose coordinates differ
+ * from those stored in the snapshot counts as dirty too, so moves made before a restart
+ * are still picked up.
+ */
+@Service
+public class CityMatrixSnapshotService {
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private PlaceRepository placeRepository;
+
+    @Autowired
+    private DistanceProviderRegistry distanceProviders;
+
+    @Value("${distance.snapshot.enabled:false}")
+    private boolean enabled;
+
+    @Value("${distance.snapshot.dir:matrix-snapshots}")
+    private String snapshotDir;
+
+    private final Map<Long, CityMatrixSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    // Places edited since the last rebuild of their city; rebuilt in the background.
+    private final Map<Long, Set<Long>> dirtyPlaces = new ConcurrentHashMap<>();
+
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "matrix-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void loadSnapshots() {
+        if (!enabled) {
+            return;
+        }
+        Path dir = Path.of(snapshotDir);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "city-*.bin")) {
+            for (Path file : files) {
+                try {
+                    CityMatrixSnapshot snapshot = CityMatrixSnapshot.open(file);
+                    snapshots.put(snapshot.getCityId(), snapshot);
+                } catch (IOException e) {
+                    System.err.println("Skipping unreadable matrix snapshot " + file + ": " + e.getMessage());
+                }
+            }
+            System.out.println("Mapped " + snapshots.size() + " city matrix snapshots from " + dir);
+        } catch (IOException e) {
+            System.err.println("Failed to list matrix snapshots in " + dir + ": " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * Returns the travel matrix for the given places if they are all covered by one
+     * city snapshot with every pair routed, or null so the caller can use a live provider.
+     */
+    public DistanceMatrix slice(List<Place> places) {
+        if (!enabled || places.isEmpty() || places.get(0).getCity() == null) {
+            return null;
+        }
+        CityMatrixSnapshot snapshot = snapshots.get(places.get(0).getCity().getId());
+        if (snapshot == null) {
+            return null;
+        }
+        int n = places.size();
+        int[] index = new int[n];
+        for (int i = 0; i < n; i++) {
+            index[i] = snapshot.indexOf(places.get(i).getId());
+            if (index[i] < 0 || moved(snapshot, index[i], places.get(i))
+                    || dirtyPlaces.getOrDefault(snapshot.getCityId(), Set.of()).contains(places.get(i).getId())) {
+                return null;
+            }
+        }
+        long[] ids = new long[n];
+        float[] meters = new float[n * n];
+        float[] seconds = new float[n * n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = places.get(i).getId();
+            for (int j = 0; j < n; j++) {
+                if (i == j) {
+                    continue;
+                }
+                float cell = snapshot.meters(index[i], index[j]);
+                if (Float.isNaN(cell)) {
+                    return null;
+                }
+                meters[i * n + j] = cell;
+                seconds[i * n + j] = snapshot.seconds(index[i], index[j]);
+            }
+        }
+        return DistanceMatrix.of(ids, meters, seconds);
+    }
+
+    /**
+     * Records that a place of the city was added, moved or deleted, and schedules an
+     * incremental rebuild of that city's snapshot.
+     */
+    public void placeChanged(Long cityId, Long placeId) {
+        if (!enabled || cityId == null) {
+            return;
+        }
+        dirtyPlaces.computeIfAbsent(cityId, id -> ConcurrentHashMap.newKeySet()).add(placeId);
+        rebuildExecutor.submit(() -> rebuildCity(cityId));
+    }
+
+    // Periodically brings every city's snapshot in line with its current places.
+    @Scheduled(fixedDelayString = "${distance.snapshot.refresh-ms:86400000}",
+            initialDelayString = "${distance.snapshot.initial-delay-ms:60000}")
+    public void rebuildAll() {
+        if (!enabled) {
+            return;
+        }
+        for (City city : cityRepository.findAll()) {
+            rebuildExecutor.submit(() -> rebuildCity(city.getId()));
+        }
+    }
+
+    // Rebuilds one city: unchanged cells are copied, only dirty or new places are re-fetched.
+    private void rebuildCity(Long cityId) {
+        try {
+            City city = cityRepository.findById(cityId).orElse(null);
+            CityMatrixSnapshot previous = snapshots.get(cityId);
+            // Copy the dirty set; it is only cleared once the new snapshot is in place.
+            Set<Long> dirty = new HashSet<>(dirtyPlaces.getOrDefault(cityId, Set.of()));
+            if (city == null) {
+                dirtyPlaces.remove(cityId);
+                snapshots.remove(cityId);
+                Files.deleteIfExists(snapshotPath(cityId));
+                return;
+            }
+
+            List<Place> places = placeRepository.findByCity(city);
+            int n = places.size();
+            long[] ids = new long[n];
+            double[] latitudes = new double[n];
+            double[] longitudes = new double[n];
+            int[] previousIndex = new int[n];
+            List<Place> stale = new ArrayList<>();
+            List<Place> kept = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                Place place = places.get(i);
+                ids[i] = place.getId();
+                latitudes[i] = place.getLatitude();
+                longitudes[i] = place.getLongitude();
+                previousIndex[i] = previous == null ? -1 : previous.indexOf(ids[i]);
+                if (previousIndex[i] < 0 || dirty.contains(ids[i]) || moved(previous, previousIndex[i], place)
+                        || hasUnroutedCells(previous, previousIndex[i])) {
+                    stale.add(place);
+                } else {
+                    kept.add(place);
+                }
+            }
+            boolean sameIds = previous != null && previous.size() == n && stale.isEmpty();
+            if (sameIds) {
+                clearDirty(cityId, dirty);
+                return; // nothing moved, nothing added or removed
+            }
+
+            float[] meters = new float[n * n];
+            float[] seconds = new float[n * n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    if (previousIndex[i] >= 0 && previousIndex[j] >= 0) {
+                        meters[i * n + j] = previous.meters(previousIndex[i], previousIndex[j]);
+                        seconds[i * n + j] = previous.seconds(previousIndex[i], previousIndex[j]);
+                    }
+                }
+            }
+
+            // Fetch the full rows of stale places, and their columns only from the kept places:
+            // the stale-to-stale cells are already in the rows.
+            Map<Long, Integer> indexById = new HashMap<>();
+            for (int i = 0; i < n; i++) {
+                indexById.put(ids[i], i);
+            }
+            if (!stale.isEmpty()) {
+                TravelCost[][] rows = distanceProviders.getTravelCostMatrix(stale, places);
+                for (int s = 0; s < stale.size(); s++) {
+                    int k = indexById.get(stale.get(s).getId());
+                    for (int j = 0; j < n; j++) {
+                        setCell(meters, seconds, n, k, j, rows[s][j]);
+                    }
+                }
+                if (!kept.isEmpty()) {
+                    TravelCost[][] columns = distanceProviders.getTravelCostMatrix(kept, stale);
+                    for (int r = 0; r < kept.size(); r++) {
+                        int i = indexById.get(kept.get(r).getId());
+                        for (int s = 0; s < stale.size(); s++) {
+                            setCell(meters, seconds, n, i, indexById.get(stale.get(s).getId()), columns[r][s]);
+                        }
+                    }
+                }
+            }
+
+            Path dir = Path.of(snapshotDir);
+            Files.createDirectories(dir);
+            Path file = snapshotPath(cityId);
+            CityMatrixSnapshot.write(file, cityId, ids, latitudes, longitudes, meters, seconds);
+            snapshots.put(cityId, CityMatrixSnapshot.open(file));
+            clearDirty(cityId, dirty);
+            System.out.println("Rebuilt matrix snapshot for city " + cityId + ": " + n + " places, "
+                    + stale.size() + " re-fetched");
+        } catch (Exception e) {
+            System.err.println("Failed to rebuild matrix snapshot for city " + cityId + ": " + e.getMessage());
+        }
+    }
+
+    private void clearDirty(Long cityId, Set<Long> rebuilt) {
+        dirtyPlaces.computeIfPresent(cityId, (id, pending) -> {
+            pending.removeAll(rebuilt);
+            return pending.isEmpty() ? null : pending;
+        });
+    }
+
+    private static void setCell(float[] meters, float[] seconds, int n, int i, int j, TravelCost cost) {
+        boolean routed = i == j || cost.isReachable();
+        meters[i * n + j] = i == j ? 0f : routed ? (float) cost.getDistance() : Float.NaN;
+        seconds[i * n + j] = i == j ? 0f : routed ? (float) cost.getTravelTime() : Float.NaN;
+    }
+
+    // True when the place is no longer where it was when its snapshot cells were fetched.
+    private static boolean moved(CityMatrixSnapshot snapshot, int index, Place place) {
+        return snapshot != null && index >= 0
+                && (snapshot.latitude(index) != place.getLatitude() || snapshot.longitude(index) != place.getLongitude());
+    }
+
+    // A place whose row or column has NaN cells is retried on every rebuild.
+    private static boolean hasUnroutedCells(CityMatrixSnapshot snapshot, int index) {
+        if (snapshot == null || index < 0) {
+            return false;
+        }
+        for (int j = 0; j < snapshot.size(); j++) {
+            if (Float.isNaN(snapshot.meters(index, j)) || Float.isNaN(snapshot.meters(j, index))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Path snapshotPath(Long cityId) {
+        return Path.of(snapshotDir).resolve("city-" + cityId + ".bin");
+    }
+}
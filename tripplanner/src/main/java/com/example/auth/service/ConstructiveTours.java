@@ -0,0 +1,393 @@
+package com.example.auth.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Fast constructive heuristics, used to warm-start the genetic algorithm and to splice new
+ * places into a stored tour.
+ *
+ * Every builder returns a closed tour of matrix indices starting at the fixed starting place
+ * (index 0). All of them are at most O(n^2 log n), so a full set of seeds costs far less than
+ * a single GA generation on a large day.
+ */
+public final class ConstructiveTours {
+
+    private ConstructiveTours() {
+    }
+
+    /**
+     * Builds up to {@code count} distinct seed tours: greedy edge, cheapest insertion, farthest
+     * insertion, the space-filling-curve order when the problem has coordinates, then
+     * nearest-neighbour tours from different first places until the count is reached.
+     */
+    public static List<int[]> seedTours(TspProblem problem, int count, SplittableRandom random) {
+        DistanceMatrix matrix = problem.getDistanceMatrix();
+        int n = matrix.size();
+        List<int[]> seeds = new ArrayList<>();
+        if (count <= 0 || n < 3) {
+            return seeds;
+        }
+        addDistinct(seeds, greedyEdge(matrix), count);
+        addDistinct(seeds, cheapestInsertion(matrix), count);
+        addDistinct(seeds, farthestInsertion(matrix), count);
+        if (problem.hasCoordinates()) {
+            addDistinct(seeds, hilbertCurve(problem.getLatitudes(), problem.getLongitudes()), count);
+        }
+        // Multi-start nearest neighbour: the fixed start first, then random other places.
+        int[] starts = new int[n];
+        for (int i = 0; i < n; i++) {
+            starts[i] = i;
+        }
+        for (int i = n - 1; i > 1; i--) {
+            int j = 1 + random.nextInt(i);
+            int t = starts[i];
+            starts[i] = starts[j];
+            starts[j] = t;
+        }
+        for (int k = 0; k < n && seeds.size() < count; k++) {
+            addDistinct(seeds, nearestNeighbour(matrix, starts[k]), count);
+        }
+        return seeds;
+    }
+
+    private static void addDistinct(List<int[]> seeds, int[] tour, int count) {
+        if (seeds.size() >= count) {
+            return;
+        }
+        for (int[] seed : seeds) {
+            if (Arrays.equals(seed, tour)) {
+                return;
+            }
+        }
+        seeds.add(tour);
+    }
+
+    // Greedy walk to the closest unvisited place, beginning at the given place; rotated to start at 0.
+    public static int[] nearestNeighbour(DistanceMatrix matrix, int first) {
+        int n = matrix.size();
+        int[] walk = new int[n];
+        boolean[] visited = new boolean[n];
+        walk[0] = first;
+        visited[first] = true;
+        for (int k = 1; k < n; k++) {
+            int from = walk[k - 1];
+            int next = -1;
+            for (int j = 0; j < n; j++) {
+                if (!visited[j] && (next < 0 || matrix.distance(from, j) < matrix.distance(from, next))) {
+                    next = j;
+                }
+            }
+            walk[k] = next;
+            visited[next] = true;
+        }
+        return rotateToStart(walk);
+    }
+
+    /**
+     * Greedy edge matching: takes the shortest edges first, skipping any that would give a place
+     * a third edge or close a cycle early, until the fragments form one tour. Edges are ranked by
+     * their round-trip cost, and the cheaper direction of the resulting cycle is returned.
+     */
+    public static int[] greedyEdge(DistanceMatrix matrix) {
+        int n = matrix.size();
+        if (n < 3) {
+            return identity(n);
+        }
+        // Sort keys pack the (non-negative) float weight above the edge index; float bits sort like the floats.
+        long[] edges = new long[n * (n - 1) / 2];
+        int e = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                float weight = (float) (matrix.distance(i, j) + matrix.distance(j, i));
+                edges[e++] = ((long) Float.floatToIntBits(weight) << 32) | (i * n + j);
+            }
+        }
+        Arrays.sort(edges);
+
+        int[] degree = new int[n];
+        int[][] adjacent = new int[n][2];
+        int[] fragment = new int[n];
+        for (int i = 0; i < n; i++) {
+            fragment[i] = i;
+        }
+        int added = 0;
+        for (long edge : edges) {
+            if (added == n - 1) {
+                break;
+            }
+            int index = (int) edge;
+            int a = index / n;
+            int b = index % n;
+            if (degree[a] == 2 || degree[b] == 2) {
+                continue;
+            }
+            int ra = find(fragment, a);
+            int rb = find(fragment, b);
+            if (ra == rb) {
+                continue;
+            }
+            fragment[ra] = rb;
+            adjacent[a][degree[a]++] = b;
+            adjacent[b][degree[b]++] = a;
+            added++;
+        }
+
+        // The edges now form one Hamiltonian path; walk it from one end, closing the tour implicitly.
+        int end = 0;
+        while (degree[end] != 1) {
+            end++;
+        }
+        int[] walk = new int[n];
+        int previous = -1;
+        int current = end;
+        for (int k = 0; k < n; k++) {
+            walk[k] = current;
+            int next = adjacent[current][0] == previous ? adjacent[current][1] : adjacent[current][0];
+            previous = current;
+            current = next;
+        }
+        return cheaperDirection(matrix, rotateToStart(walk));
+    }
+
+    /**
+     * Cheapest insertion: grows a tour from the start and its nearest place, each step inserting
+     * the unvisited place whose best insertion adds the least length.
+     */
+    public static int[] cheapestInsertion(DistanceMatrix matrix) {
+        int n = matrix.size();
+        if (n < 3) {
+            return identity(n);
+        }
+        int nearest = 1;
+        for (int j = 2; j < n; j++) {
+            if (matrix.distance(0, j) + matrix.distance(j, 0) < matrix.distance(0, nearest) + matrix.distance(nearest, 0)) {
+                nearest = j;
+            }
+        }
+        return insertCheapest(matrix, new int[]{0, nearest});
+    }
+
+    /**
+     * Completes a partial tour (starting at index 0) by cheapest insertion of every place it
+     * does not visit yet; the visited places keep their relative order. Each unvisited place
+     * keeps its best insertion edge, which only needs a full rescan when that edge is broken.
+     */
+    public static int[] insertCheapest(DistanceMatrix matrix, int[] partialTour) {
+        int n = matrix.size();
+        int[] next = new int[n];
+        boolean[] inTour = new boolean[n];
+        for (int k = 0; k < partialTour.length; k++) {
+            next[partialTour[k]] = partialTour[(k + 1) % partialTour.length];
+            inTour[partialTour[k]] = true;
+        }
+
+        // bestAfter[u]: tour place after which u is cheapest to insert; bestCost[u]: the added length.
+        int[] bestAfter = new int[n];
+        double[] bestCost = new double[n];
+        for (int u = 0; u < n; u++) {
+            if (!inTour[u]) {
+                rescanInsertion(matrix, next, u, bestAfter, bestCost);
+            }
+        }
+        for (int size = partialTour.length; size < n; size++) {
+            int x = -1;
+            for (int u = 0; u < n; u++) {
+                if (!inTour[u] && (x < 0 || bestCost[u] < bestCost[x])) {
+                    x = u;
+                }
+            }
+            int a = bestAfter[x];
+            int b = next[a];
+            next[a] = x;
+            next[x] = b;
+            inTour[x] = true;
+            for (int u = 0; u < n; u++) {
+                if (inTour[u]) {
+                    continue;
+                }
+                if (bestAfter[u] == a) {
+                    rescanInsertion(matrix, next, u, bestAfter, bestCost); // its edge (a, b) is gone
+                } else {
+                    offerInsertion(matrix, u, a, x, bestAfter, bestCost);
+                    offerInsertion(matrix, u, x, b, bestAfter, bestCost);
+                }
+            }
+        }
+        return fromSuccessors(next);
+    }
+
+    /**
+     * Farthest insertion: repeatedly picks the unvisited place farthest from the tour and inserts
+     * it where it adds the least length, which lays out the overall shape of the tour early.
+     */
+    public static int[] farthestInsertion(DistanceMatrix matrix) {
+        int n = matrix.size();
+        if (n < 3) {
+            return identity(n);
+        }
+        int[] next = new int[n];
+        boolean[] inTour = new boolean[n];
+        next[0] = 0;
+        inTour[0] = true;
+        // Distance from each unvisited place to its closest tour place.
+        double[] gap = new double[n];
+        for (int u = 1; u < n; u++) {
+            gap[u] = Math.min(matrix.distance(0, u), matrix.distance(u, 0));
+        }
+        for (int size = 1; size < n; size++) {
+            int x = -1;
+            for (int u = 1; u < n; u++) {
+                if (!inTour[u] && (x < 0 || gap[u] > gap[x])) {
+                    x = u;
+                }
+            }
+            int after = 0;
+            double cheapest = Double.POSITIVE_INFINITY;
+            int a = 0;
+            do {
+                int b = next[a];
+                double cost = matrix.distance(a, x) + matrix.distance(x, b) - matrix.distance(a, b);
+                if (cost < cheapest) {
+                    cheapest = cost;
+                    after = a;
+                }
+                a = b;
+            } while (a != 0);
+            next[x] = next[after];
+            next[after] = x;
+            inTour[x] = true;
+            for (int u = 1; u < n; u++) {
+                if (!inTour[u]) {
+                    gap[u] = Math.min(gap[u], Math.min(matrix.distance(x, u), matrix.distance(u, x)));
+                }
+            }
+        }
+        return fromSuccessors(next);
+    }
+
+    /**
+     * Visits places in the order of a Hilbert curve laid over their bounding box, so places close
+     * on the map stay close in the tour. Needs no distances at all.
+     */
+    public static int[] hilbertCurve(double[] latitudes, double[] longitudes) {
+        int n = latitudes.length;
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minLat = Math.min(minLat, latitudes[i]);
+            maxLat = Math.max(maxLat, latitudes[i]);
+            minLon = Math.min(minLon, longitudes[i]);
+            maxLon = Math.max(maxLon, longitudes[i]);
+        }
+        // One square grid over the box keeps the aspect ratio, so the curve does not stretch.
+        double span = Math.max(Math.max(maxLat - minLat, maxLon - minLon), 1e-12);
+        int side = 1 << 16;
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            int x = (int) Math.min(side - 1, (longitudes[i] - minLon) / span * side);
+            int y = (int) Math.min(side - 1, (latitudes[i] - minLat) / span * side);
+            keys[i] = (hilbertIndex(side, x, y) << 20) | i;
+        }
+        Arrays.sort(keys);
+        int[] walk = new int[n];
+        for (int k = 0; k < n; k++) {
+            walk[k] = (int) (keys[k] & ((1 << 20) - 1));
+        }
+        return rotateToStart(walk);
+    }
+
+    // Position of cell (x, y) along the Hilbert curve filling a side x side grid (side a power of two).
+    private static long hilbertIndex(int side, int x, int y) {
+        long d = 0;
+        for (int s = side / 2; s > 0; s /= 2) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+            // Rotate the quadrant so the sub-curve is oriented like the whole.
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = s - 1 - x;
+                    y = s - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+
+    private static void rescanInsertion(DistanceMatrix matrix, int[] next, int u, int[] bestAfter, double[] bestCost) {
+        bestCost[u] = Double.POSITIVE_INFINITY;
+        int a = 0;
+        do {
+            offerInsertion(matrix, u, a, next[a], bestAfter, bestCost);
+            a = next[a];
+        } while (a != 0);
+    }
+
+    private static void offerInsertion(DistanceMatrix matrix, int u, int a, int b, int[] bestAfter, double[] bestCost) {
+        double cost = matrix.distance(a, u) + matrix.distance(u, b) - matrix.distance(a, b);
+        if (cost < bestCost[u]) {
+            bestCost[u] = cost;
+            bestAfter[u] = a;
+        }
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    // Tour from a successor array, walking from the starting place.
+    private static int[] fromSuccessors(int[] next) {
+        int[] tour = new int[next.length];
+        int place = 0;
+        for (int k = 0; k < tour.length; k++) {
+            tour[k] = place;
+            place = next[place];
+        }
+        return tour;
+    }
+
+    // Rotates a closed walk so that it begins at the starting place.
+    private static int[] rotateToStart(int[] walk) {
+        int n = walk.length;
+        int offset = 0;
+        while (walk[offset] != 0) {
+            offset++;
+        }
+        int[] tour = new int[n];
+        for (int k = 0; k < n; k++) {
+            tour[k] = walk[(offset + k) % n];
+        }
+        return tour;
+    }
+
+    // The tour or its reverse, whichever is shorter (they only differ on asymmetric matrices).
+    private static int[] cheaperDirection(DistanceMatrix matrix, int[] tour) {
+        int n = tour.length;
+        int[] reversed = new int[n];
+        reversed[0] = tour[0];
+        for (int k = 1; k < n; k++) {
+            reversed[k] = tour[n - k];
+        }
+        return TourUtils.tourLength(reversed, matrix) < TourUtils.tourLength(tour, matrix) ? reversed : tour;
+    }
+
+    private static int[] identity(int n) {
+        int[] tour = new int[n];
+        for (int i = 0; i < n; i++) {
+            tour[i] = i;
+        }
+        return tour;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.auth.service;
+
+import java.util.List;
+
+/**
+ * Optimized route of one trip day as it was saved: place names in visiting order (ending back
+ * at the starting place), the totals and per-leg figures, and the solver that produced it.
+ */
+public class DayRoute {
+    private final List<String> placeNames;
+    private final RouteDetails routeDetails;
+    private final String solverName;
+
+    public DayRoute(List<String> placeNames, RouteDetails routeDetails, String solverName) {
+        this.placeNames = placeNames;
+        this.routeDetails = routeDetails;
+        this.solverName = solverName;
+    }
+
+    public List<String> getPlaceNames() {
+        return placeNames;
+    }
+
+    public RouteDetails getRouteDetails() {
+        return routeDetails;
+    }
+
+    public String getSolverName() {
+        return solverName;
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.auth.service;
+
+import com.example.auth.model.Place;
+import com.example.auth.model.PlaceDistance;
+import com.example.auth.repository.PlaceDistanceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache in front of {@link TomTomService}.
+ *
+ * Lookups go to a bounded in-memory LRU first, then to the place_distances table,
+ * and only fall back to a live TomTom call when neither has the pair. Places rarely
+ * move, so entries never expire on their own; {@link #invalidatePlace(Long)} is called
+ * by the admin endpoints when a place's coordinates change or the place is deleted.
+ *
+ * Concurrent requests for the same pair are coalesced: the first caller registers a future
+ * in the in-flight table and fetches, later callers wait on that future instead of
+ * issuing a duplicate provider call.
+ */
+@Service
+public class DistanceCacheService {
+
+    @Autowired
+    private TomTomService tomTomService;
+
+    @Autowired
+    private PlaceDistanceRepository placeDistanceRepository;
+
+    private final Map<PlacePair, TravelCost> memoryCache;
+
+    // Pairs currently being fetched, shared by every caller that asks for them meanwhile.
+    private final ConcurrentHashMap<PlacePair, CompletableFuture<TravelCost>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong databaseHits = new AtomicLong();
+    private final AtomicLong providerFetches = new AtomicLong();
+    private final AtomicLong coalescedRequests = new AtomicLong();
+
+    public DistanceCacheService(@Value("${distance.cache.memory-size:10000}") int memoryCacheSize) {
+        // Access-ordered LinkedHashMap evicting the least recently used pair once full.
+        this.memoryCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PlacePair, TravelCost> eldest) {
+                return size() > memoryCacheSize;
+            }
+        };
+    }
+
+    // Key of a directed leg; road distances are not symmetric.
+    private record PlacePair(Long originId, Long destinationId) {
+    }
+
+    public double getRouteDistance(Place origin, Place destination) {
+        return getTravelCost(origin, destination).getDistance();
+    }
+
+    public TravelCost getTravelCost(Place origin, Place destination) {
+        if (origin.getId().equals(destination.getId())) {
+            return TravelCost.ZERO;
+        }
+        PlacePair key = new PlacePair(origin.getId(), destination.getId());
+
+        TravelCost cached = getFromMemory(key);
+        if (cached != null) {
+            memoryHits.incrementAndGet();
+            return cached;
+        }
+
+        CompletableFuture<TravelCost> mine = new CompletableFuture<>();
+        CompletableFuture<TravelCost> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalescedRequests.incrementAndGet();
+            return existing.join();
+        }
+
+        TravelCost result = TravelCost.UNREACHABLE;
+        try {
+            PlaceDistance stored = placeDistanceRepository
+                    .findByOriginPlaceIdAndDestinationPlaceId(key.originId(), key.destinationId())
+                    .orElse(null);
+            if (stored != null) {
+                databaseHits.incrementAndGet();
+                result = new TravelCost(stored.getLengthInMeters(), stored.getTravelTimeInSeconds());
+                putInMemory(key, result);
+                return result;
+            }
+
+            providerFetches.incrementAndGet();
+            result = tomTomService.getTravelCost(origin, destination);
+            // Never cache failures; the next request should retry the API.
+            if (result.isReachable()) {
+                store(key, result);
+            }
+            return result;
+        } finally {
+            inFlight.remove(key, mine);
+            mine.complete(result);
+        }
+    }
+
+    /**
+     * Builds the full travel cost matrix for the given places. Cached pairs are read from
+     * memory and then in one query from the database; the remaining pairs are fetched with
+     * batched matrix requests covering only the rows and columns that still have gaps.
+     */
+    public TravelCost[][] getTravelCostMatrix(List<Place> places) {
+        return getTravelCostMatrix(places, places);
+    }
+
+    /**
+     * Rectangular variant indexed [origin][destination], used when only a few rows or
+     * columns are needed (e.g. for a single new place).
+     */
+    public TravelCost[][] getTravelCostMatrix(List<Place> origins, List<Place> destinations) {
+        int rowsCount = origins.size();
+        int columnsCount = destinations.size();
+        TravelCost[][] matrix = new TravelCost[rowsCount][columnsCount];
+        List<Long> originIds = new ArrayList<>();
+        for (Place place : origins) {
+            originIds.add(place.getId());
+        }
+        List<Long> destinationIds = new ArrayList<>();
+        for (Place place : destinations) {
+            destinationIds.add(place.getId());
+        }
+
+        int missing = 0;
+        for (int i = 0; i < rowsCount; i++) {
+            for (int j = 0; j < columnsCount; j++) {
+                if (originIds.get(i).equals(destinationIds.get(j))) {
+                    matrix[i][j] = TravelCost.ZERO;
+                    continue;
+                }
+                matrix[i][j] = getFromMemory(new PlacePair(originIds.get(i), destinationIds.get(j)));
+                if (matrix[i][j] == null) {
+                    missing++;
+                } else {
+                    memoryHits.incrementAndGet();
+                }
+            }
+        }
+        if (missing == 0) {
+            return matrix;
+        }
+
+        Map<PlacePair, PlaceDistance> stored = new HashMap<>();
+        for (PlaceDistance d : placeDistanceRepository.findByOriginPlaceIdInAndDestinationPlaceIdIn(originIds, destinationIds)) {
+            stored.put(new PlacePair(d.getOriginPlaceId(), d.getDestinationPlaceId()), d);
+        }
+
+        for (int i = 0; i < rowsCount; i++) {
+            for (int j = 0; j < columnsCount; j++) {
+                if (matrix[i][j] != null) {
+                    continue;
+                }
+                PlacePair key = new PlacePair(originIds.get(i), destinationIds.get(j));
+                PlaceDistance d = stored.get(key);
+                if (d != null) {
+                    databaseHits.incrementAndGet();
+                    matrix[i][j] = new TravelCost(d.getLengthInMeters(), d.getTravelTimeInSeconds());
+                    putInMemory(key, matrix[i][j]);
+                }
+            }
+        }
+
+        // Claim the gaps nobody else is fetching; wait for the ones already in flight.
+        Map<PlacePair, CompletableFuture<TravelCost>> owned = new HashMap<>();
+        Map<PlacePair, CompletableFuture<TravelCost>> joined = new HashMap<>();
+        boolean[] missingRow = new boolean[rowsCount];
+        boolean[] missingColumn = new boolean[columnsCount];
+        for (int i = 0; i < rowsCount; i++) {
+            for (int j = 0; j < columnsCount; j++) {
+                if (matrix[i][j] != null) {
+                    continue;
+                }
+                PlacePair key = new PlacePair(originIds.get(i), destinationIds.get(j));
+                CompletableFuture<TravelCost> mine = new CompletableFuture<>();
+                CompletableFuture<TravelCost> existing = inFlight.putIfAbsent(key, mine);
+                if (existing != null) {
+                    coalescedRequests.incrementAndGet();
+                    joined.put(key, existing);
+                } else {
+                    owned.put(key, mine);
+                    // Only rows and columns with a gap we own go into the batched request.
+                    missingRow[i] = true;
+                    missingColumn[j] = true;
+                }
+            }
+        }
+
+        try {
+            fetchOwned(origins, destinations, originIds, destinationIds, matrix, missingRow, missingColumn, owned);
+        } finally {
+            // Release every claimed pair, even if the fetch blew up, so waiters never hang.
+            for (Map.Entry<PlacePair, CompletableFuture<TravelCost>> entry : owned.entrySet()) {
+                inFlight.remove(entry.getKey(), entry.getValue());
+                entry.getValue().complete(TravelCost.UNREACHABLE);
+            }
+        }
+
+        for (int i = 0; i < rowsCount; i++) {
+            for (int j = 0; j < columnsCount; j++) {
+                if (matrix[i][j] == null) {
+                    CompletableFuture<TravelCost> shared = joined.get(new PlacePair(originIds.get(i), destinationIds.get(j)));
+                    matrix[i][j] = shared != null ? shared.join() : TravelCost.UNREACHABLE;
+                }
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Counters describing how lookups were served; coalescedRequests counts callers that
+     * piggy-backed on another caller's in-flight fetch instead of calling the provider.
+     */
+    public Map<String, Long> getStats() {
+        return Map.of(
+                "memoryHits", memoryHits.get(),
+                "databaseHits", databaseHits.get(),
+                "providerFetches", providerFetches.get(),
+                "coalescedRequests", coalescedRequests.get(),
+                "inFlight", (long) inFlight.size()
+        );
+    }
+
+    // Fetches the owned gaps in one batched matrix call and completes their futures.
+    private void fetchOwned(List<Place> allOrigins, List<Place> allDestinations,
+                            List<Long> originIds, List<Long> destinationIds, TravelCost[][] matrix,
+                            boolean[] missingRow, boolean[] missingColumn,
+                            Map<PlacePair, CompletableFuture<TravelCost>> owned) {
+        List<Integer> rows = indicesOf(missingRow);
+        List<Integer> columns = indicesOf(missingColumn);
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<Place> origins = new ArrayList<>();
+        for (int i : rows) {
+            origins.add(allOrigins.get(i));
+        }
+        List<Place> destinations = new ArrayList<>();
+        for (int j : columns) {
+            destinations.add(allDestinations.get(j));
+        }
+
+        providerFetches.addAndGet(owned.size());
+        TravelCost[][] fetched = tomTomService.getTravelCostMatrix(origins, destinations);
+        List<PlaceDistance> toStore = new ArrayList<>();
+        for (int a = 0; a < rows.size(); a++) {
+            for (int b = 0; b < columns.size(); b++) {
+                int i = rows.get(a);
+                int j = columns.get(b);
+                PlacePair key = new PlacePair(originIds.get(i), destinationIds.get(j));
+                CompletableFuture<TravelCost> future = owned.get(key);
+                if (matrix[i][j] != null || future == null) {
+                    continue; // cached or owned by another caller, the tile just happened to cover it
+                }
+                matrix[i][j] = fetched[a][b];
+                if (fetched[a][b].isReachable()) {
+                    putInMemory(key, fetched[a][b]);
+                    toStore.add(toEntity(key, fetched[a][b]));
+                }
+                inFlight.remove(key, future);
+                future.complete(fetched[a][b]);
+            }
+        }
+        try {
+            placeDistanceRepository.saveAll(toStore);
+        } catch (Exception e) {
+            System.err.println("Failed to persist " + toStore.size() + " distances: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drops every cached leg that starts or ends at the given place, both in memory
+     * and in the database.
+     */
+    public void invalidatePlace(Long placeId) {
+        synchronized (memoryCache) {
+            memoryCache.keySet().removeIf(pair ->
+                    pair.originId().equals(placeId) || pair.destinationId().equals(placeId));
+        }
+        placeDistanceRepository.deleteByPlaceId(placeId);
+    }
+
+    private void store(PlacePair key, TravelCost cost) {
+        putInMemory(key, cost);
+        try {
+            placeDistanceRepository.save(toEntity(key, cost));
+        } catch (Exception e) {
+            // A concurrent request may have stored the same pair first; the memory entry is enough.
+            System.err.println("Failed to persist distance " + key + ": " + e.getMessage());
+        }
+    }
+
+    private PlaceDistance toEntity(PlacePair key, TravelCost cost) {
+        PlaceDistance entity = new PlaceDistance();
+        entity.setOriginPlaceId(key.originId());
+        entity.setDestinationPlaceId(key.destinationId());
+        entity.setLengthInMeters(cost.getDistance());
+        entity.setTravelTimeInSeconds(cost.getTravelTime());
+        entity.setUpdatedAt(LocalDateTime.now());
+        return entity;
+    }
+
+    private static List<Integer> indicesOf(boolean[] flags) {
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < flags.length; i++) {
+            if (flags[i]) {
+                indices.add(i);
+            }
+        }
+        return indices;
+    }
+
+    private TravelCost getFromMemory(PlacePair key) {
+        synchronized (memoryCache) {
+            return memoryCache.get(key);
+        }
+    }
+
+    private void putInMemory(PlacePair key, TravelCost cost) {
+        synchronized (memoryCache) {
+            memoryCache.put(key, cost);
+        }
+    }
+}
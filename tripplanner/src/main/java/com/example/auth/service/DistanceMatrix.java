@@ -0,0 +1,168 @@
+package com.example.auth.service;
+
+import com.example.auth.model.Place;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable travel matrix over a fixed list of places, stored as flat row-major float arrays.
+ *
+ * Index 0 is the starting place when the matrix is used for a round trip. Legs that could not
+ * be routed hold {@link #UNREACHABLE}: a finite penalty far larger than any real leg, so the
+ * solvers avoid such legs while tour sums and move deltas stay finite. Use
+ * {@link #isReachable(int, int)} to tell penalties from real figures.
+ */
+public final class DistanceMatrix {
+
+    // Penalty for unroutable legs, in both meters and seconds (about 25 times around the earth).
+    public static final float UNREACHABLE = 1.0e9f;
+
+    private final int size;
+    private final float[] meters;
+    private final float[] seconds;
+    private final long[] placeIds;
+    private final Map<Long, Integer> indexByPlaceId;
+
+    private DistanceMatrix(long[] placeIds, float[] meters, float[] seconds) {
+        this.size = placeIds.length;
+        this.meters = meters;
+        this.seconds = seconds;
+        this.placeIds = placeIds;
+        this.indexByPlaceId = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            indexByPlaceId.put(placeIds[i], i);
+        }
+    }
+
+    /**
+     * Takes ownership of the given row-major arrays; callers must not modify them afterwards.
+     * NaN cells are treated as unreachable.
+     */
+    public static DistanceMatrix of(long[] placeIds, float[] meters, float[] seconds) {
+        int n = placeIds.length;
+        if (meters.length != n * n || seconds.length != n * n) {
+            throw new IllegalArgumentException("Expected " + n * n + " cells, got " + meters.length + " and " + seconds.length);
+        }
+        for (int k = 0; k < meters.length; k++) {
+            if (Float.isNaN(meters[k]) || Float.isNaN(seconds[k]) || meters[k] >= UNREACHABLE) {
+                meters[k] = UNREACHABLE;
+                seconds[k] = UNREACHABLE;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            meters[i * n + i] = 0f;
+            seconds[i * n + i] = 0f;
+        }
+        return new DistanceMatrix(placeIds, meters, seconds);
+    }
+
+    // From a provider matrix over the given places; unreachable cells become the penalty.
+    public static DistanceMatrix fromTravelCosts(List<Place> places, TravelCost[][] costs) {
+        int n = places.size();
+        long[] ids = new long[n];
+        float[] meters = new float[n * n];
+        float[] seconds = new float[n * n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = places.get(i).getId();
+            for (int j = 0; j < n; j++) {
+                TravelCost cost = costs[i][j];
+                boolean routed = i == j || (cost != null && cost.isReachable());
+                meters[i * n + j] = i == j ? 0f : routed ? (float) cost.getDistance() : Float.NaN;
+                seconds[i * n + j] = i == j ? 0f : routed ? (float) cost.getTravelTime() : Float.NaN;
+            }
+        }
+        return of(ids, meters, seconds);
+    }
+
+    // Distances only, indexed 0..n-1 with zero travel times; for tests and ad-hoc problems.
+    public static DistanceMatrix fromMeters(double[][] distances) {
+        int n = distances.length;
+        long[] ids = new long[n];
+        float[] meters = new float[n * n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i;
+            for (int j = 0; j < n; j++) {
+                meters[i * n + j] = (float) distances[i][j];
+            }
+        }
+        return of(ids, meters, new float[n * n]);
+    }
+
+    /**
+     * The sub-matrix over the given places, in their order, e.g. one day's share of a matrix
+     * built for a whole trip. Every place must be in this matrix.
+     */
+    public DistanceMatrix select(List<Place> places) {
+        int[] indices = new int[places.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = indexOf(places.get(i).getId());
+            if (indices[i] < 0) {
+                throw new IllegalArgumentException("Place " + places.get(i).getId() + " is not in the matrix");
+            }
+        }
+        return select(indices);
+    }
+
+    // The sub-matrix over the given indices of this matrix, in their order.
+    public DistanceMatrix select(int[] indices) {
+        int n = indices.length;
+        long[] ids = new long[n];
+        float[] selectedMeters = new float[n * n];
+        float[] selectedSeconds = new float[n * n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = placeIds[indices[i]];
+            int row = indices[i] * size;
+            for (int j = 0; j < n; j++) {
+                selectedMeters[i * n + j] = meters[row + indices[j]];
+                selectedSeconds[i * n + j] = seconds[row + indices[j]];
+            }
+        }
+        return new DistanceMatrix(ids, selectedMeters, selectedSeconds);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Meters from place index i to place index j.
+    public double distance(int i, int j) {
+        return meters[i * size + j];
+    }
+
+    // Seconds from place index i to place index j.
+    public double time(int i, int j) {
+        return seconds[i * size + j];
+    }
+
+    public boolean isReachable(int i, int j) {
+        return meters[i * size + j] < UNREACHABLE;
+    }
+
+    // Leg as a TravelCost, with TravelCost.UNREACHABLE for unroutable legs.
+    public TravelCost travelCost(int i, int j) {
+        return isReachable(i, j) ? new TravelCost(distance(i, j), time(i, j)) : TravelCost.UNREACHABLE;
+    }
+
+    public long getPlaceId(int index) {
+        return placeIds[index];
+    }
+
+    // Dense index of the place, or -1 if the matrix does not contain it.
+    public int indexOf(long placeId) {
+        Integer index = indexByPlaceId.get(placeId);
+        return index == null ? -1 : index;
+    }
+
+    public boolean isSymmetric() {
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                if (meters[i * size + j] != meters[j * size + i]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.auth.service;
+
+import com.example.auth.model.Place;
+
+import java.util.List;
+
+/**
+ * Source of travel distances and times between places.
+ *
+ * Implementations are Spring beans; {@link DistanceProviderRegistry} picks the active one
+ * by its {@link #getName()} from the {@code distance.provider} property.
+ */
+public interface DistanceProvider {
+
+    // Name used in configuration, e.g. "tomtom" or "road-graph".
+    String getName();
+
+    // Cost of the directed leg, or TravelCost.UNREACHABLE if it cannot be routed.
+    TravelCost getTravelCost(Place origin, Place destination);
+
+    // Full square matrix indexed [origin][destination] over the given places.
+    TravelCost[][] getTravelCostMatrix(List<Place> places);
+
+    // Rectangular matrix indexed [origin][destination]; providers with a batch path should override.
+    default TravelCost[][] getTravelCostMatrix(List<Place> origins, List<Place> destinations) {
+        TravelCost[][] matrix = new TravelCost[origins.size()][destinations.size()];
+        for (int i = 0; i < origins.size(); i++) {
+            for (int j = 0; j < destinations.size(); j++) {
+                matrix[i][j] = origins.get(i).getId().equals(destinations.get(j).getId())
+                        ? TravelCost.ZERO
+                        : getTravelCost(origins.get(i), destinations.get(j));
+            }
+        }
+        return matrix;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.auth.service;
+
+import com.example.auth.model.Place;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Looks up distance providers by name and applies the configured primary/fallback pair.
+ *
+ * {@code distance.provider} names the provider used for every lookup. If
+ * {@code distance.fallback-provider} is set, any cell the primary cannot route (for example
+ * during a TomTom outage or once the quota is exhausted) is filled from the fallback instead
+ * of being left as an unreachable penalty that would mislead the solvers.
+ */
+@Service
+public class DistanceProviderRegistry {
+
+    private final Map<String, DistanceProvider> providers = new HashMap<>();
+    private final String primaryName;
+    private final String fallbackName;
+
+    public DistanceProviderRegistry(List<DistanceProvider> providerBeans,
+                                    @Value("${distance.provider:tomtom}") String primaryName,
+                                    @Value("${distance.fallback-provider:}") String fallbackName) {
+        for (DistanceProvider provider : providerBeans) {
+            providers.put(provider.getName(), provider);
+        }
+        if (!providers.containsKey(primaryName)) {
+            throw new IllegalStateException("Unknown distance.provider '" + primaryName
+                    + "', expected one of " + providers.keySet());
+        }
+        if (!fallbackName.isBlank() && !providers.containsKey(fallbackName)) {
+            throw new IllegalStateException("Unknown distance.fallback-provider '" + fallbackName
+                    + "', expected one of " + providers.keySet());
+        }
+        this.primaryName = primaryName;
+        this.fallbackName = fallbackName.isBlank() ? null : fallbackName;
+    }
+
+    public DistanceProvider get(String name) {
+        DistanceProvider provider = providers.get(name);
+        if (provider == null) {
+            throw new IllegalArgumentException("Unknown distance provider: " + name);
+        }
+        return provider;
+    }
+
+    public DistanceProvider getPrimary() {
+        return providers.get(primaryName);
+    }
+
+    public TravelCost getTravelCost(Place origin, Place destination) {
+        TravelCost cost = getPrimary().getTravelCost(origin, destination);
+        if (!cost.isReachable() && fallbackName != null) {
+            cost = providers.get(fallbackName).getTravelCost(origin, destination);
+        }
+        return cost;
+    }
+
+    public TravelCost[][] getTravelCostMatrix(List<Place> places) {
+        return getTravelCostMatrix(places, places);
+    }
+
+    public TravelCost[][] getTravelCostMatrix(List<Place> origins, List<Place> destinations) {
+        TravelCost[][] matrix = getPrimary().getTravelCostMatrix(origins, destinations);
+        if (fallbackName == null) {
+            return matrix;
+        }
+        boolean gaps = false;
+        for (TravelCost[] row : matrix) {
+            for (TravelCost cell : row) {
+                gaps |= !cell.isReachable();
+            }
+        }
+        if (gaps) {
+            // The fallback is expected to be cheap (offline), so ask it for the whole matrix at once.
+            TravelCost[][] fallback = providers.get(fallbackName).getTravelCostMatrix(origins, destinations);
+            for (int i = 0; i < matrix.length; i++) {
+                for (int j = 0; j < matrix[i].length; j++) {
+                    if (!matrix[i][j].isReachable()) {
+                        matrix[i][j] = fallback[i][j];
+                    }
+                }
+            }
+        }
+        return matrix;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.auth.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Provably optimal tours via Held-Karp, for days up to {@code route.exact.max-places} places.
+ */
+@Component
+public class ExactTspSolver implements TspSolver {
+
+    // Days with at most this many places (including the start) are solved exactly with Held-Karp.
+    @Value("${route.exact.max-places:12}")
+    private int exactMaxPlaces;
+
+    @Override
+    public String getName() {
+        return "exact";
+    }
+
+    @Override
+    public boolean supports(TspProblem problem) {
+        return problem.getSize() <= Math.min(exactMaxPlaces, HeldKarpTSP.MAX_PLACES);
+    }
+
+    @Override
+    public boolean isExact() {
+        return true;
+    }
+
+    @Override
+    public int[] solve(TspProblem problem, SolverBudget budget) {
+        return new HeldKarpTSP(problem.getDistanceMatrix()).run();
+    }
+}
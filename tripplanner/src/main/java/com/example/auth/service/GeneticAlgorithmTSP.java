@@ -1,57 +1,102 @@
 package com.example.auth.service;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
 
+/**
+ * Genetic algorithm over closed tours with the starting place fixed at index 0.
+ *
+ * The population lives in two preallocated {@code int[][]} buffers with parallel fitness
+ * arrays; each generation writes children into the spare buffer and the two are swapped.
+ * Selection works on indices and order crossover marks used genes in a reusable stamp array,
+ * so a run allocates nothing per generation and crossover is linear in the tour length.
+ *
+ * Seed tours from {@link ConstructiveTours} may fill part of the first generation; at least
+ * half of it is always random, to keep the population diverse.
+ */
 public class GeneticAlgorithmTSP {
-    private final double[][] distanceMatrix;
+    private final DistanceMatrix distanceMatrix;
     private final int populationSize;
     private final int generations;
     private double mutationRate;
-    private final Random random;
+    private final SplittableRandom random;
 
-    public GeneticAlgorithmTSP(double[][] distanceMatrix, int populationSize, int generations, double mutationRate) {
+    private int[][] population;
+    private double[] fitness;
+    private int[][] nextPopulation;
+    private double[] nextFitness;
+
+    // Gene g is already in the child being built iff used[g] == stamp.
+    private int[] used;
+    private int stamp;
+
+    private List<int[]> seedTours = List.of();
+
+    private int[] eliteIndices;
+    private int[] bestRoute;
+    private double bestFitness;
+
+    public GeneticAlgorithmTSP(DistanceMatrix distanceMatrix, int populationSize, int generations, double mutationRate) {
+        this(distanceMatrix, populationSize, generations, mutationRate, new SplittableRandom());
+    }
+
+    // Seeded variant, for reproducible runs.
+    public GeneticAlgorithmTSP(DistanceMatrix distanceMatrix, int populationSize, int generations, double mutationRate, long seed) {
+        this(distanceMatrix, populationSize, generations, mutationRate, new SplittableRandom(seed));
+    }
+
+    private GeneticAlgorithmTSP(DistanceMatrix distanceMatrix, int populationSize, int generations, double mutationRate, SplittableRandom random) {
         this.distanceMatrix = distanceMatrix;
         this.populationSize = populationSize;
         this.generations = generations;
         this.mutationRate = mutationRate;
-        this.random = new Random();
+        this.random = random;
     }
 
-    public class Individual {
-        public int[] route;
-        public double fitness;
-
-        public Individual(int[] route) {
-            this.route = route.clone();
-            this.fitness = calculateFitness(this.route);
-        }
+    // Tours copied into the first generation (at most half of it) before random individuals fill the rest.
+    public void setSeedTours(List<int[]> seedTours) {
+        this.seedTours = seedTours;
     }
 
     // Calculate the total route distance (fitness). Lower is better.
     private double calculateFitness(int[] route) {
         double totalDistance = 0.0;
         for (int i = 0; i < route.length - 1; i++) {
-            totalDistance += distanceMatrix[route[i]][route[i + 1]];
+            totalDistance += distanceMatrix.distance(route[i], route[i + 1]);
         }
         // Add the distance from the last point back to the starting point (A)
-        totalDistance += distanceMatrix[route[route.length - 1]][route[0]];
+        totalDistance += distanceMatrix.distance(route[route.length - 1], route[0]);
         return totalDistance;
     }
 
-    // Initialize the population with random routes (keeping the starting point fixed at index 0).
-    private List<Individual> initializePopulation() {
-        List<Individual> population = new ArrayList<>();
-        int n = distanceMatrix.length;
-        int[] baseRoute = new int[n];
-        for (int i = 0; i < n; i++) {
-            baseRoute[i] = i;
-        }
-        for (int i = 0; i < populationSize; i++) {
-            int[] newRoute = baseRoute.clone();
-            shuffleArray(newRoute, 1, n); // shuffle indices 1..n-1 only
-            population.add(new Individual(newRoute));
+    // Allocate both buffers and fill the first with the seeds, then random routes (starting point fixed at index 0).
+    void initializePopulation() {
+        int n = distanceMatrix.size();
+        population = new int[populationSize][n];
+        nextPopulation = new int[populationSize][n];
+        fitness = new double[populationSize];
+        nextFitness = new double[populationSize];
+        used = new int[n];
+        stamp = 0;
+        eliteIndices = new int[Math.max(1, populationSize / 10)];
+        bestRoute = new int[n];
+        bestFitness = Double.POSITIVE_INFINITY;
+
+        int seeded = Math.min(seedTours.size(), populationSize / 2);
+        for (int p = 0; p < populationSize; p++) {
+            int[] route = population[p];
+            if (p < seeded) {
+                System.arraycopy(seedTours.get(p), 0, route, 0, n);
+            } else {
+                for (int i = 0; i < n; i++) {
+                    route[i] = i;
+                }
+                shuffleArray(route, 1, n); // shuffle indices 1..n-1 only
+            }
+            fitness[p] = calculateFitness(route);
+            recordIfBest(route, fitness[p]);
         }
-        return population;
     }
 
     // Fisher–Yates shuffle for a subarray from start (inclusive) to end (exclusive)
@@ -64,22 +109,27 @@ public class GeneticAlgorithmTSP {
         }
     }
 
-    // Tournament selection: selects a subset and returns the best individual from that subset.
-    private Individual tournamentSelection(List<Individual> population) {
-        int tournamentSize = Math.max(2, population.size() / 10); // at least 2, or 10% of population
-        List<Individual> tournament = new ArrayList<>();
-        for (int i = 0; i < tournamentSize; i++) {
-            int randomIndex = random.nextInt(population.size());
-            tournament.add(population.get(randomIndex));
+    // Tournament selection: returns the index of the fittest of a few randomly drawn individuals.
+    private int tournamentSelection() {
+        int tournamentSize = Math.max(2, populationSize / 10); // at least 2, or 10% of population
+        int winner = random.nextInt(populationSize);
+        for (int i = 1; i < tournamentSize; i++) {
+            int candidate = random.nextInt(populationSize);
+            if (fitness[candidate] < fitness[winner]) {
+                winner = candidate;
+            }
         }
-        return tournament.stream().min(Comparator.comparingDouble(ind -> ind.fitness)).orElse(null);
+        return winner;
     }
 
-    // Order Crossover (OX) operator.
-    private int[] crossover(int[] parent1, int[] parent2) {
+    // Order Crossover (OX) operator, writing the child into the given buffer.
+    private void crossover(int[] parent1, int[] parent2, int[] child) {
         int n = parent1.length;
-        int[] child = new int[n];
-        Arrays.fill(child, -1);
+        if (++stamp == 0) {
+            // The stamp wrapped around; clear stale marks once and start over.
+            Arrays.fill(used, 0);
+            stamp = 1;
+        }
 
         int start = 1 + random.nextInt(n - 1);
         int end = start + random.nextInt(n - start);
@@ -87,35 +137,22 @@ public class GeneticAlgorithmTSP {
         // Copy a slice from parent1.
         for (int i = start; i <= end; i++) {
             child[i] = parent1[i];
+            used[child[i]] = stamp;
         }
 
-        int currentParent2Index = 1; // starting index (skip fixed starting point)
+        // Fill the remaining positions with parent2's genes in order, skipping those already used.
+        int fromParent2 = 1; // skip fixed starting point
         for (int i = 1; i < n; i++) {
-            if (child[i] == -1) {
-                // Find next gene from parent2 not already in child.
-                while (contains(child, parent2[currentParent2Index])) {
-                    currentParent2Index++;
-                    if (currentParent2Index >= n) {
-                        currentParent2Index = 1;
-                    }
-                }
-                child[i] = parent2[currentParent2Index];
-                currentParent2Index++;
-                if (currentParent2Index >= n) {
-                    currentParent2Index = 1;
-                }
+            if (i == start) {
+                i = end;
+                continue;
             }
+            while (used[parent2[fromParent2]] == stamp) {
+                fromParent2++;
+            }
+            child[i] = parent2[fromParent2++];
         }
         child[0] = parent1[0]; // Ensure starting point remains fixed.
-        return child;
-    }
-
-    // Check if the array already contains a value.
-    private boolean contains(int[] array, int value) {
-        for (int i : array) {
-            if (i == value) return true;
-        }
-        return false;
     }
 
     // Swap mutation: swap two positions (excluding the starting point).
@@ -130,76 +167,137 @@ public class GeneticAlgorithmTSP {
         }
     }
 
-    // 2-opt local search: repeatedly try reversing segments of the route to see if the total distance improves.
-    private int[] twoOpt(int[] route) {
-        int n = route.length;
-        boolean improvement = true;
-        int[] bestRoute = route.clone();
-        double bestDistance = calculateFitness(bestRoute);
-        while (improvement) {
-            improvement = false;
-            for (int i = 1; i < n - 1; i++) {
-                for (int j = i + 1; j < n; j++) {
-                    int[] newRoute = twoOptSwap(bestRoute, i, j);
-                    double newDistance = calculateFitness(newRoute);
-                    if (newDistance < bestDistance) {
-                        bestDistance = newDistance;
-                        bestRoute = newRoute;
-                        improvement = true;
-                    }
+    // Picks the indices of the fittest individuals into eliteIndices.
+    private void selectElites() {
+        int count = Math.min(eliteIndices.length, populationSize);
+        for (int k = 0; k < count; k++) {
+            int best = -1;
+            for (int p = 0; p < populationSize; p++) {
+                if (isElite(p, k)) {
+                    continue;
+                }
+                if (best < 0 || fitness[p] < fitness[best]) {
+                    best = p;
                 }
             }
+            eliteIndices[k] = best;
         }
-        return bestRoute;
     }
 
-    // Reverse the order of the nodes in the route between indices i and j.
-    private int[] twoOptSwap(int[] route, int i, int j) {
-        int[] newRoute = route.clone();
-        while (i < j) {
-            int temp = newRoute[i];
-            newRoute[i] = newRoute[j];
-            newRoute[j] = temp;
-            i++;
-            j--;
+    private boolean isElite(int index, int count) {
+        for (int k = 0; k < count; k++) {
+            if (eliteIndices[k] == index) {
+                return true;
+            }
         }
-        return newRoute;
+        return false;
+    }
+
+    private void recordIfBest(int[] route, double routeFitness) {
+        if (routeFitness < bestFitness) {
+            bestFitness = routeFitness;
+            System.arraycopy(route, 0, bestRoute, 0, route.length);
+        }
+    }
+
+    // Breeds one generation into the spare buffer, then swaps the buffers.
+    void evolve() {
+        int n = distanceMatrix.size();
+        // Elitism: carry over the fittest individuals unchanged.
+        selectElites();
+        int next = 0;
+        for (int k = 0; k < eliteIndices.length && next < populationSize; k++) {
+            System.arraycopy(population[eliteIndices[k]], 0, nextPopulation[next], 0, n);
+            nextFitness[next] = fitness[eliteIndices[k]];
+            next++;
+        }
+        // Fill the rest of the new population.
+        while (next < populationSize) {
+            int[] child = nextPopulation[next];
+            crossover(population[tournamentSelection()], population[tournamentSelection()], child);
+            mutate(child);
+            nextFitness[next] = calculateFitness(child);
+            recordIfBest(child, nextFitness[next]);
+            next++;
+        }
+
+        int[][] routes = population;
+        population = nextPopulation;
+        nextPopulation = routes;
+        double[] scores = fitness;
+        fitness = nextFitness;
+        nextFitness = scores;
+    }
+
+    // Replaces the least fit individual with a copy of the migrant, if the migrant is fitter.
+    void immigrate(int[] migrant) {
+        int worst = 0;
+        for (int p = 1; p < populationSize; p++) {
+            if (fitness[p] > fitness[worst]) {
+                worst = p;
+            }
+        }
+        double migrantFitness = calculateFitness(migrant);
+        if (migrantFitness < fitness[worst]) {
+            System.arraycopy(migrant, 0, population[worst], 0, migrant.length);
+            fitness[worst] = migrantFitness;
+            recordIfBest(migrant, migrantFitness);
+        }
+    }
+
+    // Best route seen so far; the array is owned by this instance and must not be modified.
+    int[] getBestRoute() {
+        return bestRoute;
+    }
+
+    double getBestFitness() {
+        return bestFitness;
+    }
+
+    // Copy of the best route, refined with 2-opt and Or-opt local search.
+    int[] finish(SolverBudget budget) {
+        int[] improvedRoute = bestRoute.clone();
+        new LocalSearchTSP(distanceMatrix).improve(improvedRoute, budget);
+        return improvedRoute;
+    }
+
+    // Individuals bred per generation, for evaluation accounting.
+    int childrenPerGeneration() {
+        return populationSize - Math.min(eliteIndices.length, populationSize);
     }
 
     // Main genetic algorithm loop.
     public int[] run() {
-        List<Individual> population = initializePopulation();
-        // Define elitism: number of top individuals to carry over unchanged.
-        int elitismCount = Math.max(1, populationSize / 10);
-        // Keep track of the overall best individual.
-        Individual bestIndividual = population.stream().min(Comparator.comparingDouble(ind -> ind.fitness)).orElse(null);
-
-        for (int gen = 0; gen < generations; gen++) {
-            List<Individual> newPopulation = new ArrayList<>();
-            // Sort current population by fitness.
-            population.sort(Comparator.comparingDouble(ind -> ind.fitness));
-            // Elitism: carry over the top elitismCount individuals.
-            for (int i = 0; i < elitismCount; i++) {
-                newPopulation.add(population.get(i));
+        return run(SolverBudget.unlimited());
+    }
+
+    // Runs until the generation count, the budget, or the budget's stall limit is reached.
+    public int[] run(SolverBudget budget) {
+        int n = distanceMatrix.size();
+        if (n < 3) {
+            int[] route = new int[n];
+            for (int i = 0; i < n; i++) {
+                route[i] = i;
             }
-            // Fill the rest of the new population.
-            while (newPopulation.size() < populationSize) {
-                Individual parent1 = tournamentSelection(population);
-                Individual parent2 = tournamentSelection(population);
-                int[] childRoute = crossover(parent1.route, parent2.route);
-                mutate(childRoute);
-                newPopulation.add(new Individual(childRoute));
+            return route;
+        }
+        initializePopulation();
+        budget.addEvaluations(populationSize);
+        budget.offerIncumbent(distanceMatrix, bestRoute, bestFitness, 0, Double.NaN);
+        int stalled = 0;
+        for (int gen = 0; gen < generations && !budget.isExhausted(); gen++) {
+            double previousBest = bestFitness;
+            evolve();
+            budget.addEvaluations(childrenPerGeneration());
+            if (bestFitness < previousBest) {
+                budget.offerIncumbent(distanceMatrix, bestRoute, bestFitness, gen + 1, Double.NaN);
             }
-            population = newPopulation;
-            // Update bestIndividual if a better one is found.
-            Individual currentBest = population.stream().min(Comparator.comparingDouble(ind -> ind.fitness)).orElse(null);
-            if (currentBest.fitness < bestIndividual.fitness) {
-                bestIndividual = currentBest;
+            stalled = bestFitness < previousBest ? 0 : stalled + 1;
+            if (stalled >= budget.getMaxStallGenerations()) {
+                break;
             }
-            // Optionally, one could adjust mutationRate adaptively here.
         }
-        // Apply a 2-opt local search to the best individual to further refine the route.
-        int[] improvedRoute = twoOpt(bestIndividual.route);
-        return improvedRoute;
+        // Apply local search to the best individual to further refine the route.
+        return finish(budget);
     }
 }
@@ -0,0 +1,71 @@
+package com.example.auth.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Genetic algorithm with a local search finish; runs as parallel islands on larger days.
+ */
+@Component
+public class GeneticTspSolver implements TspSolver {
+
+    @Autowired
+    @Qualifier("solverPool")
+    private ForkJoinPool solverPool;
+
+    @Value("${solver.ga.population-size:50}")
+    private int populationSize;
+
+    @Value("${solver.ga.generations:1000}")
+    private int generations;
+
+    @Value("${solver.ga.mutation-rate:0.1}")
+    private double mutationRate;
+
+    // Share of the first generation built by constructive heuristics instead of at random.
+    @Value("${solver.ga.seeded-fraction:0.2}")
+    private double seededFraction;
+
+    // Island-model GA: default island count, and the smallest day it is worth parallelising.
+    @Value("${solver.ga.islands:4}")
+    private int defaultIslands;
+
+    @Value("${solver.ga.island-min-places:20}")
+    private int islandMinPlaces;
+
+    @Value("${solver.ga.migration-interval:50}")
+    private int migrationInterval;
+
+    @Override
+    public String getName() {
+        return "ga";
+    }
+
+    @Override
+    public int[] solve(TspProblem problem, SolverBudget budget) {
+        DistanceMatrix distanceMatrix = problem.getDistanceMatrix();
+        // Requested islands override the default but never exceed the shared solver pool.
+        int requested = problem.getIslands() != null ? problem.getIslands() : defaultIslands;
+        int islands = Math.max(1, Math.min(requested, solverPool.getParallelism()));
+        boolean island = islands > 1 && problem.getSize() >= islandMinPlaces;
+        // Islands share the seeds out, so build enough for each to get its share.
+        int seedCount = (int) Math.round(seededFraction * populationSize) * (island ? islands : 1);
+        List<int[]> seeds = ConstructiveTours.seedTours(problem, seedCount, new SplittableRandom());
+        if (island) {
+            // Same per-island population and generations, so wall-clock time stays about the same.
+            IslandGeneticAlgorithmTSP ga = new IslandGeneticAlgorithmTSP(distanceMatrix, islands, populationSize,
+                    generations, mutationRate, migrationInterval, solverPool);
+            ga.setSeedTours(seeds);
+            return ga.run(budget);
+        }
+        GeneticAlgorithmTSP ga = new GeneticAlgorithmTSP(distanceMatrix, populationSize, generations, mutationRate);
+        ga.setSeedTours(seeds);
+        return ga.run(budget);
+    }
+}
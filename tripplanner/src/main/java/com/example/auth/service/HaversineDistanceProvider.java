@@ -0,0 +1,48 @@
+package com.example.auth.service;
+
+import com.example.auth.model.Place;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Great-circle estimate of road distances, computed locally in microseconds.
+ *
+ * The straight-line distance is stretched by {@code distance.haversine.detour-factor} to
+ * approximate the road network and converted to time at {@code distance.haversine.speed-kmh}.
+ * Used for provisional answers while real road distances are still being fetched.
+ */
+@Component
+public class HaversineDistanceProvider implements DistanceProvider {
+
+    @Value("${distance.haversine.detour-factor:1.3}")
+    private double detourFactor;
+
+    @Value("${distance.haversine.speed-kmh:30}")
+    private double speedKmh;
+
+    @Override
+    public String getName() {
+        return "haversine";
+    }
+
+    @Override
+    public TravelCost getTravelCost(Place origin, Place destination) {
+        double meters = detourFactor * GeoUtils.haversineMeters(origin.getLatitude(), origin.getLongitude(),
+                destination.getLatitude(), destination.getLongitude());
+        return new TravelCost(meters, meters / (speedKmh / 3.6));
+    }
+
+    @Override
+    public TravelCost[][] getTravelCostMatrix(List<Place> places) {
+        int n = places.size();
+        TravelCost[][] matrix = new TravelCost[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                matrix[i][j] = (i == j) ? TravelCost.ZERO : getTravelCost(places.get(i), places.get(j));
+            }
+        }
+        return matrix;
+    }
+}
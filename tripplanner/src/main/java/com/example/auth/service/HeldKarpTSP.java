@@ -0,0 +1,109 @@
+package com.example.auth.service;
+
+import java.util.Arrays;
+
+/**
+ * Exact round-trip solver using Held-Karp bitmask dynamic programming.
+ *
+ * Runs in O(2^n * n^2) time and O(2^n * n) memory, so it is only meant for small trip days.
+ * Like the heuristic solvers, index 0 is the fixed starting place and the returned tour is
+ * closed implicitly (the leg back to index 0 is not repeated). Works on asymmetric matrices.
+ */
+public class HeldKarpTSP {
+
+    // 2^15 subsets x 15 end points of doubles and ints is ~6 MB per solve, and several solves can
+    // run at once on the solver pool; 20 places would already need ~120 MB each, so stop at 16.
+    public static final int MAX_PLACES = 16;
+
+    private final DistanceMatrix distanceMatrix;
+
+    public HeldKarpTSP(DistanceMatrix distanceMatrix) {
+        if (distanceMatrix.size() > MAX_PLACES) {
+            throw new IllegalArgumentException("Held-Karp supports at most " + MAX_PLACES
+                    + " places, got " + distanceMatrix.size());
+        }
+        this.distanceMatrix = distanceMatrix;
+    }
+
+    public int[] run() {
+        int n = distanceMatrix.size();
+        if (n <= 3) {
+            // At most two places to visit: just compare both directions.
+            int[] tour = new int[n];
+            for (int i = 0; i < n; i++) {
+                tour[i] = i;
+            }
+            if (n == 3 && closedLength(new int[]{0, 2, 1}) < closedLength(tour)) {
+                tour = new int[]{0, 2, 1};
+            }
+            return tour;
+        }
+
+        // Places 1..n-1 are renumbered 0..m-1 so that a subset of them fits in an int mask.
+        // cost[mask * m + j]: cheapest path from the start through exactly the places in mask, ending at j.
+        int m = n - 1;
+        int subsets = 1 << m;
+        double[] cost = new double[subsets * m];
+        int[] previous = new int[subsets * m];
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        Arrays.fill(previous, -1);
+        for (int j = 0; j < m; j++) {
+            cost[(1 << j) * m + j] = distanceMatrix.distance(0, j + 1);
+        }
+
+        for (int mask = 1; mask < subsets; mask++) {
+            for (int j = 0; j < m; j++) {
+                if ((mask & (1 << j)) == 0) {
+                    continue;
+                }
+                double base = cost[mask * m + j];
+                if (base == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                for (int k = 0; k < m; k++) {
+                    if ((mask & (1 << k)) != 0) {
+                        continue;
+                    }
+                    int state = (mask | (1 << k)) * m + k;
+                    double candidate = base + distanceMatrix.distance(j + 1, k + 1);
+                    // Record a predecessor even when every path here uses unreachable legs, so a tour always exists.
+                    if (candidate < cost[state] || previous[state] < 0) {
+                        cost[state] = candidate;
+                        previous[state] = j;
+                    }
+                }
+            }
+        }
+
+        int full = subsets - 1;
+        int last = 0;
+        double best = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < m; j++) {
+            double total = cost[full * m + j] + distanceMatrix.distance(j + 1, 0);
+            if (total < best) {
+                best = total;
+                last = j;
+            }
+        }
+
+        // Walk the predecessor table back from the last place.
+        int[] tour = new int[n];
+        int mask = full;
+        for (int pos = n - 1; pos >= 1; pos--) {
+            tour[pos] = last + 1;
+            int before = previous[mask * m + last];
+            mask &= ~(1 << last);
+            last = before;
+        }
+        tour[0] = 0;
+        return tour;
+    }
+
+    private double closedLength(int[] tour) {
+        double total = 0.0;
+        for (int i = 0; i < tour.length; i++) {
+            total += distanceMatrix.distance(tour[i], tour[(i + 1) % tour.length]);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.auth.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * The original pipeline: a GA builds a good tour, then simulated annealing refines it.
+ */
+@Component
+public class HybridTspSolver implements TspSolver {
+
+    @Autowired
+    private GeneticTspSolver geneticTspSolver;
+
+    @Autowired
+    private AnnealingTspSolver annealingTspSolver;
+
+    @Override
+    public String getName() {
+        return "ga-sa";
+    }
+
+    @Override
+    public int[] solve(TspProblem problem, SolverBudget budget) {
+        DistanceMatrix distanceMatrix = problem.getDistanceMatrix();
+        // The GA gets at most half the remaining time; SA may use the rest.
+        int[] gaSolution = geneticTspSolver.solve(problem, budget.slice(0.5));
+        int[] saSolution = annealingTspSolver.anneal(problem, gaSolution, budget);
+        return TourUtils.tourLength(saSolution, distanceMatrix) < TourUtils.tourLength(gaSolution, distanceMatrix)
+                ? saSolution : gaSolution;
+    }
+}
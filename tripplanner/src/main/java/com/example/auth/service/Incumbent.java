@@ -0,0 +1,59 @@
+package com.example.auth.service;
+
+import java.util.List;
+
+/**
+ * A new best tour found while a run is still going, as reported through
+ * {@link SolverBudget#setIncumbentListener}. Totals are measured on the matrix the solver is
+ * working on: in progressive mode the great-circle estimate first, then the road distances.
+ * Each tour is shorter than the one before it on the same matrix, but the first road tour
+ * may be longer than the last estimate. A higher sequence number always means a later tour.
+ */
+public class Incumbent {
+    private final long sequence;            // Order of reporting within the run, from 1
+    private final List<Long> placeIds;      // Visiting order, starting place first
+    private final double totalDistance;
+    private final double totalTime;
+    private final int generation;           // GA generation, or -1 when not found by the GA
+    private final double temperature;       // SA temperature, or NaN when not found by annealing
+    private final long elapsedMs;           // Since the run's budget started
+
+    public Incumbent(long sequence, List<Long> placeIds, double totalDistance, double totalTime, int generation,
+                     double temperature, long elapsedMs) {
+        this.sequence = sequence;
+        this.placeIds = placeIds;
+        this.totalDistance = totalDistance;
+        this.totalTime = totalTime;
+        this.generation = generation;
+        this.temperature = temperature;
+        this.elapsedMs = elapsedMs;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public List<Long> getPlaceIds() {
+        return placeIds;
+    }
+
+    public double getTotalDistance() {
+        return totalDistance;
+    }
+
+    public double getTotalTime() {
+        return totalTime;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public double getTemperature() {
+        return temperature;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.auth.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Island-model genetic algorithm: several independent {@link GeneticAlgorithmTSP} populations
+ * evolve in parallel on a ForkJoinPool, and every {@code migrationInterval} generations each
+ * island sends its best route to the next island on a ring.
+ *
+ * Islands only synchronise at migration points, so the wall-clock time is about that of a
+ * single GA run with the same population size and generation count. Seed tours are dealt to
+ * the islands round-robin, so they start from different warm starts.
+ */
+public class IslandGeneticAlgorithmTSP {
+    private final DistanceMatrix distanceMatrix;
+    private final int islandCount;
+    private final int populationSize;
+    private final int generations;
+    private final double mutationRate;
+    private final int migrationInterval;
+    private final ForkJoinPool pool;
+    private final SplittableRandom random;
+    private List<int[]> seedTours = List.of();
+
+    public IslandGeneticAlgorithmTSP(DistanceMatrix distanceMatrix, int islandCount, int populationSize, int generations,
+                                     double mutationRate, int migrationInterval, ForkJoinPool pool) {
+        this(distanceMatrix, islandCount, populationSize, generations, mutationRate, migrationInterval, pool, new SplittableRandom());
+    }
+
+    // Seeded variant, for reproducible runs.
+    public IslandGeneticAlgorithmTSP(DistanceMatrix distanceMatrix, int islandCount, int populationSize, int generations,
+                                     double mutationRate, int migrationInterval, ForkJoinPool pool, long seed) {
+        this(distanceMatrix, islandCount, populationSize, generations, mutationRate, migrationInterval, pool, new SplittableRandom(seed));
+    }
+
+    private IslandGeneticAlgorithmTSP(DistanceMatrix distanceMatrix, int islandCount, int populationSize, int generations,
+                                      double mutationRate, int migrationInterval, ForkJoinPool pool, SplittableRandom random) {
+        this.distanceMatrix = distanceMatrix;
+        this.islandCount = Math.max(1, islandCount);
+        this.populationSize = populationSize;
+        this.generations = generations;
+        this.mutationRate = mutationRate;
+        this.migrationInterval = Math.max(1, migrationInterval);
+        this.pool = pool;
+        this.random = random;
+    }
+
+    public void setSeedTours(List<int[]> seedTours) {
+        this.seedTours = seedTours;
+    }
+
+    public int[] run() {
+        return run(SolverBudget.unlimited());
+    }
+
+    // Stops at the next generation once the budget is exhausted, or after the budget's stall
+    // limit of generations without a new best on any island.
+    public int[] run(SolverBudget budget) {
+        int n = distanceMatrix.size();
+        if (n < 3 || islandCount == 1) {
+            GeneticAlgorithmTSP ga = new GeneticAlgorithmTSP(distanceMatrix, populationSize, generations, mutationRate, random.nextLong());
+            ga.setSeedTours(seedTours);
+            return ga.run(budget);
+        }
+
+        // Each island gets its own generator, seeded from the run's generator.
+        GeneticAlgorithmTSP[] islands = new GeneticAlgorithmTSP[islandCount];
+        for (int k = 0; k < islandCount; k++) {
+            islands[k] = new GeneticAlgorithmTSP(distanceMatrix, populationSize, generations, mutationRate, random.nextLong());
+            List<int[]> dealt = new ArrayList<>();
+            for (int s = k; s < seedTours.size(); s += islandCount) {
+                dealt.add(seedTours.get(s));
+            }
+            islands[k].setSeedTours(dealt);
+        }
+        int[][] migrants = new int[islandCount][n];
+
+        int done = 0;
+        int stalled = 0;
+        double globalBest = Double.POSITIVE_INFINITY;
+        boolean first = true;
+        while (done < generations && stalled < budget.getMaxStallGenerations()) {
+            int epoch = Math.min(migrationInterval, generations - done);
+            boolean initialize = first;
+            List<Callable<Void>> tasks = new ArrayList<>(islandCount);
+            for (GeneticAlgorithmTSP island : islands) {
+                tasks.add(() -> {
+                    if (initialize) {
+                        island.initializePopulation();
+                        budget.addEvaluations(populationSize);
+                    }
+                    for (int gen = 0; gen < epoch && !budget.isExhausted(); gen++) {
+                        island.evolve();
+                        budget.addEvaluations(island.childrenPerGeneration());
+                    }
+                    return null;
+                });
+            }
+            awaitAll(pool.invokeAll(tasks));
+            first = false;
+            done += epoch;
+            if (budget.isExhausted()) {
+                break;
+            }
+            double epochBest = Double.POSITIVE_INFINITY;
+            for (GeneticAlgorithmTSP island : islands) {
+                epochBest = Math.min(epochBest, island.getBestFitness());
+            }
+            if (epochBest < globalBest) {
+                for (GeneticAlgorithmTSP island : islands) {
+                    if (island.getBestFitness() == epochBest) {
+                        budget.offerIncumbent(distanceMatrix, island.getBestRoute(), epochBest, done, Double.NaN);
+                        break;
+                    }
+                }
+            }
+            stalled = epochBest < globalBest ? 0 : stalled + epoch;
+            globalBest = Math.min(globalBest, epochBest);
+
+            // Ring migration: island k sends a copy of its best route to island k + 1.
+            if (done < generations) {
+                for (int k = 0; k < islandCount; k++) {
+                    System.arraycopy(islands[k].getBestRoute(), 0, migrants[k], 0, n);
+                }
+                for (int k = 0; k < islandCount; k++) {
+                    islands[(k + 1) % islandCount].immigrate(migrants[k]);
+                }
+            }
+        }
+
+        GeneticAlgorithmTSP best = islands[0];
+        for (GeneticAlgorithmTSP island : islands) {
+            if (island.getBestFitness() < best.getBestFitness()) {
+                best = island;
+            }
+        }
+        return best.finish(budget);
+    }
+
+    private static void awaitAll(List<Future<Void>> futures) {
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Island GA interrupted", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Island GA failed", e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.auth.service;
+
+/**
+ * 2-opt and Or-opt local search over closed tours with the starting place fixed at index 0.
+ *
+ * Candidate moves only connect a place to one of its k nearest neighbours, and don't-look
+ * bits (a work queue of places whose surroundings changed) stop the search from rescanning
+ * settled parts of the tour. Moves are applied in place. 2-opt gains are O(1) on symmetric
+ * matrices; on asymmetric ones the reversed segment's edges flip direction and are summed in
+ * O(segment length). Or-opt moves segments of up to three places, so they are always O(1).
+ *
+ * Neighbour lists and work buffers are built once per matrix; an instance is not thread-safe.
+ */
+public class LocalSearchTSP {
+
+    private static final int DEFAULT_NEIGHBORS = 8;
+    private static final int MAX_SEGMENT = 3;
+    private static final double EPSILON = 1e-9;
+
+    private final DistanceMatrix distanceMatrix;
+    private final int n;
+    private final int[][] neighbors;
+    private final boolean symmetric;
+
+    private final int[] position;
+    private final int[] queue;
+    private final boolean[] queued;
+    private int queueHead;
+    private int queueSize;
+    private int[] tour;
+
+    public LocalSearchTSP(DistanceMatrix distanceMatrix) {
+        this(distanceMatrix, DEFAULT_NEIGHBORS);
+    }
+
+    public LocalSearchTSP(DistanceMatrix distanceMatrix, int neighborCount) {
+        this.distanceMatrix = distanceMatrix;
+        this.n = distanceMatrix.size();
+        this.neighbors = nearestNeighbors(distanceMatrix, Math.min(neighborCount, Math.max(0, n - 1)));
+        this.symmetric = distanceMatrix.isSymmetric();
+        this.position = new int[n];
+        this.queue = new int[n];
+        this.queued = new boolean[n];
+    }
+
+    /**
+     * Improves the route in place until no neighbour-list 2-opt or Or-opt move shortens it.
+     */
+    public void improve(int[] route) {
+        improve(route, SolverBudget.unlimited());
+    }
+
+    // As above, but stops with the tour improved so far once the budget is exhausted.
+    public void improve(int[] route, SolverBudget budget) {
+        if (n < 3) {
+            return;
+        }
+        tour = route;
+        queueHead = 0;
+        queueSize = 0;
+        for (int i = 0; i < n; i++) {
+            position[route[i]] = i;
+            push(route[i]);
+        }
+        int steps = 0;
+        while (queueSize > 0) {
+            if ((++steps & 63) == 0 && budget.isExhausted()) {
+                break;
+            }
+            int place = queue[queueHead];
+            queueHead = (queueHead + 1) % n;
+            queueSize--;
+            queued[place] = false;
+            if (twoOpt(place) || orOpt(place)) {
+                push(place);
+            }
+        }
+        // Leave no stale marks behind for the next call.
+        while (queueSize > 0) {
+            queued[queue[queueHead]] = false;
+            queueHead = (queueHead + 1) % n;
+            queueSize--;
+        }
+        tour = null;
+    }
+
+    // Tries 2-opt moves that give the place a near neighbour as its successor or predecessor.
+    private boolean twoOpt(int a) {
+        DistanceMatrix d = distanceMatrix;
+        int i = position[a];
+        int succ = tour[(i + 1) % n];
+        int pred = tour[(i - 1 + n) % n];
+        for (int c : neighbors[a]) {
+            double succGain = d.distance(a, succ) - d.distance(a, c);
+            double predGain = d.distance(pred, a) - d.distance(c, a);
+            if (succGain <= EPSILON && predGain <= EPSILON) {
+                break; // neighbours are sorted, farther ones cannot do better
+            }
+            int j = position[c];
+            // Replace (a, succ) and (c, succ(c)) with (a, c) and (succ, succ(c)).
+            if (succGain > EPSILON && tryReverse(i, j)) {
+                return true;
+            }
+            // Replace (pred, a) and (pred(c), c) with (c, a) and (pred(c), pred).
+            if (predGain > EPSILON && tryReverse((i - 1 + n) % n, (j - 1 + n) % n)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Removes the edges leaving positions p and q and reconnects by reversing the path between them.
+    private boolean tryReverse(int p, int q) {
+        if (p == q) {
+            return false;
+        }
+        if (p > q) {
+            int t = p;
+            p = q;
+            q = t;
+        }
+        DistanceMatrix d = distanceMatrix;
+        int x1 = tour[p];
+        int x2 = tour[p + 1];
+        int y1 = tour[q];
+        int y2 = tour[(q + 1) % n];
+        double delta = d.distance(x1, y1) + d.distance(x2, y2) - d.distance(x1, x2) - d.distance(y1, y2);
+        if (!symmetric) {
+            for (int k = p + 1; k < q; k++) {
+                delta += d.distance(tour[k + 1], tour[k]) - d.distance(tour[k], tour[k + 1]);
+            }
+        }
+        if (delta >= -EPSILON) {
+            return false;
+        }
+        reverse(p + 1, q);
+        push(x1);
+        push(x2);
+        push(y1);
+        push(y2);
+        return true;
+    }
+
+    // Tries moving the segment of up to three places starting at this place next to one of its neighbours.
+    private boolean orOpt(int s) {
+        DistanceMatrix d = distanceMatrix;
+        int i = position[s];
+        if (i == 0) {
+            return false; // the starting place never moves
+        }
+        for (int length = 1; length <= MAX_SEGMENT && i + length - 1 < n && n - length >= 3; length++) {
+            int e = tour[i + length - 1];
+            int prev = tour[i - 1];
+            int next = tour[(i + length) % n];
+            double removed = d.distance(prev, s) + d.distance(e, next) - d.distance(prev, next);
+            double flip = 0.0;
+            if (!symmetric) {
+                for (int k = i; k < i + length - 1; k++) {
+                    flip += d.distance(tour[k + 1], tour[k]) - d.distance(tour[k], tour[k + 1]);
+                }
+            }
+            for (int c : neighbors[s]) {
+                int j = position[c];
+                if (j >= i && j < i + length) {
+                    continue; // c is inside the segment
+                }
+                // c -> s..e -> succ(c)
+                if (c != prev) {
+                    int cs = tour[(j + 1) % n];
+                    double delta = d.distance(c, s) + d.distance(e, cs) - d.distance(c, cs) - removed;
+                    if (delta < -EPSILON) {
+                        moveSegment(i, length, j, false);
+                        pushAll(prev, next, s, e, c, cs);
+                        return true;
+                    }
+                }
+                // pred(c) -> e..s -> c
+                if (c != next) {
+                    int jp = (j - 1 + n) % n;
+                    int pc = tour[jp];
+                    double delta = d.distance(pc, e) + d.distance(s, c) - d.distance(pc, c) + flip - removed;
+                    if (delta < -EPSILON) {
+                        moveSegment(i, length, jp, true);
+                        pushAll(prev, next, s, e, c, pc);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // Moves tour[i, i + length) to just after position p, optionally reversing it.
+    private void moveSegment(int i, int length, int p, boolean reversed) {
+        int start;
+        if (p > i) {
+            rotateLeft(i, p, length);
+            start = p - length + 1;
+        } else {
+            int from = p + 1;
+            int to = i + length - 1;
+            rotateLeft(from, to, to - from + 1 - length);
+            start = from;
+        }
+        if (reversed) {
+            reverse(start, start + length - 1);
+        }
+    }
+
+    // Rotates tour[from..to] left by k places with three reversals, keeping positions in sync.
+    private void rotateLeft(int from, int to, int k) {
+        reverse(from, from + k - 1);
+        reverse(from + k, to);
+        reverse(from, to);
+    }
+
+    private void reverse(int i, int j) {
+        while (i < j) {
+            int a = tour[i];
+            int b = tour[j];
+            tour[i] = b;
+            tour[j] = a;
+            position[b] = i;
+            position[a] = j;
+            i++;
+            j--;
+        }
+    }
+
+    private void push(int place) {
+        if (!queued[place]) {
+            queued[place] = true;
+            queue[(queueHead + queueSize) % n] = place;
+            queueSize++;
+        }
+    }
+
+    private void pushAll(int a, int b, int c, int d, int e, int f) {
+        push(a);
+        push(b);
+        push(c);
+        push(d);
+        push(e);
+        push(f);
+    }
+
+    // For each place, the k other places closest to it, nearest first (insertion into a bounded list).
+    private static int[][] nearestNeighbors(DistanceMatrix matrix, int k) {
+        int n = matrix.size();
+        int[][] lists = new int[n][k];
+        double[] listDistance = new double[k];
+        for (int a = 0; a < n; a++) {
+            int[] list = lists[a];
+            int size = 0;
+            for (int j = 0; j < n; j++) {
+                double distance = matrix.distance(a, j);
+                if (j == a || (size == k && distance >= listDistance[k - 1])) {
+                    continue;
+                }
+                int slot = size < k ? size++ : k - 1;
+                while (slot > 0 && listDistance[slot - 1] > distance) {
+                    list[slot] = list[slot - 1];
+                    listDistance[slot] = listDistance[slot - 1];
+                    slot--;
+                }
+                list[slot] = j;
+                listDistance[slot] = distance;
+            }
+        }
+        return lists;
+    }
+}
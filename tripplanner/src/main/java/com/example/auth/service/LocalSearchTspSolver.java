@@ -0,0 +1,22 @@
+package com.example.auth.service;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Nearest-neighbour tour improved by 2-opt and Or-opt; very fast, usually within a few percent.
+ */
+@Component
+public class LocalSearchTspSolver implements TspSolver {
+
+    @Override
+    public String getName() {
+        return "local-search";
+    }
+
+    @Override
+    public int[] solve(TspProblem problem, SolverBudget budget) {
+        int[] tour = TourUtils.nearestNeighbourTour(problem.getDistanceMatrix());
+        new LocalSearchTSP(problem.getDistanceMatrix()).improve(tour, budget);
+        return tour;
+    }
+}
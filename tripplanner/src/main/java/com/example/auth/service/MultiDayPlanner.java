@@ -0,0 +1,347 @@
+package com.example.auth.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Splits the places of a trip over several days that all start and end at the same place
+ * (index 0, usually the hotel) and orders each day: a small vehicle routing problem.
+ *
+ * Days are seeded by balanced k-medoids clustering on geographic distance (great-circle when
+ * coordinates are known, else the symmetrised matrix), so each day covers one neighbourhood.
+ * Each day's tour is then built by cheapest insertion and polished with {@link LocalSearchTSP}.
+ * Finally inter-route moves (relocating a place to another day, or exchanging two places of
+ * different days) are applied while they shorten the total distance, and every day that
+ * changes is polished again. No day ever holds more than {@code capacity} places.
+ */
+public class MultiDayPlanner {
+    private static final int MAX_CLUSTERING_ROUNDS = 20;
+
+    private final DistanceMatrix distanceMatrix;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int days;
+    private final int capacity;
+    private final SplittableRandom random;
+
+    public MultiDayPlanner(TspProblem problem, int days, int capacity) {
+        this(problem, days, capacity, new SplittableRandom());
+    }
+
+    // Seeded variant, for reproducible runs.
+    public MultiDayPlanner(TspProblem problem, int days, int capacity, long seed) {
+        this(problem, days, capacity, new SplittableRandom(seed));
+    }
+
+    private MultiDayPlanner(TspProblem problem, int days, int capacity, SplittableRandom random) {
+        int places = problem.getSize() - 1;
+        if (days < 1) {
+            throw new IllegalArgumentException("At least one day is needed");
+        }
+        if ((long) days * capacity < places) {
+            throw new IllegalArgumentException(places + " places do not fit in " + days + " days of " + capacity);
+        }
+        this.distanceMatrix = problem.getDistanceMatrix();
+        this.latitudes = problem.hasCoordinates() ? problem.getLatitudes() : null;
+        this.longitudes = problem.hasCoordinates() ? problem.getLongitudes() : null;
+        this.days = days;
+        this.capacity = capacity;
+        this.random = random;
+    }
+
+    /**
+     * One closed tour of matrix indices per day, each starting at 0; days left without places
+     * are just {@code [0]}. Stops improving with the current plan once the budget runs out.
+     */
+    public int[][] plan(SolverBudget budget) {
+        List<List<Integer>> clusters = cluster();
+        int[][] routes = new int[days][];
+        for (int d = 0; d < days; d++) {
+            routes[d] = polish(buildRoute(clusters.get(d)), budget);
+        }
+        improveBetweenDays(routes, budget);
+        return routes;
+    }
+
+    // Sum of the closed tour lengths of all days.
+    public double totalLength(int[][] routes) {
+        double total = 0.0;
+        for (int[] route : routes) {
+            total += TourUtils.tourLength(route, distanceMatrix);
+        }
+        return total;
+    }
+
+    // Balanced k-medoids over places 1..n-1; each cluster lists the places of one day.
+    private List<List<Integer>> cluster() {
+        int n = distanceMatrix.size();
+        int k = Math.min(days, n - 1);
+        List<List<Integer>> clusters = new ArrayList<>();
+        for (int d = 0; d < days; d++) {
+            clusters.add(new ArrayList<>());
+        }
+        if (k <= 0) {
+            return clusters;
+        }
+
+        // k-medoids++ seeding: each further medoid is drawn with probability proportional to its squared distance.
+        int[] medoids = new int[k];
+        medoids[0] = 1 + random.nextInt(n - 1);
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        for (int m = 1; m < k; m++) {
+            double total = 0.0;
+            for (int p = 1; p < n; p++) {
+                double d = dissimilarity(p, medoids[m - 1]);
+                nearest[p] = Math.min(nearest[p], d * d);
+                total += nearest[p];
+            }
+            double target = random.nextDouble() * total;
+            int chosen = -1;
+            for (int p = 1; p < n; p++) {
+                if (isMedoid(medoids, m, p)) {
+                    continue;
+                }
+                chosen = p;
+                target -= nearest[p];
+                if (target <= 0) {
+                    break;
+                }
+            }
+            medoids[m] = chosen;
+        }
+
+        int[] assignment = new int[n];
+        for (int round = 0; round < MAX_CLUSTERING_ROUNDS; round++) {
+            assign(medoids, assignment);
+            boolean moved = false;
+            for (int m = 0; m < k; m++) {
+                int best = medoids[m];
+                double bestCost = clusterCost(assignment, m, best);
+                for (int p = 1; p < n; p++) {
+                    if (assignment[p] == m && p != medoids[m]) {
+                        double cost = clusterCost(assignment, m, p);
+                        if (cost < bestCost) {
+                            best = p;
+                            bestCost = cost;
+                        }
+                    }
+                }
+                moved |= best != medoids[m];
+                medoids[m] = best;
+            }
+            if (!moved) {
+                break;
+            }
+        }
+        assign(medoids, assignment);
+        for (int p = 1; p < n; p++) {
+            clusters.get(assignment[p]).add(p);
+        }
+        return clusters;
+    }
+
+    private static boolean isMedoid(int[] medoids, int count, int place) {
+        for (int m = 0; m < count; m++) {
+            if (medoids[m] == place) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Capacity-respecting assignment: places with the most to lose from not getting their
+     * nearest medoid (largest regret) choose first, each taking the nearest medoid with room.
+     */
+    private void assign(int[] medoids, int[] assignment) {
+        int n = distanceMatrix.size();
+        int k = medoids.length;
+        Integer[] order = new Integer[n - 1];
+        double[] regret = new double[n];
+        for (int p = 1; p < n; p++) {
+            order[p - 1] = p;
+            double first = Double.POSITIVE_INFINITY;
+            double second = Double.POSITIVE_INFINITY;
+            for (int medoid : medoids) {
+                double d = dissimilarity(p, medoid);
+                if (d < first) {
+                    second = first;
+                    first = d;
+                } else if (d < second) {
+                    second = d;
+                }
+            }
+            regret[p] = k > 1 ? second - first : 0.0;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(regret[b], regret[a]));
+
+        int[] load = new int[k];
+        for (int p : order) {
+            int best = -1;
+            for (int m = 0; m < k; m++) {
+                if (load[m] < capacity && (best < 0 || dissimilarity(p, medoids[m]) < dissimilarity(p, medoids[best]))) {
+                    best = m;
+                }
+            }
+            assignment[p] = best;
+            load[best]++;
+        }
+    }
+
+    private double clusterCost(int[] assignment, int cluster, int medoid) {
+        double cost = 0.0;
+        for (int p = 1; p < assignment.length; p++) {
+            if (assignment[p] == cluster) {
+                cost += dissimilarity(p, medoid);
+            }
+        }
+        return cost;
+    }
+
+    // Geographic distance between two places, for clustering only.
+    private double dissimilarity(int a, int b) {
+        if (latitudes != null) {
+            return GeoUtils.haversineMeters(latitudes[a], longitudes[a], latitudes[b], longitudes[b]);
+        }
+        return (distanceMatrix.distance(a, b) + distanceMatrix.distance(b, a)) / 2;
+    }
+
+    // Cheapest insertion of the day's places into a tour that starts at 0.
+    private int[] buildRoute(List<Integer> places) {
+        int[] route = new int[]{0};
+        for (int place : places) {
+            route = insert(route, place, bestInsertion(route, place));
+        }
+        return route;
+    }
+
+    /**
+     * Relocate and exchange moves between days, first improvement, until none shortens the
+     * total distance. Moves are priced against the current tours; a day that changed is then
+     * polished with local search, which can only shorten it further.
+     */
+    private void improveBetweenDays(int[][] routes, SolverBudget budget) {
+        boolean improved = true;
+        while (improved && !budget.isExhausted()) {
+            improved = false;
+            for (int a = 0; a < days && !improved; a++) {
+                for (int b = 0; b < days && !improved; b++) {
+                    if (a != b) {
+                        improved = relocate(routes, a, b, budget) || (a < b && exchange(routes, a, b, budget));
+                    }
+                }
+            }
+            budget.addEvaluations(days * days);
+        }
+    }
+
+    // Moves one place of day a to its best position in day b, if that shortens the total.
+    private boolean relocate(int[][] routes, int a, int b, SolverBudget budget) {
+        int[] from = routes[a];
+        int[] to = routes[b];
+        if (to.length - 1 >= capacity) {
+            return false;
+        }
+        for (int i = 1; i < from.length; i++) {
+            int place = from[i];
+            double saving = removalSaving(from, i);
+            int position = bestInsertion(to, place);
+            double cost = insertionCost(to, place, position);
+            if (cost < saving - 1e-9) {
+                routes[a] = polish(remove(from, i), budget);
+                routes[b] = polish(insert(to, place, position), budget);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Swaps a place of day a with a place of day b, each going to its best position, if that shortens the total.
+    private boolean exchange(int[][] routes, int a, int b, SolverBudget budget) {
+        int[] first = routes[a];
+        int[] second = routes[b];
+        for (int i = 1; i < first.length; i++) {
+            int[] firstWithout = remove(first, i);
+            double firstSaving = removalSaving(first, i);
+            for (int j = 1; j < second.length; j++) {
+                int[] secondWithout = remove(second, j);
+                double secondSaving = removalSaving(second, j);
+                int intoFirst = bestInsertion(firstWithout, second[j]);
+                int intoSecond = bestInsertion(secondWithout, first[i]);
+                double cost = insertionCost(firstWithout, second[j], intoFirst)
+                        + insertionCost(secondWithout, first[i], intoSecond);
+                if (cost < firstSaving + secondSaving - 1e-9) {
+                    routes[a] = polish(insert(firstWithout, second[j], intoFirst), budget);
+                    routes[b] = polish(insert(secondWithout, first[i], intoSecond), budget);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // How much shorter the closed tour gets without the place at position i.
+    private double removalSaving(int[] route, int i) {
+        int previous = route[i - 1];
+        int next = route[(i + 1) % route.length];
+        return distanceMatrix.distance(previous, route[i]) + distanceMatrix.distance(route[i], next)
+                - distanceMatrix.distance(previous, next);
+    }
+
+    // Position after which the place adds the least to the closed tour.
+    private int bestInsertion(int[] route, int place) {
+        int best = 0;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (int k = 0; k < route.length; k++) {
+            double cost = insertionCost(route, place, k);
+            if (cost < bestCost) {
+                best = k;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    private double insertionCost(int[] route, int place, int after) {
+        int previous = route[after];
+        int next = route[(after + 1) % route.length];
+        return distanceMatrix.distance(previous, place) + distanceMatrix.distance(place, next)
+                - distanceMatrix.distance(previous, next);
+    }
+
+    private static int[] insert(int[] route, int place, int after) {
+        int[] result = new int[route.length + 1];
+        System.arraycopy(route, 0, result, 0, after + 1);
+        result[after + 1] = place;
+        System.arraycopy(route, after + 1, result, after + 2, route.length - after - 1);
+        return result;
+    }
+
+    private static int[] remove(int[] route, int i) {
+        int[] result = new int[route.length - 1];
+        System.arraycopy(route, 0, result, 0, i);
+        System.arraycopy(route, i + 1, result, i, route.length - i - 1);
+        return result;
+    }
+
+    // 2-opt / Or-opt on the day's own sub-matrix, mapped back to matrix indices.
+    private int[] polish(int[] route, SolverBudget budget) {
+        if (route.length < 4) {
+            return route;
+        }
+        DistanceMatrix day = distanceMatrix.select(route);
+        int[] local = new int[route.length];
+        for (int k = 0; k < local.length; k++) {
+            local[k] = k;
+        }
+        new LocalSearchTSP(day).improve(local, budget);
+        int[] polished = new int[route.length];
+        for (int k = 0; k < local.length; k++) {
+            polished[k] = route[local[k]];
+        }
+        return polished;
+    }
+}
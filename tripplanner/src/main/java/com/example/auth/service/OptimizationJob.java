@@ -0,0 +1,218 @@
+package com.example.auth.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * One background optimization of a trip day, tracked by {@link OptimizationJobService}.
+ * Fields are written by the worker thread and read by status requests, hence volatile.
+ *
+ * Listeners follow a running job: they get new incumbent tours as the solvers find them and
+ * a final call once the job has finished. Listeners are called on the job's notification
+ * executor, never on a solver thread, so a slow listener (e.g. a stalled SSE client) cannot
+ * hold up solving. A listener that falls behind only gets the latest incumbent.
+ */
+public class OptimizationJob {
+
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    public interface Listener {
+        void onIncumbent(OptimizationJob job, Incumbent incumbent);
+
+        void onFinished(OptimizationJob job);
+    }
+
+    private final String id;
+    private final Long tripId;
+    private final int dayNumber;
+    private final List<Long> placeIds;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final Executor notifier;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    // Delivery requests not yet handled; only the first one of a burst starts a delivery run.
+    private final AtomicInteger pendingDeliveries = new AtomicInteger();
+    private final AtomicReference<Incumbent> incumbent = new AtomicReference<>();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile SolverBudget budget;       // Set once the job starts running
+    private volatile DayRoute result;
+    private volatile String error;
+    private volatile LocalDateTime finishedAt;
+    private volatile boolean accepted;          // Client took the incumbent; stop solving
+
+    // A listener and the sequence number of the last incumbent it was given.
+    private static class Subscription {
+        final Listener listener;
+        long delivered;
+
+        Subscription(Listener listener) {
+            this.listener = listener;
+        }
+    }
+
+    public OptimizationJob(String id, Long tripId, int dayNumber, List<Long> placeIds, Executor notifier) {
+        this.id = id;
+        this.notifier = notifier;
+        this.tripId = tripId;
+        this.dayNumber = dayNumber;
+        this.placeIds = placeIds;
+    }
+
+    void start(SolverBudget budget) {
+        this.budget = budget;
+        this.status = Status.RUNNING;
+        // Accepted while still queued: solve with an already cancelled budget, i.e. construct a tour and stop.
+        if (accepted) {
+            budget.cancel();
+        }
+    }
+
+    // Called on solver threads: records the incumbent unless a later one is already in, and returns at once.
+    void publishIncumbent(Incumbent offered) {
+        incumbent.accumulateAndGet(offered,
+                (current, next) -> current == null || next.getSequence() > current.getSequence() ? next : current);
+        scheduleDelivery();
+    }
+
+    void succeed(DayRoute result) {
+        this.result = result;
+        finish(Status.SUCCEEDED);
+    }
+
+    void fail(String error) {
+        this.error = error;
+        finish(Status.FAILED);
+    }
+
+    private void finish(Status finalStatus) {
+        synchronized (this) {
+            this.finishedAt = LocalDateTime.now();
+            this.status = finalStatus;
+        }
+        scheduleDelivery();
+    }
+
+    /**
+     * Follows the job: the listener gets the current incumbent soon if there is one, then
+     * newer ones, then the end. A job that has already finished only reports the end.
+     */
+    public void addListener(Listener listener) {
+        synchronized (this) {
+            if (!isFinished()) {
+                subscriptions.add(new Subscription(listener));
+                scheduleDelivery();
+                return;
+            }
+        }
+        listener.onFinished(this);
+    }
+
+    public void removeListener(Listener listener) {
+        subscriptions.removeIf(subscription -> subscription.listener == listener);
+    }
+
+    // Runs one delivery at a time on the notifier; requests arriving meanwhile make it loop once more.
+    private void scheduleDelivery() {
+        if (pendingDeliveries.getAndIncrement() == 0) {
+            try {
+                notifier.execute(this::deliver);
+            } catch (RejectedExecutionException e) {
+                System.err.println("Dropped events of optimization job " + id + ": " + e.getMessage());
+                pendingDeliveries.set(0);
+            }
+        }
+    }
+
+    private void deliver() {
+        int handled;
+        do {
+            handled = pendingDeliveries.get();
+            boolean finished = isFinished();
+            Incumbent current = incumbent.get();
+            for (Subscription subscription : subscriptions) {
+                try {
+                    if (current != null && subscription.delivered < current.getSequence()) {
+                        subscription.delivered = current.getSequence();
+                        subscription.listener.onIncumbent(this, current);
+                    }
+                    if (finished) {
+                        subscriptions.remove(subscription);
+                        subscription.listener.onFinished(this);
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Listener of optimization job " + id + " failed: " + e.getMessage());
+                    subscriptions.remove(subscription);
+                }
+            }
+        } while (pendingDeliveries.addAndGet(-handled) != 0);
+    }
+
+    /**
+     * Stops the solvers at their next budget check so the job finishes with its current best
+     * tour, which is then saved as usual. Has no effect on a finished job.
+     */
+    public void accept() {
+        accepted = true;
+        SolverBudget running = budget;
+        if (running != null) {
+            running.cancel();
+        }
+    }
+
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getTripId() {
+        return tripId;
+    }
+
+    public int getDayNumber() {
+        return dayNumber;
+    }
+
+    public List<Long> getPlaceIds() {
+        return placeIds;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public SolverBudget getBudget() {
+        return budget;
+    }
+
+    public Incumbent getIncumbent() {
+        return incumbent.get();
+    }
+
+    public boolean isAccepted() {
+        return accepted;
+    }
+
+    public DayRoute getResult() {
+        return result;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.auth.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Runs trip day optimizations in the background on the bounded {@code optimizationExecutor},
+ * so request threads return at once with a job id and solver load cannot exhaust the web
+ * server's worker pool. Finished jobs are kept for {@code optimization.jobs.retention-ms} so
+ * clients can poll their status.
+ *
+ * While a job runs, every new best tour the solvers report through the job's budget is
+ * published to the job's listeners, on {@code jobEventExecutor} rather than the solver threads.
+ */
+@Service
+public class OptimizationJobService {
+
+    @Autowired
+    @Qualifier("optimizationExecutor")
+    private ExecutorService optimizationExecutor;
+
+    @Autowired
+    @Qualifier("jobEventExecutor")
+    private ExecutorService jobEventExecutor;
+
+    @Autowired
+    private RouteOptimizationService routeOptimizationService;
+
+    @Value("${optimization.jobs.retention-ms:3600000}")
+    private long retentionMs;
+
+    private final Map<String, OptimizationJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Queues the work and returns its job. The work receives a budget with the configured
+     * limits, started when the job leaves the queue. {@code placeIds} are the day's places,
+     * kept with the job for presenting its incumbent tours. Throws RejectedExecutionException when the
+     * queue is full.
+     */
+    public OptimizationJob submit(Long tripId, int dayNumber, List<Long> placeIds,
+                                  Function<SolverBudget, DayRoute> work) {
+        OptimizationJob job = new OptimizationJob(UUID.randomUUID().toString(), tripId, dayNumber, placeIds,
+                jobEventExecutor);
+        jobs.put(job.getId(), job);
+        try {
+            optimizationExecutor.execute(() -> run(job, work));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    // The job, or null if it is unknown or was purged.
+    public OptimizationJob get(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    private void run(OptimizationJob job, Function<SolverBudget, DayRoute> work) {
+        try {
+            SolverBudget budget = routeOptimizationService.newBudget();
+            budget.setIncumbentListener(job::publishIncumbent);
+            job.start(budget);
+            job.succeed(work.apply(budget));
+        } catch (Exception e) {
+            e.printStackTrace();
+            job.fail(e.getMessage());
+        }
+    }
+
+    // Forgets finished jobs once their retention period is over.
+    @Scheduled(fixedDelayString = "${optimization.jobs.purge-interval-ms:60000}")
+    public void purgeFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(retentionMs * 1_000_000L);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.auth.service;
+
+import com.example.auth.model.Place;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a route optimization: the ordered round trip plus the matrix it was solved on,
+ * so totals and per-leg figures can be read back without asking the provider again.
+ */
+public class OptimizationResult {
+    private final List<Place> places;          // Matrix index -> place; index 0 is the starting place
+    private final int[] tour;                  // Visiting order as matrix indices, starting at 0
+    private final DistanceMatrix matrix;       // Meters and seconds between the places
+    private final String solverName;           // Solver that produced the tour
+
+    public OptimizationResult(List<Place> places, int[] tour, DistanceMatrix matrix, String solverName) {
+        this.places = places;
+        this.tour = tour;
+        this.matrix = matrix;
+        this.solverName = solverName;
+    }
+
+    public List<Place> getPlaces() {
+        return places;
+    }
+
+    public int[] getTour() {
+        return tour;
+    }
+
+    public DistanceMatrix getMatrix() {
+        return matrix;
+    }
+
+    public String getSolverName() {
+        return solverName;
+    }
+
+    // The round trip as places, ending back at the starting place.
+    public List<Place> getRoute() {
+        List<Place> route = new ArrayList<>();
+        for (int index : tour) {
+            route.add(places.get(index));
+        }
+        route.add(places.get(tour[0]));
+        return route;
+    }
+}
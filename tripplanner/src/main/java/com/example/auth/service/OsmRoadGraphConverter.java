@@ -0,0 +1,185 @@
+package com.example.auth.service;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Converts an OpenStreetMap XML extract into the text format read by {@link RoadGraph}.
+ *
+ * Keeps the ways a car may drive on (by their {@code highway} tag, minus {@code access=no}
+ * and {@code access=private}) and the nodes they use. Each pair of consecutive way nodes
+ * becomes one edge: meters are the great-circle distance, seconds assume the way's positive
+ * numeric {@code maxspeed} in km/h or else a typical speed for its road class. {@code oneway=yes},
+ * {@code oneway=-1} and roundabouts are kept one-way.
+ *
+ * Run it once per city extract and point {@code distance.road-graph.path} at the output:
+ * <pre>
+ * java -cp target/classes com.example.auth.service.OsmRoadGraphConverter city.osm city-graph.txt
+ * </pre>
+ * The extract must be uncompressed OSM XML (e.g. from the export of openstreetmap.org or
+ * {@code osmium cat city.osm.pbf -o city.osm}).
+ */
+public class OsmRoadGraphConverter {
+
+    // Typical car speeds in km/h per highway class; classes missing here are not routable.
+    private static final Map<String, Double> SPEEDS_KMH = new HashMap<>();
+
+    static {
+        SPEEDS_KMH.put("motorway", 100.0);
+        SPEEDS_KMH.put("motorway_link", 60.0);
+        SPEEDS_KMH.put("trunk", 80.0);
+        SPEEDS_KMH.put("trunk_link", 50.0);
+        SPEEDS_KMH.put("primary", 50.0);
+        SPEEDS_KMH.put("primary_link", 40.0);
+        SPEEDS_KMH.put("secondary", 45.0);
+        SPEEDS_KMH.put("secondary_link", 35.0);
+        SPEEDS_KMH.put("tertiary", 40.0);
+        SPEEDS_KMH.put("tertiary_link", 30.0);
+        SPEEDS_KMH.put("unclassified", 30.0);
+        SPEEDS_KMH.put("residential", 30.0);
+        SPEEDS_KMH.put("road", 30.0);
+        SPEEDS_KMH.put("living_street", 10.0);
+        SPEEDS_KMH.put("service", 15.0);
+    }
+
+    // One routable way: its node refs in order, speed and direction.
+    private record Way(List<Long> nodeRefs, double speedKmh, int direction) {
+    }
+
+    /**
+     * Reads the OSM extract and writes the graph; returns {nodes, edge lines} written.
+     */
+    public static int[] convert(Path osmFile, Path graphFile) throws IOException {
+        Map<Long, double[]> coordinates = new HashMap<>();
+        List<Way> ways = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(osmFile)) {
+            XMLStreamReader xml = XMLInputFactory.newFactory().createXMLStreamReader(in);
+            List<Long> refs = null;
+            Map<String, String> tags = null;
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (xml.getLocalName()) {
+                        case "node" -> coordinates.put(Long.parseLong(xml.getAttributeValue(null, "id")), new double[]{
+                                Double.parseDouble(xml.getAttributeValue(null, "lat")),
+                                Double.parseDouble(xml.getAttributeValue(null, "lon"))});
+                        case "way" -> {
+                            refs = new ArrayList<>();
+                            tags = new HashMap<>();
+                        }
+                        case "nd" -> {
+                            if (refs != null) {
+                                refs.add(Long.parseLong(xml.getAttributeValue(null, "ref")));
+                            }
+                        }
+                        case "tag" -> {
+                            if (tags != null) {
+                                tags.put(xml.getAttributeValue(null, "k"), xml.getAttributeValue(null, "v"));
+                            }
+                        }
+                        default -> {
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && xml.getLocalName().equals("way")) {
+                    Way way = toWay(refs, tags);
+                    if (way != null) {
+                        ways.add(way);
+                    }
+                    refs = null;
+                    tags = null;
+                }
+            }
+            xml.close();
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new IOException("Malformed OSM extract " + osmFile + ": " + e.getMessage(), e);
+        }
+
+        // Only nodes on routable ways, in first-use order, and only those the extract has coordinates for.
+        Set<Long> used = new LinkedHashSet<>();
+        for (Way way : ways) {
+            for (Long ref : way.nodeRefs()) {
+                if (coordinates.containsKey(ref)) {
+                    used.add(ref);
+                }
+            }
+        }
+        if (used.isEmpty()) {
+            throw new IOException("No drivable roads in " + osmFile);
+        }
+        int edges = 0;
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(graphFile))) {
+            out.println("# Road graph converted from " + osmFile.getFileName());
+            for (Long id : used) {
+                double[] c = coordinates.get(id);
+                out.println(String.format(Locale.US, "node %d %.7f %.7f", id, c[0], c[1]));
+            }
+            for (Way way : ways) {
+                List<Long> nodeRefs = way.nodeRefs();
+                for (int k = 0; k + 1 < nodeRefs.size(); k++) {
+                    long a = way.direction() < 0 ? nodeRefs.get(k + 1) : nodeRefs.get(k);
+                    long b = way.direction() < 0 ? nodeRefs.get(k) : nodeRefs.get(k + 1);
+                    double[] ca = coordinates.get(a);
+                    double[] cb = coordinates.get(b);
+                    if (ca == null || cb == null || a == b) {
+                        continue; // clipped at the extract border
+                    }
+                    double meters = GeoUtils.haversineMeters(ca[0], ca[1], cb[0], cb[1]);
+                    double seconds = meters / (way.speedKmh() / 3.6);
+                    out.println(String.format(Locale.US, "edge %d %d %.1f %.1f%s", a, b, meters, seconds,
+                            way.direction() != 0 ? " 1" : ""));
+                    edges++;
+                }
+            }
+        }
+        return new int[]{used.size(), edges};
+    }
+
+    // The way as routed by car, or null if cars cannot use it.
+    private static Way toWay(List<Long> refs, Map<String, String> tags) {
+        if (refs == null || refs.size() < 2) {
+            return null;
+        }
+        Double typicalSpeed = SPEEDS_KMH.get(tags.get("highway"));
+        String access = tags.getOrDefault("access", "");
+        if (typicalSpeed == null || access.equals("no") || access.equals("private") || "yes".equals(tags.get("area"))) {
+            return null;
+        }
+        double speed = typicalSpeed;
+        String maxspeed = tags.get("maxspeed");
+        // A signed 0 (mistagged or closed) would make every leg take forever; keep the class speed then.
+        if (maxspeed != null && maxspeed.matches("\\d+(\\.\\d+)?") && Double.parseDouble(maxspeed) > 0) {
+            speed = Double.parseDouble(maxspeed);
+        }
+        String oneway = tags.getOrDefault("oneway", "");
+        int direction = oneway.equals("-1") ? -1
+                : oneway.equals("yes") || oneway.equals("1") || oneway.equals("true")
+                || "roundabout".equals(tags.get("junction")) || tags.get("highway").equals("motorway") ? 1 : 0;
+        if (oneway.equals("no")) {
+            direction = 0;
+        }
+        return new Way(refs, speed, direction);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: OsmRoadGraphConverter <extract.osm> <graph.txt>");
+            System.exit(2);
+        }
+        int[] written = convert(Path.of(args[0]), Path.of(args[1]));
+        System.out.println("Wrote " + written[0] + " nodes and " + written[1] + " edges to " + args[1]);
+    }
+}
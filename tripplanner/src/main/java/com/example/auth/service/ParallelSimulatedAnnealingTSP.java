@@ -0,0 +1,92 @@
+package com.example.auth.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Multi-start simulated annealing: independent {@link SimulatedAnnealingTSP} chains, each with
+ * its own seed, anneal the same initial solution in parallel and the shortest tour wins.
+ *
+ * Every chain runs the full schedule, so latency matches a single chain while spare cores
+ * buy better and less variable results.
+ */
+public class ParallelSimulatedAnnealingTSP {
+    private final DistanceMatrix distanceMatrix;
+    private final double initialTemperature;
+    private final double coolingRate;
+    private final int iterationsPerTemperature;
+    private final int chains;
+    private final ForkJoinPool pool;
+    private final SplittableRandom random;
+
+    public ParallelSimulatedAnnealingTSP(DistanceMatrix distanceMatrix, double initialTemperature, double coolingRate,
+                                         int iterationsPerTemperature, int chains, ForkJoinPool pool) {
+        this(distanceMatrix, initialTemperature, coolingRate, iterationsPerTemperature, chains, pool, new SplittableRandom());
+    }
+
+    // Seeded variant, for reproducible runs.
+    public ParallelSimulatedAnnealingTSP(DistanceMatrix distanceMatrix, double initialTemperature, double coolingRate,
+                                         int iterationsPerTemperature, int chains, ForkJoinPool pool, long seed) {
+        this(distanceMatrix, initialTemperature, coolingRate, iterationsPerTemperature, chains, pool, new SplittableRandom(seed));
+    }
+
+    private ParallelSimulatedAnnealingTSP(DistanceMatrix distanceMatrix, double initialTemperature, double coolingRate,
+                                          int iterationsPerTemperature, int chains, ForkJoinPool pool, SplittableRandom random) {
+        this.distanceMatrix = distanceMatrix;
+        this.initialTemperature = initialTemperature;
+        this.coolingRate = coolingRate;
+        this.iterationsPerTemperature = iterationsPerTemperature;
+        this.chains = Math.max(1, chains);
+        this.pool = pool;
+        this.random = random;
+    }
+
+    // Runs all chains from the given initial solution and returns the best tour any of them found.
+    public int[] run(int[] initialSolution) {
+        return run(initialSolution, SolverBudget.unlimited());
+    }
+
+    // As above; every chain stops at its best tour so far once the shared budget is exhausted.
+    public int[] run(int[] initialSolution, SolverBudget budget) {
+        List<SimulatedAnnealingTSP> annealers = new ArrayList<>(chains);
+        for (int k = 0; k < chains; k++) {
+            annealers.add(new SimulatedAnnealingTSP(distanceMatrix, initialTemperature, coolingRate,
+                    iterationsPerTemperature, random.nextLong()));
+        }
+        if (chains == 1) {
+            return annealers.get(0).run(initialSolution, budget);
+        }
+
+        List<Callable<int[]>> tasks = new ArrayList<>(chains);
+        for (SimulatedAnnealingTSP annealer : annealers) {
+            tasks.add(() -> annealer.run(initialSolution, budget));
+        }
+        int[] best = null;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (Future<int[]> future : pool.invokeAll(tasks)) {
+            int[] tour = await(future);
+            double distance = annealers.get(0).routeDistance(tour);
+            if (best == null || distance < bestDistance) {
+                best = tour;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    private static int[] await(Future<int[]> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Parallel SA interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Parallel SA chain failed", e.getCause());
+        }
+    }
+}
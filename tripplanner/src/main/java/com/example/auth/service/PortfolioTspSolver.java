@@ -0,0 +1,78 @@
+package com.example.auth.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Races several solvers on the same problem under one budget and keeps the shortest tour.
+ *
+ * Every member gets its own slice of the budget. Once an exact member finishes, its tour is
+ * optimal and the remaining members are cancelled; otherwise each member stops at its best
+ * tour so far when the shared deadline passes. Created per request by {@link TspSolverRegistry}.
+ */
+public class PortfolioTspSolver implements TspSolver {
+
+    private final List<TspSolver> members;
+    private final ForkJoinPool pool;
+    private volatile String winner;
+
+    public PortfolioTspSolver(List<TspSolver> members, ForkJoinPool pool) {
+        this.members = members;
+        this.pool = pool;
+    }
+
+    @Override
+    public String getName() {
+        return "portfolio";
+    }
+
+    // Name of the member whose tour was returned by the last solve() call.
+    public String getWinner() {
+        return winner;
+    }
+
+    @Override
+    public int[] solve(TspProblem problem, SolverBudget budget) {
+        DistanceMatrix distanceMatrix = problem.getDistanceMatrix();
+        // All slices exist before any member starts, so a fast exact member can cancel every one.
+        List<SolverBudget> slices = new ArrayList<>();
+        for (int k = 0; k < members.size(); k++) {
+            slices.add(budget.slice(1.0));
+        }
+        List<CompletableFuture<int[]>> runs = new ArrayList<>();
+        for (int k = 0; k < members.size(); k++) {
+            TspSolver member = members.get(k);
+            SolverBudget slice = slices.get(k);
+            CompletableFuture<int[]> run = CompletableFuture.supplyAsync(() -> member.solve(problem, slice), pool);
+            if (member.isExact()) {
+                // An optimal tour cannot be beaten; stop the others.
+                run.thenRun(() -> slices.forEach(SolverBudget::cancel));
+            }
+            runs.add(run);
+        }
+
+        int[] best = null;
+        double bestLength = Double.POSITIVE_INFINITY;
+        for (int k = 0; k < members.size(); k++) {
+            int[] tour;
+            try {
+                tour = runs.get(k).join();
+            } catch (Exception e) {
+                System.err.println("Portfolio member " + members.get(k).getName() + " failed: " + e.getMessage());
+                continue;
+            }
+            double length = TourUtils.tourLength(tour, distanceMatrix);
+            if (best == null || length < bestLength) {
+                best = tour;
+                bestLength = length;
+                winner = members.get(k).getName();
+            }
+        }
+        if (best == null) {
+            throw new RuntimeException("Every portfolio solver failed");
+        }
+        return best;
+    }
+}
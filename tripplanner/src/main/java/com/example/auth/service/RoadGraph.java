@@ -0,0 +1,353 @@
+package com.example.auth.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable directed road network stored in compressed sparse row form.
+ *
+ * The graph is loaded from a plain-text extract (produced from OpenStreetMap by
+ * {@link OsmRoadGraphConverter}) with one record per line:
+ * <pre>
+ * # comment
+ * node &lt;id&gt; &lt;lat&gt; &lt;lon&gt;
+ * edge &lt;fromId&gt; &lt;toId&gt; &lt;meters&gt; &lt;seconds&gt; [oneway]
+ * </pre>
+ * Edges are two-way unless the optional sixth column is {@code 1}. Shortest paths minimise
+ * meters; the travel time reported is the time along that path.
+ */
+public class RoadGraph {
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+
+    // Forward adjacency: edges leaving node v are firstOut[v] .. firstOut[v + 1] - 1.
+    private final int[] firstOut;
+    private final int[] outHead;
+    private final double[] outMeters;
+    private final double[] outSeconds;
+
+    // Reverse adjacency for the backward half of bidirectional search.
+    private final int[] firstIn;
+    private final int[] inTail;
+    private final double[] inMeters;
+    private final double[] inSeconds;
+
+    private final ThreadLocal<SearchSpace[]> searchSpaces;
+
+    RoadGraph(double[] latitudes, double[] longitudes, int[] from, int[] to, double[] meters, double[] seconds) {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        int nodes = latitudes.length;
+        int edges = from.length;
+
+        firstOut = new int[nodes + 1];
+        firstIn = new int[nodes + 1];
+        for (int e = 0; e < edges; e++) {
+            firstOut[from[e] + 1]++;
+            firstIn[to[e] + 1]++;
+        }
+        for (int v = 0; v < nodes; v++) {
+            firstOut[v + 1] += firstOut[v];
+            firstIn[v + 1] += firstIn[v];
+        }
+        outHead = new int[edges];
+        outMeters = new double[edges];
+        outSeconds = new double[edges];
+        inTail = new int[edges];
+        inMeters = new double[edges];
+        inSeconds = new double[edges];
+        int[] outFill = Arrays.copyOf(firstOut, nodes);
+        int[] inFill = Arrays.copyOf(firstIn, nodes);
+        for (int e = 0; e < edges; e++) {
+            int o = outFill[from[e]]++;
+            outHead[o] = to[e];
+            outMeters[o] = meters[e];
+            outSeconds[o] = seconds[e];
+            int i = inFill[to[e]]++;
+            inTail[i] = from[e];
+            inMeters[i] = meters[e];
+            inSeconds[i] = seconds[e];
+        }
+        searchSpaces = ThreadLocal.withInitial(() -> new SearchSpace[]{new SearchSpace(nodes), new SearchSpace(nodes)});
+    }
+
+    /**
+     * Parses a graph extract in the text format described on the class.
+     */
+    public static RoadGraph load(Path path) throws IOException {
+        Map<Long, Integer> index = new HashMap<>();
+        List<double[]> coordinates = new ArrayList<>();
+        List<long[]> edgeEnds = new ArrayList<>();
+        List<double[]> edgeCosts = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(path)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                if (parts[0].equals("node") && parts.length >= 4) {
+                    index.put(Long.parseLong(parts[1]), coordinates.size());
+                    coordinates.add(new double[]{Double.parseDouble(parts[2]), Double.parseDouble(parts[3])});
+                } else if (parts[0].equals("edge") && parts.length >= 5) {
+                    long a = Long.parseLong(parts[1]);
+                    long b = Long.parseLong(parts[2]);
+                    double meters = Double.parseDouble(parts[3]);
+                    double seconds = Double.parseDouble(parts[4]);
+                    boolean oneway = parts.length >= 6 && parts[5].equals("1");
+                    edgeEnds.add(new long[]{a, b});
+                    edgeCosts.add(new double[]{meters, seconds});
+                    if (!oneway) {
+                        edgeEnds.add(new long[]{b, a});
+                        edgeCosts.add(new double[]{meters, seconds});
+                    }
+                } else {
+                    throw new IOException("Malformed road graph line " + lineNumber + ": " + line);
+                }
+            }
+        }
+
+        int nodes = coordinates.size();
+        if (nodes == 0) {
+            throw new IOException("Road graph " + path + " has no nodes");
+        }
+        double[] latitudes = new double[nodes];
+        double[] longitudes = new double[nodes];
+        for (int v = 0; v < nodes; v++) {
+            latitudes[v] = coordinates.get(v)[0];
+            longitudes[v] = coordinates.get(v)[1];
+        }
+        int edges = edgeEnds.size();
+        int[] from = new int[edges];
+        int[] to = new int[edges];
+        double[] meters = new double[edges];
+        double[] seconds = new double[edges];
+        for (int e = 0; e < edges; e++) {
+            Integer a = index.get(edgeEnds.get(e)[0]);
+            Integer b = index.get(edgeEnds.get(e)[1]);
+            if (a == null || b == null) {
+                throw new IOException("Edge references unknown node: " + Arrays.toString(edgeEnds.get(e)));
+            }
+            from[e] = a;
+            to[e] = b;
+            meters[e] = edgeCosts.get(e)[0];
+            seconds[e] = edgeCosts.get(e)[1];
+        }
+        return new RoadGraph(latitudes, longitudes, from, to, meters, seconds);
+    }
+
+    public int getNodeCount() {
+        return latitudes.length;
+    }
+
+    public double getLatitude(int node) {
+        return latitudes[node];
+    }
+
+    public double getLongitude(int node) {
+        return longitudes[node];
+    }
+
+    // Closest graph node to the given coordinate (linear scan; city extracts are small).
+    public int nearestNode(double latitude, double longitude) {
+        if (latitudes.length == 0) {
+            throw new IllegalStateException("Road graph has no nodes");
+        }
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        for (int v = 0; v < latitudes.length; v++) {
+            double d = GeoUtils.haversineMeters(latitude, longitude, latitudes[v], longitudes[v]);
+            if (d < bestDistance) {
+                bestDistance = d;
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Point-to-point shortest path with bidirectional Dijkstra. Returns {meters, seconds},
+     * or null if the target cannot be reached.
+     */
+    public double[] shortestPath(int source, int target) {
+        if (source == target) {
+            return new double[]{0.0, 0.0};
+        }
+        SearchSpace[] spaces = searchSpaces.get();
+        SearchSpace forward = spaces[0];
+        SearchSpace backward = spaces[1];
+        forward.reset();
+        backward.reset();
+        forward.relax(source, 0.0, 0.0);
+        backward.relax(target, 0.0, 0.0);
+
+        double best = Double.MAX_VALUE;
+        double bestSeconds = 0.0;
+        while (!forward.queue.isEmpty() || !backward.queue.isEmpty()) {
+            double forwardMin = forward.queue.isEmpty() ? Double.MAX_VALUE : forward.queue.peek()[0];
+            double backwardMin = backward.queue.isEmpty() ? Double.MAX_VALUE : backward.queue.peek()[0];
+            // Standard stopping rule: no path through unsettled nodes can beat the best meeting.
+            if (forwardMin + backwardMin >= best) {
+                break;
+            }
+            boolean stepForward = forwardMin <= backwardMin;
+            SearchSpace space = stepForward ? forward : backward;
+            SearchSpace other = stepForward ? backward : forward;
+            int v = space.pollSettled();
+            if (v < 0) {
+                continue;
+            }
+            if (other.isReached(v)) {
+                double total = space.meters(v) + other.meters(v);
+                if (total < best) {
+                    best = total;
+                    bestSeconds = space.seconds(v) + other.seconds(v);
+                }
+            }
+            int[] first = stepForward ? firstOut : firstIn;
+            int[] adjacent = stepForward ? outHead : inTail;
+            double[] edgeMeters = stepForward ? outMeters : inMeters;
+            double[] edgeSeconds = stepForward ? outSeconds : inSeconds;
+            for (int e = first[v]; e < first[v + 1]; e++) {
+                int w = adjacent[e];
+                space.relax(w, space.meters(v) + edgeMeters[e], space.seconds(v) + edgeSeconds[e]);
+                if (other.isReached(w)) {
+                    double total = space.meters(w) + other.meters(w);
+                    if (total < best) {
+                        best = total;
+                        bestSeconds = space.seconds(w) + other.seconds(w);
+                    }
+                }
+            }
+        }
+        return best == Double.MAX_VALUE ? null : new double[]{best, bestSeconds};
+    }
+
+    /**
+     * One-to-many Dijkstra from source, stopping once every target is settled. Fills
+     * meters[k] and seconds[k] for targets[k], or Double.MAX_VALUE when unreachable.
+     */
+    public void shortestPaths(int source, int[] targets, double[] meters, double[] seconds) {
+        SearchSpace space = searchSpaces.get()[0];
+        space.reset();
+        space.relax(source, 0.0, 0.0);
+
+        int remaining = 0;
+        for (int target : targets) {
+            if (!space.isTarget(target)) {
+                space.markTarget(target);
+                remaining++;
+            }
+        }
+        while (remaining > 0) {
+            int v = space.pollSettled();
+            if (v < 0) {
+                if (space.queue.isEmpty()) {
+                    break;
+                }
+                continue;
+            }
+            if (space.isTarget(v)) {
+                remaining--;
+            }
+            for (int e = firstOut[v]; e < firstOut[v + 1]; e++) {
+                space.relax(outHead[e], space.meters(v) + outMeters[e], space.seconds(v) + outSeconds[e]);
+            }
+        }
+        for (int k = 0; k < targets.length; k++) {
+            boolean reached = space.isSettled(targets[k]);
+            meters[k] = reached ? space.meters(targets[k]) : Double.MAX_VALUE;
+            seconds[k] = reached ? space.seconds(targets[k]) : Double.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Per-thread Dijkstra workspace. Arrays are sized to the graph once and "cleared" by
+     * bumping a stamp, so a query allocates nothing but heap entries.
+     */
+    private static class SearchSpace {
+        private final double[] meters;
+        private final double[] seconds;
+        private final int[] reachedStamp;
+        private final int[] settledStamp;
+        private final int[] targetStamp;
+        private int stamp;
+        private final PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+
+        SearchSpace(int nodes) {
+            meters = new double[nodes];
+            seconds = new double[nodes];
+            reachedStamp = new int[nodes];
+            settledStamp = new int[nodes];
+            targetStamp = new int[nodes];
+        }
+
+        void reset() {
+            stamp++;
+            queue.clear();
+        }
+
+        boolean isReached(int v) {
+            return reachedStamp[v] == stamp;
+        }
+
+        boolean isSettled(int v) {
+            return settledStamp[v] == stamp;
+        }
+
+        boolean isTarget(int v) {
+            return targetStamp[v] == stamp;
+        }
+
+        void markTarget(int v) {
+            targetStamp[v] = stamp;
+        }
+
+        double meters(int v) {
+            return meters[v];
+        }
+
+        double seconds(int v) {
+            return seconds[v];
+        }
+
+        // Records a tentative distance if it improves on the current one; returns true if it did.
+        boolean relax(int v, double d, double s) {
+            if (isSettled(v) || (isReached(v) && meters[v] <= d)) {
+                return false;
+            }
+            reachedStamp[v] = stamp;
+            meters[v] = d;
+            seconds[v] = s;
+            queue.add(new double[]{d, v});
+            return true;
+        }
+
+        // Pops the next queue entry; returns its node if it was newly settled, -1 for stale entries.
+        int pollSettled() {
+            double[] entry = queue.poll();
+            if (entry == null) {
+                return -1;
+            }
+            int v = (int) entry[1];
+            if (isSettled(v) || entry[0] > meters[v]) {
+                return -1;
+            }
+            settledStamp[v] = stamp;
+            return v;
+        }
+    }
+}
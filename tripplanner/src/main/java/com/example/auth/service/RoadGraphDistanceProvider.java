@@ -0,0 +1,135 @@
+package com.example.auth.service;
+
+import com.example.auth.model.Place;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Offline distances from an embedded road graph, no network involved.
+ *
+ * The graph extract is loaded once from {@code distance.road-graph.path}; build it from an
+ * OpenStreetMap extract with {@link OsmRoadGraphConverter}. Each place is
+ * snapped to its nearest graph node; the straight-line hop from the place to that node is
+ * added at {@code distance.road-graph.access-speed-kmh}. A matrix row is one one-to-many
+ * Dijkstra from the origin, so a whole many-to-many matrix takes one search per origin.
+ */
+@Component
+public class RoadGraphDistanceProvider implements DistanceProvider {
+
+    @Value("${distance.road-graph.path:}")
+    private String graphPath;
+
+    @Value("${distance.road-graph.access-speed-kmh:20}")
+    private double accessSpeedKmh;
+
+    private volatile RoadGraph graph;
+
+    @PostConstruct
+    public void loadGraph() {
+        if (graphPath == null || graphPath.isBlank()) {
+            return;
+        }
+        Path path = Path.of(graphPath);
+        if (!Files.exists(path)) {
+            System.err.println("Road graph not found at " + path + "; road-graph distances are unavailable");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            graph = RoadGraph.load(path);
+            System.out.println("Loaded road graph with " + graph.getNodeCount() + " nodes from " + path
+                    + " in " + (System.currentTimeMillis() - start) + " ms");
+        } catch (Exception e) {
+            System.err.println("Failed to load road graph from " + path + ": " + e.getMessage());
+        }
+    }
+
+    // Allows tests and tools to supply a graph directly; a graph without nodes counts as none.
+    public void setGraph(RoadGraph graph) {
+        this.graph = graph != null && graph.getNodeCount() > 0 ? graph : null;
+    }
+
+    public boolean isAvailable() {
+        return graph != null;
+    }
+
+    @Override
+    public String getName() {
+        return "road-graph";
+    }
+
+    @Override
+    public TravelCost getTravelCost(Place origin, Place destination) {
+        RoadGraph g = graph;
+        if (g == null) {
+            return TravelCost.UNREACHABLE;
+        }
+        int source = g.nearestNode(origin.getLatitude(), origin.getLongitude());
+        int target = g.nearestNode(destination.getLatitude(), destination.getLongitude());
+        double[] path = g.shortestPath(source, target);
+        if (path == null) {
+            return TravelCost.UNREACHABLE;
+        }
+        double[] startAccess = access(g, origin, source);
+        double[] endAccess = access(g, destination, target);
+        return new TravelCost(path[0] + startAccess[0] + endAccess[0], path[1] + startAccess[1] + endAccess[1]);
+    }
+
+    @Override
+    public TravelCost[][] getTravelCostMatrix(List<Place> places) {
+        return getTravelCostMatrix(places, places);
+    }
+
+    @Override
+    public TravelCost[][] getTravelCostMatrix(List<Place> origins, List<Place> destinations) {
+        TravelCost[][] matrix = new TravelCost[origins.size()][destinations.size()];
+        RoadGraph g = graph;
+        if (g == null) {
+            for (TravelCost[] row : matrix) {
+                Arrays.fill(row, TravelCost.UNREACHABLE);
+            }
+            return matrix;
+        }
+
+        int[] targets = new int[destinations.size()];
+        double[][] targetAccess = new double[destinations.size()][];
+        for (int j = 0; j < destinations.size(); j++) {
+            Place place = destinations.get(j);
+            targets[j] = g.nearestNode(place.getLatitude(), place.getLongitude());
+            targetAccess[j] = access(g, place, targets[j]);
+        }
+
+        double[] meters = new double[targets.length];
+        double[] seconds = new double[targets.length];
+        for (int i = 0; i < origins.size(); i++) {
+            Place origin = origins.get(i);
+            int source = g.nearestNode(origin.getLatitude(), origin.getLongitude());
+            double[] sourceAccess = access(g, origin, source);
+            g.shortestPaths(source, targets, meters, seconds);
+            for (int j = 0; j < targets.length; j++) {
+                if (origin.getId().equals(destinations.get(j).getId())) {
+                    matrix[i][j] = TravelCost.ZERO;
+                } else if (meters[j] == Double.MAX_VALUE) {
+                    matrix[i][j] = TravelCost.UNREACHABLE;
+                } else {
+                    matrix[i][j] = new TravelCost(meters[j] + sourceAccess[0] + targetAccess[j][0],
+                            seconds[j] + sourceAccess[1] + targetAccess[j][1]);
+                }
+            }
+        }
+        return matrix;
+    }
+
+    // Straight-line hop between a place and its snapped graph node: {meters, seconds}.
+    private double[] access(RoadGraph g, Place place, int node) {
+        double meters = GeoUtils.haversineMeters(place.getLatitude(), place.getLongitude(),
+                g.getLatitude(node), g.getLongitude(node));
+        return new double[]{meters, meters / (accessSpeedKmh / 3.6)};
+    }
+}
@@ -1,8 +1,12 @@
 package com.example.auth.service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class RouteDetails {
     private double totalDistance;  // Distance in meters
     private double totalTime;      // Time in hours
+    private List<TravelCost> legs = new ArrayList<>();  // Per-leg distance (meters) and time (seconds)
 
     // Constructor
     public RouteDetails(double totalDistance, double totalTime) {
@@ -10,6 +14,12 @@ public class RouteDetails {
         this.totalTime = totalTime;
     }
 
+    public RouteDetails(double totalDistance, double totalTime, List<TravelCost> legs) {
+        this.totalDistance = totalDistance;
+        this.totalTime = totalTime;
+        this.legs = legs;
+    }
+
     // Getters and setters
     public double getTotalDistance() {
         return totalDistance;
@@ -26,4 +36,12 @@ public class RouteDetails {
     public void setTotalTime(double totalTime) {
         this.totalTime = totalTime;
     }
+
+    public List<TravelCost> getLegs() {
+        return legs;
+    }
+
+    public void setLegs(List<TravelCost> legs) {
+        this.legs = legs;
+    }
 }
@@ -2,28 +2,324 @@ package com.example.auth.service;
 
 import com.example.auth.model.Place;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 @Service
 public class RouteOptimizationService {
 
     @Autowired
-    private TomTomService tomTomService;
+    private DistanceProviderRegistry distanceProviders;
 
-    // Helper function to calculate route distance using the distance matrix.
-    private double calculateDistance(int[] route, double[][] distanceMatrix) {
-        double total = 0.0;
-        for (int i = 0; i < route.length - 1; i++) {
-            total += distanceMatrix[route[i]][route[i + 1]];
+    @Autowired
+    private HaversineDistanceProvider haversineDistanceProvider;
+
+    @Autowired
+    private CityMatrixSnapshotService cityMatrixSnapshotService;
+
+    @Autowired
+    private TspSolverRegistry tspSolvers;
+
+    @Autowired
+    private RouteResultCache routeResultCache;
+
+    @Autowired
+    @Qualifier("solverPool")
+    private ForkJoinPool solverPool;
+
+    // Progressive mode: solve on great-circle estimates while road distances are fetched.
+    @Value("${route.progressive.enabled:false}")
+    private boolean progressiveEnabled;
+
+    // Default solver budget per optimization: wall-clock limit, evaluation cap (0 = none), GA stall generations.
+    @Value("${solver.time-limit-ms:3000}")
+    private long timeLimitMs;
+
+    @Value("${solver.max-evaluations:0}")
+    private long maxEvaluations;
+
+    @Value("${solver.stall-generations:150}")
+    private int stallGenerations;
+
+    // Incremental re-optimization: most new places spliced into a stored tour, and how many day matrices to keep for it.
+    @Value("${route.incremental.max-new-places:5}")
+    private int incrementalMaxNewPlaces;
+
+    @Value("${route.incremental.matrix-cache-size:256}")
+    private int matrixCacheSize;
+
+    // Multi-day planning: how many places a day may hold beyond an even split.
+    @Value("${route.multi-day.balance-slack:1}")
+    private int multiDayBalanceSlack;
+
+    // Most recent matrix per day, keyed by its starting place and stops (see matrixKey); access-ordered
+    // so the least recently used one is evicted.
+    private final Map<String, DistanceMatrix> recentMatrices = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, DistanceMatrix> eldest) {
+            return size() > matrixCacheSize;
+        }
+    };
+
+    public OptimizationResult optimizeRoute(Place startingPlace, List<Place> places) {
+        return optimizeRoute(startingPlace, places, null, null, null);
+    }
+
+    // A budget with the configured limits, starting now.
+    public SolverBudget newBudget() {
+        return SolverBudget.start(timeLimitMs, maxEvaluations, stallGenerations);
+    }
+
+    /**
+     * Optimizes the round trip. {@code solverName} picks a solver from {@link TspSolverRegistry}
+     * (null uses {@code solver.default}) and {@code islands} overrides the GA island count.
+     * Solving stops with the best tour so far when {@code budget} runs out; null starts a
+     * budget with the configured limits once the matrix is ready.
+     *
+     * In progressive mode, tours computed on haversine estimates are offered to the budget's
+     * incumbent listener as soon as they exist (a nearest-neighbour tour within milliseconds, then
+     * the solver's progress and result); the returned result is always based on the configured
+     * road distances.
+     *
+     * Results are memoized in {@link RouteResultCache}; a repeated place set is answered from
+     * there without solving or fetching distances.
+     */
+    public OptimizationResult optimizeRoute(Place startingPlace, List<Place> places, String solverName, Integer islands,
+                                            SolverBudget budget) {
+        List<Place> allPlaces = withStartingPlace(startingPlace, places);
+        String cacheKey = cacheKey(allPlaces, solverName);
+        OptimizationResult cached = routeResultCache.get(cacheKey, allPlaces);
+        if (cached != null) {
+            return cached;
+        }
+        OptimizationResult result = computeRoute(allPlaces, solverName, islands, budget);
+        // A run stopped early on request may be far from converged; do not hand it to later callers.
+        if ((budget == null || !budget.isCancelled()) && allLegsReachable(result)) {
+            routeResultCache.put(cacheKey, result);
+        }
+        return result;
+    }
+
+    /**
+     * Optimizes several round trips at once, e.g. every day of a trip. One matrix is built over
+     * the union of all their places, and the days not answered by {@link RouteResultCache} are
+     * solved concurrently on the solver pool, each on its slice of that matrix. All days share
+     * {@code budget} (null starts one with the configured limits once the matrix is ready).
+     * Results come back in the order of {@code startingPlaces}.
+     */
+    public List<OptimizationResult> optimizeRoutes(List<Place> startingPlaces, List<List<Place>> dayPlaces,
+                                                   String solverName, SolverBudget budget) {
+        int days = startingPlaces.size();
+        List<List<Place>> allPlacesByDay = new ArrayList<>(days);
+        List<String> cacheKeys = new ArrayList<>(days);
+        OptimizationResult[] results = new OptimizationResult[days];
+        Map<Long, Place> union = new LinkedHashMap<>();
+        for (int d = 0; d < days; d++) {
+            List<Place> allPlaces = withStartingPlace(startingPlaces.get(d), dayPlaces.get(d));
+            allPlacesByDay.add(allPlaces);
+            cacheKeys.add(cacheKey(allPlaces, solverName));
+            results[d] = routeResultCache.get(cacheKeys.get(d), allPlaces);
+            if (results[d] == null) {
+                for (Place p : allPlaces) {
+                    union.putIfAbsent(p.getId(), p);
+                }
+            }
+        }
+        if (union.isEmpty()) {
+            return List.of(results);
+        }
+
+        DistanceMatrix matrix = buildUnionMatrix(new ArrayList<>(union.values()));
+        SolverBudget solverBudget = budget != null ? budget : newBudget();
+        List<ForkJoinTask<OptimizationResult>> tasks = new ArrayList<>();
+        List<Integer> solvedDays = new ArrayList<>();
+        for (int d = 0; d < days; d++) {
+            if (results[d] == null) {
+                List<Place> allPlaces = allPlacesByDay.get(d);
+                tasks.add(solverPool.submit(() -> solve(allPlaces, matrix.select(allPlaces), solverName, null, solverBudget)));
+                solvedDays.add(d);
+            }
+        }
+        for (int t = 0; t < tasks.size(); t++) {
+            int d = solvedDays.get(t);
+            results[d] = tasks.get(t).join();
+            if (!solverBudget.isCancelled() && allLegsReachable(results[d])) {
+                routeResultCache.put(cacheKeys.get(d), results[d]);
+            }
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Spreads the places over {@code days} round trips from {@code startingPlace}, e.g. a hotel,
+     * solving the days jointly on one matrix with {@link MultiDayPlanner}. A day gets at most
+     * ceil(places / days) + {@code route.multi-day.balance-slack} places. Results are in day
+     * order; a day left without places has a tour of just the starting place.
+     */
+    public List<OptimizationResult> planDays(Place startingPlace, List<Place> places, int days, SolverBudget budget) {
+        List<Place> allPlaces = withStartingPlace(startingPlace, places);
+        DistanceMatrix matrix = buildUnionMatrix(allPlaces);
+        int visits = allPlaces.size() - 1;
+        int capacity = (visits + days - 1) / days + Math.max(0, multiDayBalanceSlack);
+        int[][] routes = new MultiDayPlanner(problemFor(allPlaces, matrix, null), days, Math.max(1, capacity))
+                .plan(budget != null ? budget : newBudget());
+
+        List<OptimizationResult> results = new ArrayList<>(days);
+        for (int[] route : routes) {
+            // Each day's places are listed in visiting order, so its tour is the identity.
+            List<Place> dayPlaces = new ArrayList<>(route.length);
+            int[] tour = new int[route.length];
+            for (int k = 0; k < route.length; k++) {
+                dayPlaces.add(allPlaces.get(route[k]));
+                tour[k] = k;
+            }
+            results.add(new OptimizationResult(dayPlaces, tour, matrix.select(route), "multi-day"));
+        }
+        return results;
+    }
+
+    /**
+     * Ranks candidate starting places, e.g. a city's hotels, by the length of the best round
+     * trip from each over the same places; returns the {@code limit} shortest, best first.
+     *
+     * One matrix holds the places and the legs between them and every candidate; legs between
+     * two candidates are never fetched. Candidates are taken in order of a lower bound on
+     * their tour (every stop must be left and entered by at least its cheapest leg) and solved
+     * on the solver pool in waves of one per pool thread, exactly when small enough, else by
+     * local search. Once the bound of the next candidate cannot beat the current
+     * {@code limit}-th best tour, it and every remaining candidate are skipped without solving.
+     */
+    public List<OptimizationResult> rankStartingPlaces(List<Place> candidates, List<Place> places, int limit,
+                                                       SolverBudget budget) {
+        Set<Long> candidateIds = new HashSet<>();
+        for (Place c : candidates) {
+            candidateIds.add(c.getId());
+        }
+        List<Place> stops = new ArrayList<>();
+        for (Place p : places) {
+            if (!candidateIds.contains(p.getId())) {
+                stops.add(p);
+            }
+        }
+        if (candidates.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        DistanceMatrix matrix = buildStarMatrix(stops, candidates);
+        int m = stops.size();
+
+        // Cheapest leg out of and into each stop when only stops are around; a candidate can only lower these.
+        double[] minOut = new double[m];
+        double[] minIn = new double[m];
+        Arrays.fill(minOut, Double.POSITIVE_INFINITY);
+        Arrays.fill(minIn, Double.POSITIVE_INFINITY);
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < m; j++) {
+                if (i != j) {
+                    minOut[i] = Math.min(minOut[i], matrix.distance(i, j));
+                    minIn[j] = Math.min(minIn[j], matrix.distance(i, j));
+                }
+            }
+        }
+        int h = candidates.size();
+        double[] lowerBounds = new double[h];
+        Integer[] order = new Integer[h];
+        for (int c = 0; c < h; c++) {
+            int ci = m + c;
+            double candidateOut = Double.POSITIVE_INFINITY;
+            double candidateIn = Double.POSITIVE_INFINITY;
+            double out = 0.0;
+            double in = 0.0;
+            for (int i = 0; i < m; i++) {
+                candidateOut = Math.min(candidateOut, matrix.distance(ci, i));
+                candidateIn = Math.min(candidateIn, matrix.distance(i, ci));
+                out += Math.min(minOut[i], matrix.distance(i, ci));
+                in += Math.min(minIn[i], matrix.distance(ci, i));
+            }
+            lowerBounds[c] = m == 0 ? 0.0 : Math.max(out + candidateOut, in + candidateIn);
+            order[c] = c;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(c -> lowerBounds[c]));
+
+        SolverBudget solverBudget = budget != null ? budget : newBudget();
+        // Lengths of the best tours so far, longest first, so the head is the bar a candidate's bound must beat.
+        PriorityQueue<Double> best = new PriorityQueue<>(Comparator.reverseOrder());
+        List<OptimizationResult> results = new ArrayList<>();
+        // Solve in waves of one candidate per pool thread, raising the bar between waves; since
+        // candidates come in bound order, the first one that cannot beat the bar ends the search.
+        int wave = Math.max(1, solverPool.getParallelism());
+        boolean pruned = false;
+        for (int start = 0; start < h && !pruned; start += wave) {
+            List<ForkJoinTask<OptimizationResult>> tasks = new ArrayList<>(wave);
+            for (int k = start; k < Math.min(start + wave, h); k++) {
+                int c = order[k];
+                pruned = best.size() >= limit && lowerBounds[c] >= best.peek();
+                if (pruned) {
+                    break;
+                }
+                Place candidate = candidates.get(c);
+                tasks.add(solverPool.submit(() -> {
+                    int[] indices = new int[m + 1];
+                    indices[0] = m + c;
+                    for (int i = 0; i < m; i++) {
+                        indices[i + 1] = i;
+                    }
+                    List<Place> allPlaces = new ArrayList<>(m + 1);
+                    allPlaces.add(candidate);
+                    allPlaces.addAll(stops);
+                    DistanceMatrix day = matrix.select(indices);
+                    TspProblem problem = new TspProblem(day);
+                    TspSolver solver = tspSolvers.getFast(problem);
+                    int[] tour = m == 0 ? new int[]{0} : solver.solve(problem, solverBudget);
+                    return new OptimizationResult(allPlaces, tour, day, solver.getName());
+                }));
+            }
+            for (ForkJoinTask<OptimizationResult> task : tasks) {
+                OptimizationResult result = task.join();
+                results.add(result);
+                best.add(TourUtils.tourLength(result.getTour(), result.getMatrix()));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+
+        results.sort(Comparator.comparingDouble(r -> TourUtils.tourLength(r.getTour(), r.getMatrix())));
+        return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+    }
+
+    /**
+     * False if the tour uses a leg that could not be routed, e.g. during a provider outage or
+     * once the quota is used up. Such results must not be cached, just as DistanceCacheService
+     * never caches failed lookups, or the penalty tour would outlive the outage.
+     */
+    private static boolean allLegsReachable(OptimizationResult result) {
+        int[] tour = result.getTour();
+        DistanceMatrix matrix = result.getMatrix();
+        for (int k = 0; k < tour.length; k++) {
+            if (!matrix.isReachable(tour[k], tour[(k + 1) % tour.length])) {
+                return false;
+            }
         }
-        return total;
+        return true;
     }
 
-    public List<Place> optimizeRoute(Place startingPlace, List<Place> places) {
-        // Combine the starting place and the other places into one list.
+    // Starting place first, then the other places without repeating it.
+    private static List<Place> withStartingPlace(Place startingPlace, List<Place> places) {
         List<Place> allPlaces = new ArrayList<>();
         allPlaces.add(startingPlace);
         for (Place p : places) {
@@ -31,76 +327,347 @@ public class RouteOptimizationService {
                 allPlaces.add(p);
             }
         }
+        return allPlaces;
+    }
 
-        int n = allPlaces.size();
-        double[][] distanceMatrix = new double[n][n];
+    private String cacheKey(List<Place> allPlaces, String solverName) {
+        List<Long> placeIds = new ArrayList<>();
+        for (Place p : allPlaces) {
+            placeIds.add(p.getId());
+        }
+        return RouteResultCache.key(allPlaces.get(0).getId(), placeIds, solverName, matrixVersion());
+    }
 
-        // Build the distance matrix using TomTomService.
-        for (int i = 0; i < n; i++) {
-            Place p1 = allPlaces.get(i);
-            for (int j = 0; j < n; j++) {
-                if (i == j) {
-                    distanceMatrix[i][j] = 0.0;
-                } else {
-                    Place p2 = allPlaces.get(j);
-                    distanceMatrix[i][j] = tomTomService.getRouteDistance(p1, p2);
+    private OptimizationResult computeRoute(List<Place> allPlaces, String solverName, Integer islands,
+                                            SolverBudget budget) {
+        // Exact solves are cheap, so they skip the provisional pass and run on the road matrix directly.
+        if (!progressiveEnabled || tspSolvers.isExact(solverName, allPlaces.size())) {
+            return solve(allPlaces, buildMatrix(allPlaces), solverName, islands, budget != null ? budget : newBudget());
+        }
+
+        // The budget covers both the provisional solve and the final polish.
+        SolverBudget solverBudget = budget != null ? budget : newBudget();
+
+        // Great-circle matrix is available immediately; start solving on it in the background.
+        DistanceMatrix estimate = DistanceMatrix.fromTravelCosts(allPlaces,
+                haversineDistanceProvider.getTravelCostMatrix(allPlaces));
+        // Jobs and their streams show these tours until the road tour is ready.
+        int[] nearestNeighbour = TourUtils.nearestNeighbourTour(estimate);
+        solverBudget.offerIncumbent(estimate, nearestNeighbour, TourUtils.tourLength(nearestNeighbour, estimate),
+                -1, Double.NaN);
+        SolverBudget provisionalBudget = solverBudget.slice(0.8);
+        CompletableFuture<OptimizationResult> provisional = CompletableFuture.supplyAsync(() -> {
+            OptimizationResult result = solve(allPlaces, estimate, solverName, islands, provisionalBudget);
+            // Solvers without progress reports (e.g. local search) only show up here.
+            provisionalBudget.offerIncumbent(estimate, result.getTour(), TourUtils.tourLength(result.getTour(), estimate),
+                    -1, Double.NaN);
+            return result;
+        }, solverPool);
+
+        // Meanwhile the request thread waits on the network for the real road distances.
+        DistanceMatrix road;
+        try {
+            road = buildMatrix(allPlaces);
+        } catch (RuntimeException e) {
+            // Nobody will use the provisional tour; free its solver thread.
+            provisionalBudget.cancel();
+            throw e;
+        }
+
+        // Re-polish the incumbent on the true matrix and keep it only if it beats a fresh nearest-neighbour start.
+        OptimizationResult incumbent = provisional.join();
+        // Road lengths are not comparable with the estimates, so the first road tour must get through.
+        solverBudget.resetIncumbent();
+        int[] polished = polish(incumbent.getTour(), road, solverBudget);
+        int[] fallback = polish(TourUtils.nearestNeighbourTour(road), road, solverBudget);
+        int[] best = TourUtils.tourLength(polished, road) <= TourUtils.tourLength(fallback, road) ? polished : fallback;
+
+        // Keep the matrix with the tour so route details need no further distance lookups.
+        return new OptimizationResult(allPlaces, best, road, incumbent.getSolverName());
+    }
+
+    /**
+     * Re-optimizes a day after a small edit. The stored tour ({@code previousRoute}, place ids
+     * starting with the starting place) loses the places no longer selected, the new ones are
+     * added by cheapest insertion, and local search polishes the result. Only the matrix rows
+     * and columns of the new places are fetched when the day's previous matrix is still cached.
+     *
+     * Falls back to a full {@link #optimizeRoute} when there is no usable stored tour, the
+     * starting place changed, or more than {@code route.incremental.max-new-places} were added.
+     */
+    public OptimizationResult reoptimizeRoute(Place startingPlace, List<Place> places, List<Long> previousRoute,
+                                              SolverBudget budget) {
+        if (previousRoute == null || previousRoute.isEmpty() || !previousRoute.get(0).equals(startingPlace.getId())) {
+            return optimizeRoute(startingPlace, places, null, null, budget);
+        }
+        Set<Long> selected = new HashSet<>();
+        for (Place p : places) {
+            selected.add(p.getId());
+        }
+        // Stops kept from the stored tour come first, in their old order, so they form the partial tour 0..kept-1.
+        List<Place> allPlaces = new ArrayList<>();
+        allPlaces.add(startingPlace);
+        Set<Long> included = new HashSet<>();
+        included.add(startingPlace.getId());
+        for (Long id : previousRoute) {
+            if (selected.contains(id) && included.add(id)) {
+                for (Place p : places) {
+                    if (p.getId().equals(id)) {
+                        allPlaces.add(p);
+                        break;
+                    }
                 }
             }
         }
+        int kept = allPlaces.size();
+        for (Place p : places) {
+            if (included.add(p.getId())) {
+                allPlaces.add(p);
+            }
+        }
+        if (kept < 2 || allPlaces.size() - kept > incrementalMaxNewPlaces) {
+            return optimizeRoute(startingPlace, places, null, null, budget);
+        }
+
+        DistanceMatrix matrix = buildMatrixIncrementally(allPlaces, previousRoute);
+        int[] partialTour = new int[kept];
+        for (int i = 0; i < kept; i++) {
+            partialTour[i] = i;
+        }
+        int[] tour = ConstructiveTours.insertCheapest(matrix, partialTour);
+        new LocalSearchTSP(matrix).improve(tour, budget != null ? budget : newBudget());
+        return new OptimizationResult(allPlaces, tour, matrix, "incremental");
+    }
 
-        // --- Run Genetic Algorithm to generate an initial solution ---
-        int populationSize = 50;      // Tune as needed.
-        int generations = 1000;        // Tune as needed.
-        double mutationRate = 0.1;      // Tune as needed.
-        GeneticAlgorithmTSP ga = new GeneticAlgorithmTSP(distanceMatrix, populationSize, generations, mutationRate);
-        int[] gaSolution = ga.run();
-        double gaDistance = calculateDistance(gaSolution, distanceMatrix);
+    // Forgets cached day matrices and results that contain a place whose location changed.
+    public void placeMoved(Long placeId) {
+        synchronized (recentMatrices) {
+            recentMatrices.values().removeIf(matrix -> matrix.indexOf(placeId) >= 0);
+        }
+        routeResultCache.invalidatePlace(placeId);
+    }
 
-        // --- Run Simulated Annealing starting from the GA solution ---
-        double initialTemperature = 10000.0;  // Tune as needed.
-        double coolingRate = 0.995;           // Tune as needed.
-        int iterationsPerTemperature = 500;   // Tune as needed.
-        SimulatedAnnealingTSP sa = new SimulatedAnnealingTSP(distanceMatrix, initialTemperature, coolingRate, iterationsPerTemperature);
-        int[] saSolution = sa.run(gaSolution);
-        double saDistance = calculateDistance(saSolution, distanceMatrix);
+    // Identifies where matrices come from, so cached results from another distance provider are not reused.
+    private String matrixVersion() {
+        return distanceProviders.getPrimary().getName();
+    }
 
-        // Choose the best solution (or simply use the SA-refined solution).
-        int[] bestSolution = (saDistance < gaDistance) ? saSolution : gaSolution;
+    // Runs the requested (or default) solver on the distance matrix.
+    private OptimizationResult solve(List<Place> allPlaces, DistanceMatrix matrix, String solverName, Integer islands,
+                                     SolverBudget budget) {
+        TspProblem problem = problemFor(allPlaces, matrix, islands);
+        TspSolver solver = tspSolvers.get(solverName, problem);
+        int[] tour = solver.solve(problem, budget);
+        String name = solver instanceof PortfolioTspSolver portfolio
+                ? solver.getName() + ":" + portfolio.getWinner()
+                : solver.getName();
+        return new OptimizationResult(allPlaces, tour, matrix, name);
+    }
 
-        // Map the best solution indices back to Place objects.
-        List<Place> optimizedRoute = new ArrayList<>();
-        for (int index : bestSolution) {
-            optimizedRoute.add(allPlaces.get(index));
+    // Coordinates let the GA seed a space-filling-curve tour and the multi-day planner cluster places.
+    private static TspProblem problemFor(List<Place> allPlaces, DistanceMatrix matrix, Integer islands) {
+        double[] latitudes = new double[allPlaces.size()];
+        double[] longitudes = new double[allPlaces.size()];
+        for (int i = 0; i < allPlaces.size(); i++) {
+            latitudes[i] = allPlaces.get(i).getLatitude();
+            longitudes[i] = allPlaces.get(i).getLongitude();
         }
+        return new TspProblem(matrix, islands, latitudes, longitudes);
+    }
 
-        // Ensure the route forms a round-trip by adding the starting place at the end if needed.
-        if (!optimizedRoute.get(optimizedRoute.size() - 1).equals(startingPlace)) {
-            optimizedRoute.add(startingPlace);  // Add the starting place at the end to make it a round trip.
+    // Short, low-temperature SA run that adapts a tour found on estimates to the road matrix.
+    private int[] polish(int[] tour, DistanceMatrix distanceMatrix, SolverBudget budget) {
+        if (tour.length < 3) {
+            return tour;
         }
+        SimulatedAnnealingTSP sa = new SimulatedAnnealingTSP(distanceMatrix, 100.0, 0.98, 200);
+        int[] polished = sa.run(tour, budget);
+        return TourUtils.tourLength(polished, distanceMatrix) < TourUtils.tourLength(tour, distanceMatrix) ? polished : tour;
+    }
 
-        return optimizedRoute;
+    // Serves the matrix from a city snapshot when one covers every place, else from the providers.
+    private DistanceMatrix buildMatrix(List<Place> places) {
+        DistanceMatrix snapshot = cityMatrixSnapshotService.slice(places);
+        DistanceMatrix matrix = snapshot != null
+                ? snapshot
+                : DistanceMatrix.fromTravelCosts(places, distanceProviders.getTravelCostMatrix(places));
+        remember(places, matrix);
+        return matrix;
+    }
+
+    // Matrix over places of several days; unlike buildMatrix it is not remembered as any one day's matrix.
+    private DistanceMatrix buildUnionMatrix(List<Place> places) {
+        DistanceMatrix snapshot = cityMatrixSnapshotService.slice(places);
+        return snapshot != null
+                ? snapshot
+                : DistanceMatrix.fromTravelCosts(places, distanceProviders.getTravelCostMatrix(places));
+    }
+
+    /**
+     * Matrix over the stops followed by the candidates, with every leg among the stops and
+     * between a stop and a candidate; legs between two candidates are left unreachable.
+     */
+    private DistanceMatrix buildStarMatrix(List<Place> stops, List<Place> candidates) {
+        List<Place> all = new ArrayList<>(stops);
+        all.addAll(candidates);
+        DistanceMatrix snapshot = cityMatrixSnapshotService.slice(all);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        int m = stops.size();
+        int n = all.size();
+        long[] ids = new long[n];
+        float[] meters = new float[n * n];
+        float[] seconds = new float[n * n];
+        Arrays.fill(meters, Float.NaN);
+        Arrays.fill(seconds, Float.NaN);
+        for (int i = 0; i < n; i++) {
+            ids[i] = all.get(i).getId();
+        }
+        if (m > 0) {
+            TravelCost[][] among = distanceProviders.getTravelCostMatrix(stops, stops);
+            TravelCost[][] fromCandidates = distanceProviders.getTravelCostMatrix(candidates, stops);
+            TravelCost[][] toCandidates = distanceProviders.getTravelCostMatrix(stops, candidates);
+            for (int i = 0; i < m; i++) {
+                for (int j = 0; j < m; j++) {
+                    setCell(meters, seconds, i * n + j, among[i][j]);
+                }
+                for (int c = 0; c < candidates.size(); c++) {
+                    setCell(meters, seconds, (m + c) * n + i, fromCandidates[c][i]);
+                    setCell(meters, seconds, i * n + m + c, toCandidates[i][c]);
+                }
+            }
+        }
+        return DistanceMatrix.of(ids, meters, seconds);
+    }
+
+    // Like buildMatrix, but copies the cells already in the matrix the previous route was solved on and fetches only the rest.
+    private DistanceMatrix buildMatrixIncrementally(List<Place> places, List<Long> previousRoute) {
+        DistanceMatrix snapshot = cityMatrixSnapshotService.slice(places);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        DistanceMatrix previous;
+        synchronized (recentMatrices) {
+            previous = recentMatrices.get(matrixKey(previousRoute));
+        }
+        if (previous == null) {
+            return buildMatrix(places);
+        }
+        int n = places.size();
+        int[] previousIndex = new int[n];
+        for (int i = 0; i < n; i++) {
+            previousIndex[i] = previous.indexOf(places.get(i).getId());
+        }
+        // Cells that failed last time (e.g. during an outage) are not copied: the place with the
+        // most of them is fetched again, until every copied cell is a routed one.
+        while (true) {
+            int worst = -1;
+            int worstFailures = 0;
+            for (int i = 0; i < n; i++) {
+                if (previousIndex[i] < 0) {
+                    continue;
+                }
+                int failures = 0;
+                for (int j = 0; j < n; j++) {
+                    if (j != i && previousIndex[j] >= 0) {
+                        failures += (previous.isReachable(previousIndex[i], previousIndex[j]) ? 0 : 1)
+                                + (previous.isReachable(previousIndex[j], previousIndex[i]) ? 0 : 1);
+                    }
+                }
+                if (failures > worstFailures) {
+                    worst = i;
+                    worstFailures = failures;
+                }
+            }
+            if (worst < 0) {
+                break;
+            }
+            previousIndex[worst] = -1;
+        }
+        List<Place> fresh = new ArrayList<>();
+        List<Integer> freshIndex = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (previousIndex[i] < 0) {
+                fresh.add(places.get(i));
+                freshIndex.add(i);
+            }
+        }
+        if (fresh.size() == n) {
+            return buildMatrix(places);
+        }
+
+        long[] ids = new long[n];
+        float[] meters = new float[n * n];
+        float[] seconds = new float[n * n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = places.get(i).getId();
+            for (int j = 0; j < n; j++) {
+                if (previousIndex[i] >= 0 && previousIndex[j] >= 0) {
+                    meters[i * n + j] = (float) previous.distance(previousIndex[i], previousIndex[j]);
+                    seconds[i * n + j] = (float) previous.time(previousIndex[i], previousIndex[j]);
+                }
+            }
+        }
+        if (!fresh.isEmpty()) {
+            // New rows and columns only; their crossing cells are fetched twice, which is harmless.
+            TravelCost[][] rows = distanceProviders.getTravelCostMatrix(fresh, places);
+            TravelCost[][] columns = distanceProviders.getTravelCostMatrix(places, fresh);
+            for (int f = 0; f < fresh.size(); f++) {
+                int k = freshIndex.get(f);
+                for (int j = 0; j < n; j++) {
+                    setCell(meters, seconds, k * n + j, rows[f][j]);
+                    setCell(meters, seconds, j * n + k, columns[j][f]);
+                }
+            }
+        }
+        DistanceMatrix matrix = DistanceMatrix.of(ids, meters, seconds);
+        remember(places, matrix);
+        return matrix;
     }
-    // New function to calculate the total distance and time
-    public RouteDetails getRouteDetails(List<Place> optimizedRoute) {
-        double totalDistance = 0.0;
-        double totalTime = 0.0;
 
-        // Loop through the optimized route and calculate the distance and time
-        for (int i = 0; i < optimizedRoute.size() - 1; i++) {
-            Place currentPlace = optimizedRoute.get(i);
-            Place nextPlace = optimizedRoute.get(i + 1);
+    private static void setCell(float[] meters, float[] seconds, int cell, TravelCost cost) {
+        boolean routed = cost != null && cost.isReachable();
+        meters[cell] = routed ? (float) cost.getDistance() : Float.NaN;
+        seconds[cell] = routed ? (float) cost.getTravelTime() : Float.NaN;
+    }
 
-            // Get the distance between current and next place
-            double distance = tomTomService.getRouteDistance(currentPlace, nextPlace);
-            totalDistance += distance;
+    private void remember(List<Place> places, DistanceMatrix matrix) {
+        List<Long> placeIds = new ArrayList<>(places.size());
+        for (Place p : places) {
+            placeIds.add(p.getId());
+        }
+        synchronized (recentMatrices) {
+            recentMatrices.put(matrixKey(placeIds), matrix);
+        }
+    }
+
+    // Starting place, then the other place ids sorted: days sharing a hotel do not evict each other's matrix.
+    private static String matrixKey(List<Long> placeIds) {
+        List<Long> stops = new ArrayList<>(placeIds.subList(1, placeIds.size()));
+        Collections.sort(stops);
+        return placeIds.get(0) + ":" + stops;
+    }
+
+    // Calculates the total distance and time, and the per-leg breakdown, from the optimization matrix.
+    public RouteDetails getRouteDetails(OptimizationResult result) {
+        int[] tour = result.getTour();
+        DistanceMatrix matrix = result.getMatrix();
+        double totalDistance = 0.0;
+        double totalSeconds = 0.0;
+        List<TravelCost> legs = new ArrayList<>();
 
-            // Assuming average speed of 50 km/h, calculate the travel time
-            // Convert distance from meters to kilometers and time to hours
-            double timeInHours = (distance / 1000) / 50.0; // Distance (km) / Speed (km/h)
-            totalTime += timeInHours;
+        // Walk the round trip, including the leg back to the starting place.
+        for (int k = 0; k < tour.length; k++) {
+            int from = tour[k];
+            int to = tour[(k + 1) % tour.length];
+            TravelCost leg = matrix.travelCost(from, to);
+            legs.add(leg);
+            totalDistance += leg.getDistance();
+            totalSeconds += leg.getTravelTime();
         }
 
-        // Return the total distance and time
-        return new RouteDetails(totalDistance, totalTime);
+        // Travel time comes from the provider in seconds; the API reports hours.
+        return new RouteDetails(totalDistance, totalSeconds / 3600.0, legs);
     }
 }
@@ -0,0 +1,257 @@
+package com.example.auth.service;
+
+import com.example.auth.model.CachedRoute;
+import com.example.auth.model.Place;
+import com.example.auth.repository.CachedRouteRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memoized optimization results, keyed by the starting place, the sorted set of places, the
+ * solver and the matrix version, so a popular itinerary is solved once and then served with
+ * no solver work and no distance lookups.
+ *
+ * Entries hold the visiting order plus the meters and seconds of each leg, in an LRU map with
+ * a time-to-live and optionally in the {@code cached_routes} table. A result served from the
+ * cache carries a matrix with only the route's own legs filled in; every other cell is
+ * unreachable. Entries visiting a place are dropped when that place moves or is deleted.
+ */
+@Service
+public class RouteResultCache {
+
+    @Autowired
+    private CachedRouteRepository cachedRouteRepository;
+
+    @Value("${route.result-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${route.result-cache.ttl-ms:86400000}")
+    private long ttlMs;
+
+    @Value("${route.result-cache.persist:false}")
+    private boolean persist;
+
+    private final Map<String, Entry> memoryCache;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong databaseHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public RouteResultCache(@Value("${route.result-cache.size:1000}") int memoryCacheSize) {
+        // Access-ordered LinkedHashMap evicting the least recently used route once full.
+        this.memoryCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > memoryCacheSize;
+            }
+        };
+    }
+
+    // Visiting order as place ids and the cost of each leg, including the one back to the start.
+    private record Entry(long[] routeIds, double[] legMeters, double[] legSeconds, String solverName,
+                         long createdAtMillis) {
+    }
+
+    // Canonical key: the order in which the places were selected does not matter.
+    public static String key(Long startingPlaceId, Collection<Long> placeIds, String solverName, String matrixVersion) {
+        TreeSet<Long> sorted = new TreeSet<>(placeIds);
+        sorted.remove(startingPlaceId);
+        StringBuilder key = new StringBuilder().append(startingPlaceId).append('|');
+        for (Long id : sorted) {
+            key.append(id).append(',');
+        }
+        return key.append('|').append(solverName == null ? "" : solverName).append('|').append(matrixVersion).toString();
+    }
+
+    /**
+     * The cached result for the key, mapped onto the given places (starting place first), or
+     * null on a miss.
+     */
+    public OptimizationResult get(String key, List<Place> allPlaces) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry;
+        synchronized (memoryCache) {
+            entry = memoryCache.get(key);
+            if (entry != null && isExpired(entry)) {
+                memoryCache.remove(key);
+                entry = null;
+            }
+        }
+        if (entry != null) {
+            memoryHits.incrementAndGet();
+        } else if (persist) {
+            entry = load(key);
+            if (entry != null) {
+                databaseHits.incrementAndGet();
+                putInMemory(key, entry);
+            }
+        }
+        OptimizationResult result = entry != null ? toResult(entry, allPlaces) : null;
+        if (result == null) {
+            misses.incrementAndGet();
+        }
+        return result;
+    }
+
+    public void put(String key, OptimizationResult result) {
+        if (!enabled) {
+            return;
+        }
+        int[] tour = result.getTour();
+        DistanceMatrix matrix = result.getMatrix();
+        int n = tour.length;
+        long[] routeIds = new long[n];
+        double[] legMeters = new double[n];
+        double[] legSeconds = new double[n];
+        for (int k = 0; k < n; k++) {
+            routeIds[k] = result.getPlaces().get(tour[k]).getId();
+            TravelCost leg = matrix.travelCost(tour[k], tour[(k + 1) % n]);
+            legMeters[k] = leg.getDistance();
+            legSeconds[k] = leg.getTravelTime();
+        }
+        Entry entry = new Entry(routeIds, legMeters, legSeconds, result.getSolverName(), System.currentTimeMillis());
+        putInMemory(key, entry);
+        if (persist) {
+            store(key, entry);
+        }
+    }
+
+    // Drops every cached route that visits the place, in memory and in the database.
+    public void invalidatePlace(Long placeId) {
+        synchronized (memoryCache) {
+            memoryCache.values().removeIf(entry -> Arrays.stream(entry.routeIds()).anyMatch(id -> id == placeId));
+        }
+        if (persist) {
+            cachedRouteRepository.deleteByMemberId(placeId);
+        }
+    }
+
+    public Map<String, Long> getStats() {
+        long size;
+        synchronized (memoryCache) {
+            size = memoryCache.size();
+        }
+        return Map.of(
+                "memoryHits", memoryHits.get(),
+                "databaseHits", databaseHits.get(),
+                "misses", misses.get(),
+                "size", size
+        );
+    }
+
+    // Maps the cached order onto this request's places; null if the place set does not match.
+    private OptimizationResult toResult(Entry entry, List<Place> allPlaces) {
+        int n = allPlaces.size();
+        if (entry.routeIds().length != n) {
+            return null;
+        }
+        Map<Long, Integer> indexById = new HashMap<>();
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = allPlaces.get(i).getId();
+            indexById.put(ids[i], i);
+        }
+        int[] tour = new int[n];
+        for (int k = 0; k < n; k++) {
+            Integer index = indexById.get(entry.routeIds()[k]);
+            if (index == null) {
+                return null;
+            }
+            tour[k] = index;
+        }
+        float[] meters = new float[n * n];
+        float[] seconds = new float[n * n];
+        Arrays.fill(meters, Float.NaN);
+        Arrays.fill(seconds, Float.NaN);
+        for (int k = 0; k < n; k++) {
+            int cell = tour[k] * n + tour[(k + 1) % n];
+            meters[cell] = (float) entry.legMeters()[k];
+            seconds[cell] = (float) entry.legSeconds()[k];
+        }
+        return new OptimizationResult(allPlaces, tour, DistanceMatrix.of(ids, meters, seconds),
+                "cached:" + entry.solverName());
+    }
+
+    private boolean isExpired(Entry entry) {
+        return ttlMs > 0 && System.currentTimeMillis() - entry.createdAtMillis() > ttlMs;
+    }
+
+    private void putInMemory(String key, Entry entry) {
+        synchronized (memoryCache) {
+            memoryCache.put(key, entry);
+        }
+    }
+
+    private Entry load(String key) {
+        try {
+            CachedRoute stored = cachedRouteRepository.findByKeyHash(hash(key)).orElse(null);
+            if (stored == null) {
+                return null;
+            }
+            long createdAt = stored.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            Entry entry = new Entry(
+                    objectMapper.readValue(stored.getRouteIds(), long[].class),
+                    objectMapper.readValue(stored.getLegMeters(), double[].class),
+                    objectMapper.readValue(stored.getLegSeconds(), double[].class),
+                    stored.getSolverName(), createdAt);
+            if (isExpired(entry)) {
+                cachedRouteRepository.deleteByKeyHash(stored.getKeyHash());
+                return null;
+            }
+            return entry;
+        } catch (Exception e) {
+            System.err.println("Failed to load cached route: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void store(String key, Entry entry) {
+        try {
+            String keyHash = hash(key);
+            StringBuilder members = new StringBuilder(",");
+            for (long id : entry.routeIds()) {
+                members.append(id).append(',');
+            }
+            CachedRoute route = cachedRouteRepository.findByKeyHash(keyHash).orElseGet(CachedRoute::new);
+            route.setKeyHash(keyHash);
+            route.setMemberIds(members.toString());
+            route.setRouteIds(objectMapper.writeValueAsString(entry.routeIds()));
+            route.setLegMeters(objectMapper.writeValueAsString(entry.legMeters()));
+            route.setLegSeconds(objectMapper.writeValueAsString(entry.legSeconds()));
+            route.setSolverName(entry.solverName());
+            route.setCreatedAt(LocalDateTime.now());
+            cachedRouteRepository.save(route);
+        } catch (Exception e) {
+            System.err.println("Failed to persist cached route: " + e.getMessage());
+        }
+    }
+
+    private static String hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,79 +1,152 @@
 package com.example.auth.service;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
+/**
+ * Simulated annealing over closed tours with the starting place fixed at index 0.
+ *
+ * Each step draws a swap, 2-opt reversal or or-opt segment move, prices it from the edges it
+ * touches, and only rearranges the tour if the move is accepted. Nothing is allocated inside
+ * the annealing loop. Deltas are O(1), except 2-opt on an asymmetric matrix, where the reversed
+ * segment's edges change direction and are summed in O(segment length).
+ */
 public class SimulatedAnnealingTSP {
-    private final double[][] distanceMatrix;
+    private final DistanceMatrix distanceMatrix;
     private double initialTemperature;
     private double coolingRate;
     private int iterationsPerTemperature;
-    private final Random random;
+    private final SplittableRandom random;
+    private final boolean symmetric;
 
-    public SimulatedAnnealingTSP(double[][] distanceMatrix, double initialTemperature, double coolingRate, int iterationsPerTemperature) {
+    public SimulatedAnnealingTSP(DistanceMatrix distanceMatrix, double initialTemperature, double coolingRate, int iterationsPerTemperature) {
+        this(distanceMatrix, initialTemperature, coolingRate, iterationsPerTemperature, new SplittableRandom());
+    }
+
+    // Seeded variant, for reproducible runs.
+    public SimulatedAnnealingTSP(DistanceMatrix distanceMatrix, double initialTemperature, double coolingRate, int iterationsPerTemperature, long seed) {
+        this(distanceMatrix, initialTemperature, coolingRate, iterationsPerTemperature, new SplittableRandom(seed));
+    }
+
+    private SimulatedAnnealingTSP(DistanceMatrix distanceMatrix, double initialTemperature, double coolingRate, int iterationsPerTemperature, SplittableRandom random) {
         this.distanceMatrix = distanceMatrix;
         this.initialTemperature = initialTemperature;
         this.coolingRate = coolingRate;
         this.iterationsPerTemperature = iterationsPerTemperature;
-        this.random = new Random();
+        this.random = random;
+        this.symmetric = distanceMatrix.isSymmetric();
     }
 
     // Helper method to calculate the total distance for a route (including the return to the starting point).
     public double routeDistance(int[] route) {
         double total = 0.0;
         for (int i = 0; i < route.length - 1; i++) {
-            total += distanceMatrix[route[i]][route[i + 1]];
+            total += distanceMatrix.distance(route[i], route[i + 1]);
         }
         // Add the distance from the last city back to the starting point (A)
-        total += distanceMatrix[route[route.length - 1]][route[0]];
+        total += distanceMatrix.distance(route[route.length - 1], route[0]);
         return total;
     }
 
-    // Swap two cities (excluding the fixed starting point at index 0)
-    private int[] swap(int[] route, int i, int j) {
-        int[] newRoute = route.clone();
-        int temp = newRoute[i];
-        newRoute[i] = newRoute[j];
-        newRoute[j] = temp;
-        return newRoute;
+    // Run SA using a given initial solution.
+    public int[] run(int[] initialSolution) {
+        return run(initialSolution, SolverBudget.unlimited());
     }
 
-    // New method: Run SA using a given initial solution.
-    public int[] run(int[] initialSolution) {
-        int n = distanceMatrix.length;
-        int[] currentSolution = initialSolution.clone();
-        double currentDistance = routeDistance(currentSolution);
-        int[] bestSolution = currentSolution.clone();
+    // As above, returning the best tour so far once the budget is exhausted.
+    public int[] run(int[] initialSolution, SolverBudget budget) {
+        int n = distanceMatrix.size();
+        int[] route = initialSolution.clone();
+        int[] bestSolution = route.clone();
+        if (n < 3) {
+            return bestSolution;
+        }
+        double currentDistance = routeDistance(route);
         double bestDistance = currentDistance;
+        double offeredDistance = Double.POSITIVE_INFINITY;
         double temperature = initialTemperature;
+        int movable = n - 1;
+        int maxSegment = Math.min(3, movable - 1);
 
         // Continue until the temperature is very low.
-        while (temperature > 1e-4) {
-            for (int i = 0; i < iterationsPerTemperature; i++) {
-                // Generate a neighboring solution by swapping two random positions (except index 0).
-                int pos1 = 1 + random.nextInt(n - 1);
-                int pos2 = 1 + random.nextInt(n - 1);
-                int[] newSolution = swap(currentSolution, pos1, pos2);
-                double newDistance = routeDistance(newSolution);
-                double delta = newDistance - currentDistance;
-                // Accept new solution if it's better, or with a probability if worse.
-                if (delta < 0 || Math.exp(-delta / temperature) > random.nextDouble()) {
-                    currentSolution = newSolution;
-                    currentDistance = newDistance;
-                    if (currentDistance < bestDistance) {
-                        bestSolution = currentSolution.clone();
-                        bestDistance = currentDistance;
+        while (temperature > 1e-4 && !budget.isExhausted()) {
+            for (int iter = 0; iter < iterationsPerTemperature; iter++) {
+                int kind = random.nextInt(4);
+                double delta;
+                int i;
+                int j;
+                if (kind < 2) {
+                    // 2-opt: reverse positions i..j.
+                    i = 1 + random.nextInt(movable);
+                    j = 1 + random.nextInt(movable);
+                    if (i == j) {
+                        continue;
+                    }
+                    if (i > j) {
+                        int t = i;
+                        i = j;
+                        j = t;
+                    }
+                    delta = reversalDelta(route, i, j);
+                    if (!accept(delta, temperature)) {
+                        continue;
                     }
+                    reverse(route, i, j);
+                } else if (kind == 2) {
+                    // Swap the places at positions i and j.
+                    i = 1 + random.nextInt(movable);
+                    j = 1 + random.nextInt(movable);
+                    if (i == j) {
+                        continue;
+                    }
+                    if (i > j) {
+                        int t = i;
+                        i = j;
+                        j = t;
+                    }
+                    delta = swapDelta(route, i, j);
+                    if (!accept(delta, temperature)) {
+                        continue;
+                    }
+                    int t = route[i];
+                    route[i] = route[j];
+                    route[j] = t;
+                } else {
+                    // Or-opt: move the segment of length j starting at i to just after position p.
+                    j = 1 + random.nextInt(maxSegment);
+                    i = 1 + random.nextInt(movable - j + 1);
+                    int p = random.nextInt(n - j - 1);
+                    if (p >= i - 1) {
+                        p += j + 1; // skip the positions that would leave the tour unchanged
+                    }
+                    delta = orOptDelta(route, i, j, p);
+                    if (!accept(delta, temperature)) {
+                        continue;
+                    }
+                    moveSegment(route, i, j, p);
+                }
+
+                currentDistance += delta;
+                if (currentDistance < bestDistance) {
+                    System.arraycopy(route, 0, bestSolution, 0, n);
+                    bestDistance = currentDistance;
                 }
             }
+            budget.addEvaluations(iterationsPerTemperature);
+            if (bestDistance < offeredDistance) {
+                budget.offerIncumbent(distanceMatrix, bestSolution, bestDistance, -1, temperature);
+                offeredDistance = bestDistance;
+            }
             // Decrease the temperature.
             temperature *= coolingRate;
         }
+        // Settle the best tour into a 2-opt / Or-opt local optimum.
+        new LocalSearchTSP(distanceMatrix).improve(bestSolution, budget);
         return bestSolution;
     }
 
-    // (Optional) You may retain the old run() method that creates its own initial solution.
+    // Run SA from a random initial solution.
     public int[] run() {
-        int n = distanceMatrix.length;
+        int n = distanceMatrix.size();
         int[] initialSolution = new int[n];
         for (int i = 0; i < n; i++) {
             initialSolution[i] = i;
@@ -86,4 +159,81 @@ public class SimulatedAnnealingTSP {
         }
         return run(initialSolution);
     }
+
+    // Accept improvements always, and worse moves with the Metropolis probability.
+    private boolean accept(double delta, double temperature) {
+        return delta < 0 || Math.exp(-delta / temperature) > random.nextDouble();
+    }
+
+    // Change in tour length from swapping positions i < j.
+    private double swapDelta(int[] route, int i, int j) {
+        DistanceMatrix d = distanceMatrix;
+        int a = route[i - 1];
+        int x = route[i];
+        int y = route[j];
+        int c = route[(j + 1) % route.length];
+        if (j == i + 1) {
+            return d.distance(a, y) + d.distance(y, x) + d.distance(x, c) - d.distance(a, x) - d.distance(x, y) - d.distance(y, c);
+        }
+        int b = route[i + 1];
+        int p = route[j - 1];
+        return d.distance(a, y) + d.distance(y, b) + d.distance(p, x) + d.distance(x, c) - d.distance(a, x) - d.distance(x, b) - d.distance(p, y) - d.distance(y, c);
+    }
+
+    // Change in tour length from reversing positions i < j.
+    private double reversalDelta(int[] route, int i, int j) {
+        DistanceMatrix d = distanceMatrix;
+        int a = route[i - 1];
+        int x = route[i];
+        int y = route[j];
+        int c = route[(j + 1) % route.length];
+        double delta = d.distance(a, y) + d.distance(x, c) - d.distance(a, x) - d.distance(y, c);
+        if (!symmetric) {
+            for (int k = i; k < j; k++) {
+                delta += d.distance(route[k + 1], route[k]) - d.distance(route[k], route[k + 1]);
+            }
+        }
+        return delta;
+    }
+
+    // Change in tour length from moving the segment [i, i + length) to just after position p.
+    private double orOptDelta(int[] route, int i, int length, int p) {
+        DistanceMatrix d = distanceMatrix;
+        int n = route.length;
+        int a = route[i - 1];
+        int first = route[i];
+        int last = route[i + length - 1];
+        int b = route[(i + length) % n];
+        int u = route[p];
+        int v = route[(p + 1) % n];
+        return d.distance(a, b) + d.distance(u, first) + d.distance(last, v) - d.distance(a, first) - d.distance(last, b) - d.distance(u, v);
+    }
+
+    // Moves the segment [i, i + length) to just after position p by rotating the span between them.
+    private void moveSegment(int[] route, int i, int length, int p) {
+        if (p > i) {
+            rotateLeft(route, i, p, length);
+        } else {
+            int from = p + 1;
+            int to = i + length - 1;
+            rotateLeft(route, from, to, to - from + 1 - length);
+        }
+    }
+
+    // Rotates route[from..to] left by k places using three in-place reversals.
+    private static void rotateLeft(int[] route, int from, int to, int k) {
+        reverse(route, from, from + k - 1);
+        reverse(route, from + k, to);
+        reverse(route, from, to);
+    }
+
+    private static void reverse(int[] route, int i, int j) {
+        while (i < j) {
+            int temp = route[i];
+            route[i] = route[j];
+            route[j] = temp;
+            i++;
+            j--;
+        }
+    }
 }
@@ -0,0 +1,160 @@
+package com.example.auth.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Limits on one optimization run: a wall-clock deadline, a maximum number of tour evaluations,
+ * a number of GA generations without improvement after which the search stops, and a cancel flag.
+ *
+ * Solvers poll {@link #isExhausted()} between generations or temperature steps and return their
+ * best tour so far once it is true. A budget is shared by all threads of a run;
+ * {@link #slice(double)} hands a phase part of the remaining time while sharing the evaluation
+ * count with its parent. Cancelling a budget stops all of its slices, while cancelling a slice
+ * leaves the parent and sibling slices running.
+ *
+ * Solvers also offer each new best tour through {@link #offerIncumbent}; a listener set on the
+ * budget receives those that beat every tour offered before under it or any of its slices.
+ */
+public class SolverBudget {
+
+    private static final long NO_LIMIT = Long.MAX_VALUE;
+
+    private final SolverBudget parent;
+    private final long deadlineNanos;
+    private final long maxEvaluations;
+    private final int maxStallGenerations;
+    private final AtomicLong evaluations;
+    private final AtomicBoolean cancelled;
+    private final Incumbents incumbents;
+
+    private SolverBudget(SolverBudget parent, long deadlineNanos, long maxEvaluations, int maxStallGenerations,
+                         AtomicLong evaluations, AtomicBoolean cancelled, Incumbents incumbents) {
+        this.parent = parent;
+        this.deadlineNanos = deadlineNanos;
+        this.maxEvaluations = maxEvaluations;
+        this.maxStallGenerations = maxStallGenerations;
+        this.evaluations = evaluations;
+        this.cancelled = cancelled;
+        this.incumbents = incumbents;
+    }
+
+    // Best tour offered so far by any solver thread of the run, and who wants to hear about better ones.
+    private static class Incumbents {
+        final long startNanos = System.nanoTime();
+        volatile Consumer<Incumbent> listener;
+        double bestLength = Double.POSITIVE_INFINITY;
+        long sequence;
+    }
+
+    // A budget that never runs out unless cancelled.
+    public static SolverBudget unlimited() {
+        return new SolverBudget(null, NO_LIMIT, NO_LIMIT, Integer.MAX_VALUE, new AtomicLong(), new AtomicBoolean(), new Incumbents());
+    }
+
+    /**
+     * Starts a budget now. Zero or negative values mean no limit for that dimension.
+     */
+    public static SolverBudget start(long timeLimitMs, long maxEvaluations, int maxStallGenerations) {
+        long deadline = timeLimitMs > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeLimitMs) : NO_LIMIT;
+        return new SolverBudget(null, deadline,
+                maxEvaluations > 0 ? maxEvaluations : NO_LIMIT,
+                maxStallGenerations > 0 ? maxStallGenerations : Integer.MAX_VALUE,
+                new AtomicLong(), new AtomicBoolean(), new Incumbents());
+    }
+
+    // Child budget ending after the given fraction of the remaining time.
+    public SolverBudget slice(double fraction) {
+        long deadline = deadlineNanos;
+        if (deadlineNanos != NO_LIMIT) {
+            long now = System.nanoTime();
+            deadline = now + (long) (Math.max(0, deadlineNanos - now) * fraction);
+        }
+        return new SolverBudget(this, deadline, maxEvaluations, maxStallGenerations, evaluations, new AtomicBoolean(), incumbents);
+    }
+
+    public boolean isExhausted() {
+        if (cancelled.get() || evaluations.get() >= maxEvaluations) {
+            return true;
+        }
+        if (deadlineNanos != NO_LIMIT && System.nanoTime() - deadlineNanos >= 0) {
+            return true;
+        }
+        return parent != null && parent.isExhausted();
+    }
+
+    // Solvers report evaluations in batches (per generation or temperature step) to keep contention low.
+    public void addEvaluations(long count) {
+        evaluations.addAndGet(count);
+    }
+
+    public long getEvaluations() {
+        return evaluations.get();
+    }
+
+    public int getMaxStallGenerations() {
+        return maxStallGenerations;
+    }
+
+    // Stops every solver using this budget (or a slice of it) at its next check.
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    // Receives every new best tour offered under this budget or its slices, on the solver's thread.
+    public void setIncumbentListener(Consumer<Incumbent> listener) {
+        incumbents.listener = listener;
+    }
+
+    /**
+     * Forgets the best length offered so far, so the next offer always reaches the listener.
+     * Call it when the run moves on to another matrix, e.g. from estimated to road distances,
+     * whose lengths cannot be compared with the earlier ones.
+     */
+    public void resetIncumbent() {
+        synchronized (incumbents) {
+            incumbents.bestLength = Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Reports a solver's best tour so far; it reaches the listener only if it is shorter than
+     * every tour offered before. Pass -1 and NaN for a generation or temperature that does not
+     * apply. Costs nothing when no listener is set.
+     *
+     * The listener runs on the solver's thread but outside any lock, so it must not block;
+     * offers from several threads may reach it out of order, which the sequence number of
+     * each incumbent resolves.
+     */
+    public void offerIncumbent(DistanceMatrix matrix, int[] tour, double length, int generation, double temperature) {
+        Consumer<Incumbent> listener = incumbents.listener;
+        if (listener == null) {
+            return;
+        }
+        // The filter and numbering are serialized; the listener is called after the lock is released.
+        Incumbent incumbent;
+        synchronized (incumbents) {
+            if (length >= incumbents.bestLength) {
+                return;
+            }
+            incumbents.bestLength = length;
+            List<Long> placeIds = new ArrayList<>(tour.length);
+            double totalTime = 0.0;
+            for (int k = 0; k < tour.length; k++) {
+                placeIds.add(matrix.getPlaceId(tour[k]));
+                totalTime += matrix.time(tour[k], tour[(k + 1) % tour.length]);
+            }
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - incumbents.startNanos);
+            incumbent = new Incumbent(++incumbents.sequence, placeIds, length, totalTime, generation, temperature, elapsedMs);
+        }
+        listener.accept(incumbent);
+    }
+}
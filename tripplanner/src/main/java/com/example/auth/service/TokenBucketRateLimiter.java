@@ -0,0 +1,74 @@
+package com.example.auth.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket used to keep outgoing provider calls under a queries-per-second quota.
+ *
+ * The bucket refills continuously at {@code permitsPerSecond} and holds at most
+ * {@code burst} tokens, so short bursts are allowed but the long-run rate never exceeds
+ * the quota. Callers block in {@link #tryAcquire(long, TimeUnit)} until a token is free.
+ */
+public class TokenBucketRateLimiter {
+
+    private final double permitsPerSecond;
+    private final double permitsPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.capacity = burst;
+        this.tokens = burst;
+        this.lastRefill = nanoTime();
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    /**
+     * Takes one token, waiting up to the given timeout for the bucket to refill.
+     * Returns false if no token became available in time.
+     */
+    public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (tokens >= 1.0) {
+                    tokens -= 1.0;
+                    return true;
+                }
+                waitNanos = (long) Math.ceil((1.0 - tokens) / permitsPerNano);
+            }
+            long remaining = deadline - nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            sleepNanos(Math.min(waitNanos, remaining));
+        }
+    }
+
+    // Adds the tokens accumulated since the last refill, capped at the bucket capacity.
+    private void refill() {
+        long now = nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+    }
+
+    // Clock and sleep, overridden by tests to run on simulated time.
+    long nanoTime() {
+        return System.nanoTime();
+    }
+
+    void sleepNanos(long nanos) throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(nanos);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.auth.service;
+
+import com.example.auth.model.Place;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Live TomTom road distances, served through the persistent distance cache.
+ */
+@Component
+public class TomTomDistanceProvider implements DistanceProvider {
+
+    @Autowired
+    private DistanceCacheService distanceCacheService;
+
+    @Override
+    public String getName() {
+        return "tomtom";
+    }
+
+    @Override
+    public TravelCost getTravelCost(Place origin, Place destination) {
+        return distanceCacheService.getTravelCost(origin, destination);
+    }
+
+    @Override
+    public TravelCost[][] getTravelCostMatrix(List<Place> places) {
+        return distanceCacheService.getTravelCostMatrix(places);
+    }
+
+    @Override
+    public TravelCost[][] getTravelCostMatrix(List<Place> origins, List<Place> destinations) {
+        return distanceCacheService.getTravelCostMatrix(origins, destinations);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.auth.service;
+
+import com.example.auth.model.Place;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client for TomTom's synchronous Matrix Routing v2 endpoint.
+ *
+ * All origin/destination pairs are sent in one POST. When the matrix is larger than the
+ * provider's per-request cell limit it is split into tiles of at most {@code maxCells}
+ * cells, one request per tile, and the tiles are fetched in parallel under the shared
+ * TomTom rate limit. Cells the provider could not route are left {@code null}
+ * so the caller can retry them individually.
+ */
+@Service
+public class TomTomMatrixClient {
+
+    private final String baseUrl;
+    private final String apiKey;
+    private final int maxCells;
+    private final long timeoutMs;
+    private final RestTemplate restTemplate;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final ExecutorService fetchExecutor;
+    private final ObjectMapper objectMapper;
+
+    public TomTomMatrixClient(@Value("${tomtom.api.base-url:https://api.tomtom.com}") String baseUrl,
+                              @Value("${tomtom.api.key}") String apiKey,
+                              @Value("${tomtom.matrix.max-cells:200}") int maxCells,
+                              @Value("${tomtom.api.timeout-ms:5000}") long timeoutMs,
+                              @Qualifier("tomTomRestTemplate") RestTemplate restTemplate,
+                              @Qualifier("tomTomRateLimiter") TokenBucketRateLimiter rateLimiter,
+                              @Qualifier("distanceFetchExecutor") ExecutorService fetchExecutor) {
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.maxCells = maxCells;
+        this.timeoutMs = timeoutMs;
+        this.restTemplate = restTemplate;
+        this.rateLimiter = rateLimiter;
+        this.fetchExecutor = fetchExecutor;
+        this.objectMapper = new ObjectMapper();
+    }
+
+    /**
+     * Returns a matrix of travel costs indexed [origin][destination]. A cell is {@code null}
+     * when its tile request failed or the provider reported an error for that pair.
+     */
+    public TravelCost[][] getMatrix(List<Place> origins, List<Place> destinations) {
+        TravelCost[][] result = new TravelCost[origins.size()][destinations.size()];
+        if (origins.isEmpty() || destinations.isEmpty()) {
+            return result;
+        }
+
+        // Keep as many destinations per tile as the cell limit allows, then fill with origins.
+        int destinationTile = Math.min(destinations.size(), maxCells);
+        int originTile = Math.max(1, maxCells / destinationTile);
+
+        // Each tile returns its own block; only the caller thread writes into the result.
+        List<Tile> tiles = new ArrayList<>();
+        for (int o = 0; o < origins.size(); o += originTile) {
+            int oStart = o;
+            int oEnd = Math.min(o + originTile, origins.size());
+            for (int d = 0; d < destinations.size(); d += destinationTile) {
+                int dStart = d;
+                int dEnd = Math.min(d + destinationTile, destinations.size());
+                tiles.add(new Tile(oStart, dStart, CompletableFuture.supplyAsync(() -> fetchTile(
+                        origins.subList(oStart, oEnd), destinations.subList(dStart, dEnd)), fetchExecutor)));
+            }
+        }
+        long deadlineMs = timeoutMs + (long) Math.ceil(tiles.size() * 1000.0 / rateLimiter.getPermitsPerSecond());
+        CompletableFuture<?>[] futures = tiles.stream().map(Tile::block).toArray(CompletableFuture<?>[]::new);
+        try {
+            CompletableFuture.allOf(futures).get(deadlineMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // Unfinished tiles stay null and are retried per pair by the caller.
+            System.err.println("Matrix tiles did not complete in time: " + e.getMessage());
+        }
+        // Tiles finishing after this point are ignored, so the returned matrix is never written to again.
+        for (Tile tile : tiles) {
+            TravelCost[][] block = tile.block().isDone() && !tile.block().isCompletedExceptionally()
+                    ? tile.block().getNow(null) : null;
+            if (block == null) {
+                continue;
+            }
+            for (int i = 0; i < block.length; i++) {
+                for (int j = 0; j < block[i].length; j++) {
+                    if (block[i][j] != null) {
+                        result[tile.originOffset() + i][tile.destinationOffset() + j] = block[i][j];
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    // One tile request and where its block goes in the full matrix.
+    private record Tile(int originOffset, int destinationOffset, CompletableFuture<TravelCost[][]> block) {
+    }
+
+    // Requests one tile; cells that could not be routed, or the whole block on failure, stay null.
+    private TravelCost[][] fetchTile(List<Place> origins, List<Place> destinations) {
+        TravelCost[][] block = new TravelCost[origins.size()][destinations.size()];
+        try {
+            if (!rateLimiter.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                System.err.println("Skipped TomTom matrix tile: rate limit wait exceeded " + timeoutMs + " ms");
+                return block;
+            }
+            ObjectNode body = objectMapper.createObjectNode();
+            body.set("origins", toPoints(origins));
+            body.set("destinations", toPoints(destinations));
+            ObjectNode options = body.putObject("options");
+            options.put("routeType", "fastest");
+            options.put("travelMode", "car");
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            String url = baseUrl + "/routing/matrix/2?key=" + apiKey;
+            String jsonResponse = restTemplate.postForObject(url,
+                    new HttpEntity<>(objectMapper.writeValueAsString(body), headers), String.class);
+
+            JsonNode dataNode = objectMapper.readTree(jsonResponse).path("data");
+            for (JsonNode cell : dataNode) {
+                JsonNode summaryNode = cell.path("routeSummary");
+                if (!summaryNode.has("lengthInMeters")) {
+                    continue; // detailedError: left null for the per-pair fallback
+                }
+                int i = cell.path("originIndex").asInt(-1);
+                int j = cell.path("destinationIndex").asInt(-1);
+                if (i < 0 || i >= origins.size() || j < 0 || j >= destinations.size()) {
+                    continue;
+                }
+                block[i][j] = new TravelCost(
+                        summaryNode.path("lengthInMeters").asDouble(),
+                        summaryNode.path("travelTimeInSeconds").asDouble());
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to get matrix tile from TomTom API ("
+                    + origins.size() + "x" + destinations.size() + "): " + e.getMessage());
+        }
+        return block;
+    }
+
+    private ArrayNode toPoints(List<Place> places) {
+        ArrayNode array = objectMapper.createArrayNode();
+        for (Place place : places) {
+            ObjectNode point = array.addObject().putObject("point");
+            point.put("latitude", place.getLatitude());
+            point.put("longitude", place.getLongitude());
+        }
+        return array;
+    }
+}
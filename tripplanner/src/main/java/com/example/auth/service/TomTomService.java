@@ -3,12 +3,19 @@ package com.example.auth.service;
 import com.example.auth.model.Place;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.HttpClientErrorException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class TomTomService {
@@ -16,11 +23,26 @@ public class TomTomService {
     @Value("${tomtom.api.key}")
     private String tomTomApiKey;
 
+    @Value("${tomtom.api.base-url:https://api.tomtom.com}")
+    private String tomTomBaseUrl;
+
+    @Value("${tomtom.api.timeout-ms:5000}")
+    private long timeoutMs;
+
+    @Autowired
+    private TomTomMatrixClient matrixClient;
+
     private final RestTemplate restTemplate;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final ExecutorService fetchExecutor;
     private final ObjectMapper objectMapper;
 
-    public TomTomService() {
-        this.restTemplate = new RestTemplate();
+    public TomTomService(@Qualifier("tomTomRestTemplate") RestTemplate restTemplate,
+                         @Qualifier("tomTomRateLimiter") TokenBucketRateLimiter rateLimiter,
+                         @Qualifier("distanceFetchExecutor") ExecutorService fetchExecutor) {
+        this.restTemplate = restTemplate;
+        this.rateLimiter = rateLimiter;
+        this.fetchExecutor = fetchExecutor;
         this.objectMapper = new ObjectMapper();
     }
 
@@ -30,13 +52,25 @@ public class TomTomService {
      * returns a high penalty distance.
      */
     public double getRouteDistance(Place origin, Place destination) {
-        try {
+        return getTravelCost(origin, destination).getDistance();
+    }
 
+    /**
+     * Calls TomTom's calculateRoute endpoint and returns both the route length (meters)
+     * and the travel time (seconds). Returns {@link TravelCost#UNREACHABLE} on any failure.
+     */
+    public TravelCost getTravelCost(Place origin, Place destination) {
+        try {
+            // Wait for our share of the QPS quota rather than getting throttled by TomTom.
+            if (!rateLimiter.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                System.err.println("Skipped TomTom route call: rate limit wait exceeded " + timeoutMs + " ms");
+                return TravelCost.UNREACHABLE;
+            }
 
             // Build the URL using the origin and destination coordinates.
             String url = String.format(Locale.US,
-                    "https://api.tomtom.com/routing/1/calculateRoute/%.6f,%.6f:%.6f,%.6f/json?key=%s",
-                    origin.getLatitude(), origin.getLongitude(),
+                    "%s/routing/1/calculateRoute/%.6f,%.6f:%.6f,%.6f/json?key=%s",
+                    tomTomBaseUrl, origin.getLatitude(), origin.getLongitude(),
                     destination.getLatitude(), destination.getLongitude(),
                     tomTomApiKey);
 
@@ -49,7 +83,8 @@ public class TomTomService {
             if (routesNode.isArray() && routesNode.size() > 0) {
                 JsonNode summaryNode = routesNode.get(0).path("summary");
                 if (summaryNode.has("lengthInMeters")) {
-                    return summaryNode.path("lengthInMeters").asDouble();
+                    return new TravelCost(summaryNode.path("lengthInMeters").asDouble(),
+                            summaryNode.path("travelTimeInSeconds").asDouble());
                 } else {
                     throw new RuntimeException("TomTom response is missing 'lengthInMeters' in summary.");
                 }
@@ -60,29 +95,90 @@ public class TomTomService {
             String errorBody = e.getResponseBodyAsString();
             System.err.println("Failed to get route distance from TomTom API: "
                     + e.getStatusCode() + " " + errorBody);
-            return Double.MAX_VALUE;
+            return TravelCost.UNREACHABLE;
         } catch (Exception e) {
             System.err.println("Failed to get route distance from TomTom API: " + e.getMessage());
-            return Double.MAX_VALUE;
+            return TravelCost.UNREACHABLE;
+        }
+    }
+
+    /**
+     * Builds a travel cost matrix indexed [origin][destination] with batched Matrix Routing
+     * requests. Only cells the matrix endpoint failed to route are retried with single
+     * calculateRoute calls; cells that still fail are {@link TravelCost#UNREACHABLE}.
+     */
+    public TravelCost[][] getTravelCostMatrix(List<Place> origins, List<Place> destinations) {
+        TravelCost[][] matrix = matrixClient.getMatrix(origins, destinations);
+
+        // Dispatch the per-pair fallbacks concurrently; the rate limiter keeps them within quota.
+        List<PendingCell> pending = new ArrayList<>();
+        for (int i = 0; i < origins.size(); i++) {
+            for (int j = 0; j < destinations.size(); j++) {
+                if (origins.get(i).getId() != null
+                        && origins.get(i).getId().equals(destinations.get(j).getId())) {
+                    matrix[i][j] = TravelCost.ZERO;
+                } else if (matrix[i][j] == null) {
+                    Place origin = origins.get(i);
+                    Place destination = destinations.get(j);
+                    pending.add(new PendingCell(i, j, CompletableFuture.supplyAsync(
+                            () -> getTravelCost(origin, destination), fetchExecutor)));
+                }
+            }
+        }
+        awaitAll(pending);
+
+        // Only this thread writes the matrix: cells whose fallback finished in time, the rest unreachable.
+        for (PendingCell cell : pending) {
+            CompletableFuture<TravelCost> cost = cell.cost();
+            if (cost.isDone() && !cost.isCompletedExceptionally()) {
+                matrix[cell.row()][cell.column()] = cost.getNow(null);
+            }
+        }
+        for (TravelCost[] row : matrix) {
+            for (int j = 0; j < row.length; j++) {
+                if (row[j] == null) {
+                    row[j] = TravelCost.UNREACHABLE;
+                }
+            }
+        }
+        return matrix;
+    }
+
+    // One per-pair fallback call and the cell it fills.
+    private record PendingCell(int row, int column, CompletableFuture<TravelCost> cost) {
+    }
+
+    // Waits for all fetches under one overall deadline; late cells stay null and count as unreachable.
+    private void awaitAll(List<PendingCell> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        // One call timeout plus the time the quota needs to let every call through.
+        long deadlineMs = timeoutMs + (long) Math.ceil(pending.size() * 1000.0 / rateLimiter.getPermitsPerSecond());
+        CompletableFuture<?>[] futures = pending.stream().map(PendingCell::cost).toArray(CompletableFuture<?>[]::new);
+        try {
+            CompletableFuture.allOf(futures).get(deadlineMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            System.err.println("Distance fetch did not complete in time: " + e.getMessage());
+            // Calls still queued on the executor are skipped and use no rate-limit permits;
+            // calls already in flight finish, but their results are ignored.
+            for (CompletableFuture<?> future : futures) {
+                future.cancel(false);
+            }
         }
     }
 
     /**
      * Builds a distance matrix for the given list of places.
      */
-    public double[][] getDistanceMatrix(java.util.List<Place> places) {
+    public double[][] getDistanceMatrix(List<Place> places) {
         int n = places.size();
         double[][] matrix = new double[n][n];
+        TravelCost[][] costs = getTravelCostMatrix(places, places);
 
         for (int i = 0; i < n; i++) {
-            Place p1 = places.get(i);
             for (int j = 0; j < n; j++) {
-                if (i == j) {
-                    matrix[i][j] = 0.0;
-                } else {
-                    Place p2 = places.get(j);
-                    matrix[i][j] = getRouteDistance(p1, p2);
-                }
+                matrix[i][j] = (i == j) ? 0.0 : costs[i][j].getDistance();
             }
         }
         return matrix;
@@ -0,0 +1,43 @@
+package com.example.auth.service;
+
+/**
+ * Small helpers shared by the route solvers. Tours are matrix indices starting at the fixed
+ * starting place (index 0) and are closed implicitly.
+ */
+public final class TourUtils {
+
+    private TourUtils() {
+    }
+
+    // Closed tour length, including the leg back to the starting place.
+    public static double tourLength(int[] tour, DistanceMatrix distanceMatrix) {
+        double total = 0.0;
+        for (int i = 0; i < tour.length; i++) {
+            total += distanceMatrix.distance(tour[i], tour[(i + 1) % tour.length]);
+        }
+        return total;
+    }
+
+    // Greedy tour from the starting place (index 0), always moving to the closest unvisited place.
+    public static int[] nearestNeighbourTour(DistanceMatrix distanceMatrix) {
+        int n = distanceMatrix.size();
+        int[] tour = new int[n];
+        if (n == 0) {
+            return tour;
+        }
+        boolean[] visited = new boolean[n];
+        visited[0] = true;
+        for (int k = 1; k < n; k++) {
+            int from = tour[k - 1];
+            int next = -1;
+            for (int j = 0; j < n; j++) {
+                if (!visited[j] && (next < 0 || distanceMatrix.distance(from, j) < distanceMatrix.distance(from, next))) {
+                    next = j;
+                }
+            }
+            tour[k] = next;
+            visited[next] = true;
+        }
+        return tour;
+    }
+}
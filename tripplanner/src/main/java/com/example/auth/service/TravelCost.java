@@ -0,0 +1,29 @@
+package com.example.auth.service;
+
+/**
+ * Distance (meters) and travel time (seconds) of a single directed leg between two places.
+ */
+public class TravelCost {
+    public static final TravelCost UNREACHABLE = new TravelCost(Double.MAX_VALUE, Double.MAX_VALUE);
+    public static final TravelCost ZERO = new TravelCost(0.0, 0.0);
+
+    private final double distance;     // Distance in meters
+    private final double travelTime;   // Time in seconds
+
+    public TravelCost(double distance, double travelTime) {
+        this.distance = distance;
+        this.travelTime = travelTime;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public double getTravelTime() {
+        return travelTime;
+    }
+
+    public boolean isReachable() {
+        return distance != Double.MAX_VALUE;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.auth.service;
+
+import com.example.auth.model.Place;
+import com.example.auth.model.Trip;
+import com.example.auth.model.TripDay;
+import com.example.auth.repository.PlaceRepository;
+import com.example.auth.repository.TripDayRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Optimizes trip days and saves the outcome on their {@link TripDay}s; shared by the
+ * synchronous optimize endpoints and background optimization jobs.
+ */
+@Service
+public class TripDayOptimizationService {
+
+    @Autowired
+    private TripDayRepository tripDayRepository;
+
+    @Autowired
+    private PlaceRepository placeRepository;
+
+    @Autowired
+    private RouteOptimizationService routeOptimizationService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // One day's part of a whole-trip request: its starting place and the places to visit.
+    public record DaySelection(int dayNumber, Long startingPlaceId, List<Long> placeIds) {
+    }
+
+    /**
+     * Optimizes the round trip from {@code startingPlace} over the selected places and stores the
+     * selection, route, totals and visiting order on the day. With {@code incremental}, small
+     * edits to an already optimized day are spliced into its stored tour, unless a solver or
+     * island count is requested. A null budget uses the configured limits.
+     */
+    public DayRoute optimizeDay(TripDay tripDay, Place startingPlace, List<Long> selectedPlaceIds, String solver,
+                                Integer islands, boolean incremental, SolverBudget budget) {
+        List<Place> places = placeRepository.findAllById(selectedPlaceIds);
+        OptimizationResult result;
+        if (incremental && solver == null && islands == null && tripDay.getOptimizedRouteIds() != null) {
+            List<Long> previousRoute = Arrays.asList(readIds(tripDay.getOptimizedRouteIds()));
+            result = routeOptimizationService.reoptimizeRoute(startingPlace, places, previousRoute, budget);
+        } else {
+            result = routeOptimizationService.optimizeRoute(startingPlace, places, solver, islands, budget);
+        }
+        DayRoute dayRoute = applyResult(tripDay, startingPlace, selectedPlaceIds, result);
+        tripDayRepository.save(tripDay);
+        return dayRoute;
+    }
+
+    /**
+     * Optimizes several days of a trip in one go: places are loaded with one query, one distance
+     * matrix covers every day, the days are solved concurrently, and all updated days are saved
+     * with a single {@code saveAll}, i.e. in one transaction. Returns the routes by day number,
+     * in request order. Throws IllegalArgumentException for an unknown or repeated day number
+     * or an unknown starting place.
+     */
+    public Map<Integer, DayRoute> optimizeTrip(Trip trip, List<DaySelection> selections, String solver,
+                                               SolverBudget budget) {
+        Map<Integer, TripDay> tripDays = new HashMap<>();
+        for (TripDay day : trip.getTripDays()) {
+            tripDays.put(day.getDayNumber(), day);
+        }
+        Set<Integer> seenDays = new LinkedHashSet<>();
+        Set<Long> placeIds = new LinkedHashSet<>();
+        for (DaySelection selection : selections) {
+            if (!tripDays.containsKey(selection.dayNumber())) {
+                throw new IllegalArgumentException("Invalid day number " + selection.dayNumber());
+            }
+            if (!seenDays.add(selection.dayNumber())) {
+                throw new IllegalArgumentException("Day " + selection.dayNumber() + " appears more than once");
+            }
+            placeIds.add(selection.startingPlaceId());
+            placeIds.addAll(selection.placeIds());
+        }
+
+        Map<Long, Place> placesById = new HashMap<>();
+        for (Place place : placeRepository.findAllById(placeIds)) {
+            placesById.put(place.getId(), place);
+        }
+        List<Place> startingPlaces = new ArrayList<>();
+        List<List<Place>> dayPlaces = new ArrayList<>();
+        for (DaySelection selection : selections) {
+            Place startingPlace = placesById.get(selection.startingPlaceId());
+            if (startingPlace == null) {
+                throw new IllegalArgumentException("Starting place not found: " + selection.startingPlaceId());
+            }
+            startingPlaces.add(startingPlace);
+            // Unknown place ids are skipped, as for a single day.
+            List<Place> places = new ArrayList<>();
+            for (Long id : selection.placeIds()) {
+                if (placesById.containsKey(id)) {
+                    places.add(placesById.get(id));
+                }
+            }
+            dayPlaces.add(places);
+        }
+
+        List<OptimizationResult> results = routeOptimizationService.optimizeRoutes(startingPlaces, dayPlaces, solver, budget);
+        Map<Integer, DayRoute> dayRoutes = new LinkedHashMap<>();
+        List<TripDay> updated = new ArrayList<>();
+        for (int d = 0; d < selections.size(); d++) {
+            DaySelection selection = selections.get(d);
+            TripDay tripDay = tripDays.get(selection.dayNumber());
+            dayRoutes.put(selection.dayNumber(),
+                    applyResult(tripDay, startingPlaces.get(d), selection.placeIds(), results.get(d)));
+            updated.add(tripDay);
+        }
+        tripDayRepository.saveAll(updated);
+        return dayRoutes;
+    }
+
+    /**
+     * Assigns the places to the trip's days and orders each day, all starting and ending at
+     * {@code hotelId}, by solving the days jointly (see {@link RouteOptimizationService#planDays}).
+     * Every day of the trip, i.e. {@code Trip.numberOfDays} of them, gets its selection and route
+     * rewritten; all are saved with a single {@code saveAll}. Returns the routes by day number.
+     */
+    public Map<Integer, DayRoute> planTrip(Trip trip, Long hotelId, List<Long> placeIds, SolverBudget budget) {
+        List<TripDay> tripDays = new ArrayList<>(trip.getTripDays());
+        if (tripDays.isEmpty()) {
+            throw new IllegalArgumentException("Trip has no days");
+        }
+        tripDays.sort(Comparator.comparingInt(TripDay::getDayNumber));
+        Place hotel = placeRepository.findById(hotelId)
+                .orElseThrow(() -> new IllegalArgumentException("Starting place not found: " + hotelId));
+        List<Place> places = placeRepository.findAllById(new LinkedHashSet<>(placeIds));
+
+        List<OptimizationResult> results = routeOptimizationService.planDays(hotel, places, tripDays.size(), budget);
+        Map<Integer, DayRoute> dayRoutes = new LinkedHashMap<>();
+        for (int d = 0; d < tripDays.size(); d++) {
+            OptimizationResult result = results.get(d);
+            List<Long> selected = new ArrayList<>();
+            for (Place p : result.getPlaces()) {
+                if (!p.getId().equals(hotel.getId())) {
+                    selected.add(p.getId());
+                }
+            }
+            dayRoutes.put(tripDays.get(d).getDayNumber(), applyResult(tripDays.get(d), hotel, selected, result));
+        }
+        tripDayRepository.saveAll(tripDays);
+        return dayRoutes;
+    }
+
+    // Writes the selection, route, visiting order and totals onto the day, without saving it.
+    private DayRoute applyResult(TripDay tripDay, Place startingPlace, List<Long> selectedPlaceIds,
+                                 OptimizationResult result) {
+        RouteDetails routeDetails = routeOptimizationService.getRouteDetails(result);
+        List<String> optimizedRouteNames = new ArrayList<>();
+        for (Place p : result.getRoute()) {
+            optimizedRouteNames.add(p.getName());
+        }
+        List<Long> optimizedRouteIds = new ArrayList<>();
+        for (int index : result.getTour()) {
+            optimizedRouteIds.add(result.getPlaces().get(index).getId());
+        }
+
+        try {
+            tripDay.setStartingPlace(startingPlace);
+            tripDay.setSelectedPlaces(objectMapper.writeValueAsString(selectedPlaceIds));
+            tripDay.setOptimizedRoute(objectMapper.writeValueAsString(optimizedRouteNames));
+            tripDay.setOptimizedRouteIds(objectMapper.writeValueAsString(optimizedRouteIds));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to store the day's route", e);
+        }
+        tripDay.setTotalDistance(routeDetails.getTotalDistance());
+        tripDay.setTotalTime(routeDetails.getTotalTime());
+        return new DayRoute(optimizedRouteNames, routeDetails, result.getSolverName());
+    }
+
+    private Long[] readIds(String json) {
+        try {
+            return objectMapper.readValue(json, Long[].class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to read the day's stored route", e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.auth.service;
+
+/**
+ * One round-trip problem handed to a {@link TspSolver}: the distance matrix (index 0 is the
+ * starting place) plus per-request solver hints.
+ */
+public class TspProblem {
+    private final DistanceMatrix distanceMatrix;
+    private final Integer islands;      // Requested GA island count, or null for the configured default
+    private final double[] latitudes;   // Per matrix index, or null when the places' coordinates are unknown
+    private final double[] longitudes;
+
+    public TspProblem(DistanceMatrix distanceMatrix, Integer islands, double[] latitudes, double[] longitudes) {
+        this.distanceMatrix = distanceMatrix;
+        this.islands = islands;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+    }
+
+    public TspProblem(DistanceMatrix distanceMatrix, Integer islands) {
+        this(distanceMatrix, islands, null, null);
+    }
+
+    public TspProblem(DistanceMatrix distanceMatrix) {
+        this(distanceMatrix, null);
+    }
+
+    public DistanceMatrix getDistanceMatrix() {
+        return distanceMatrix;
+    }
+
+    public int getSize() {
+        return distanceMatrix.size();
+    }
+
+    public Integer getIslands() {
+        return islands;
+    }
+
+    public boolean hasCoordinates() {
+        return latitudes != null && longitudes != null;
+    }
+
+    public double[] getLatitudes() {
+        return latitudes;
+    }
+
+    public double[] getLongitudes() {
+        return longitudes;
+    }
+}
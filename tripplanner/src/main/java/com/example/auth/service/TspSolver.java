@@ -0,0 +1,26 @@
+package com.example.auth.service;
+
+/**
+ * Strategy for solving a round trip over a distance matrix.
+ *
+ * Implementations are Spring beans; {@link TspSolverRegistry} picks one by its
+ * {@link #getName()}, either from the request or from the {@code solver.default} property.
+ */
+public interface TspSolver {
+
+    // Name used in configuration and requests, e.g. "ga-sa" or "exact".
+    String getName();
+
+    // Whether this solver can handle the problem at all (e.g. exact search only for small days).
+    default boolean supports(TspProblem problem) {
+        return true;
+    }
+
+    // True if solve() returns a provably optimal tour, so a portfolio can stop the other solvers.
+    default boolean isExact() {
+        return false;
+    }
+
+    // Tour as matrix indices starting at 0; returns the best tour so far once the budget runs out.
+    int[] solve(TspProblem problem, SolverBudget budget);
+}
@@ -0,0 +1,108 @@
+package com.example.auth.service;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Looks up route solvers by name.
+ *
+ * Besides the solver beans themselves, two names are resolved per problem: {@code auto} picks
+ * the exact solver when the day is small enough and {@code ga-sa} otherwise, and
+ * {@code portfolio} races the members listed in {@code solver.portfolio.members} that support
+ * the problem. {@code solver.default} is used when a request does not name a solver.
+ */
+@Service
+public class TspSolverRegistry {
+
+    static final String AUTO = "auto";
+    static final String PORTFOLIO = "portfolio";
+
+    private final Map<String, TspSolver> solvers = new LinkedHashMap<>();
+    private final String defaultName;
+    private final List<String> portfolioMembers;
+    private final ForkJoinPool solverPool;
+
+    public TspSolverRegistry(List<TspSolver> solverBeans,
+                             @Value("${solver.default:auto}") String defaultName,
+                             @Value("${solver.portfolio.members:exact,ga-sa,sa,local-search}") String portfolioMembers,
+                             @Qualifier("solverPool") ForkJoinPool solverPool) {
+        for (TspSolver solver : solverBeans) {
+            solvers.put(solver.getName(), solver);
+        }
+        this.portfolioMembers = new ArrayList<>();
+        for (String name : portfolioMembers.split(",")) {
+            if (!name.isBlank()) {
+                this.portfolioMembers.add(checkName(name.trim(), "solver.portfolio.members"));
+            }
+        }
+        if (!AUTO.equals(defaultName) && !PORTFOLIO.equals(defaultName)) {
+            checkName(defaultName, "solver.default");
+        }
+        this.defaultName = defaultName;
+        this.solverPool = solverPool;
+    }
+
+    private String checkName(String name, String property) {
+        if (!solvers.containsKey(name)) {
+            throw new IllegalStateException("Unknown " + property + " '" + name + "', expected one of " + getNames());
+        }
+        return name;
+    }
+
+    // Every name a request may use.
+    public Set<String> getNames() {
+        Set<String> names = new TreeSet<>(solvers.keySet());
+        names.addAll(Arrays.asList(AUTO, PORTFOLIO));
+        return names;
+    }
+
+    /**
+     * Resolves the solver for a problem; a null or blank name means {@code solver.default}.
+     */
+    public TspSolver get(String name, TspProblem problem) {
+        String resolved = name == null || name.isBlank() ? defaultName : name;
+        if (AUTO.equals(resolved)) {
+            TspSolver exact = solvers.get("exact");
+            return exact != null && exact.supports(problem) ? exact : solvers.get("ga-sa");
+        }
+        if (PORTFOLIO.equals(resolved)) {
+            List<TspSolver> members = new ArrayList<>();
+            for (String member : portfolioMembers) {
+                if (solvers.get(member).supports(problem)) {
+                    members.add(solvers.get(member));
+                }
+            }
+            return new PortfolioTspSolver(members, solverPool);
+        }
+        TspSolver solver = solvers.get(resolved);
+        if (solver == null) {
+            throw new IllegalArgumentException("Unknown solver '" + resolved + "', expected one of " + getNames());
+        }
+        if (!solver.supports(problem)) {
+            throw new IllegalArgumentException("Solver '" + resolved + "' cannot handle " + problem.getSize() + " places");
+        }
+        return solver;
+    }
+
+    // For many small problems at once: the exact solver when it handles the problem, else local search.
+    public TspSolver getFast(TspProblem problem) {
+        TspSolver exact = solvers.get("exact");
+        return exact != null && exact.supports(problem) ? exact : solvers.get("local-search");
+    }
+
+    // Whether the named solver (null = default) would solve a day of this many places exactly.
+    public boolean isExact(String name, int places) {
+        // Resolution only looks at the problem size, so an all-zero matrix of the right size will do.
+        return get(name, new TspProblem(DistanceMatrix.fromMeters(new double[places][places]))).isExact();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.auth.service;
+
+import com.example.auth.model.City;
+import com.example.auth.model.Place;
+import com.example.auth.repository.CityRepository;
+import com.example.auth.repository.PlaceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CityMatrixSnapshotServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final TestFixtures.CountingProvider provider = new TestFixtures.CountingProvider();
+    private final City city = new City();
+    private final List<Place> places = new ArrayList<>();
+    private final List<CityMatrixSnapshotService> services = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        city.setId(3L);
+        for (long id = 1; id <= 6; id++) {
+            places.add(place(id, 48.85 + 0.01 * id, 2.30 + 0.005 * id));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        services.forEach(CityMatrixSnapshotService::shutdown);
+    }
+
+    @Test
+    void rebuildFetchesOnlyNewAndMovedPlacesAfterARestart() {
+        CityMatrixSnapshotService first = newService();
+        rebuild(first);
+        // Rows of all six places; no columns are left to fetch.
+        assertEquals(6 * 5, provider.legs.get());
+        assertNotNull(first.slice(places));
+
+        // While the service is down, place 3 moves and place 7 is added.
+        places.get(2).setLatitude(48.95);
+        places.add(place(7L, 48.80, 2.40));
+        CityMatrixSnapshotService restarted = newService();
+        restarted.loadSnapshots();
+        // The moved place no longer matches its snapshot coordinates, so it is not served from it.
+        assertNull(restarted.slice(places.subList(0, 4)));
+        assertNotNull(restarted.slice(places.subList(3, 6)));
+
+        provider.legs.set(0);
+        rebuild(restarted);
+        // Rows of the two stale places over all seven, columns from the five kept ones; no cell twice.
+        assertEquals(2 * 6 + 5 * 2, provider.legs.get());
+
+        DistanceMatrix matrix = restarted.slice(places);
+        assertNotNull(matrix);
+        for (int i = 0; i < places.size(); i++) {
+            for (int j = 0; j < places.size(); j++) {
+                if (i != j) {
+                    assertEquals(provider.getTravelCost(places.get(i), places.get(j)).getDistance(),
+                            matrix.distance(i, j), 1e-2);
+                }
+            }
+        }
+    }
+
+    private CityMatrixSnapshotService newService() {
+        CityMatrixSnapshotService service = new CityMatrixSnapshotService();
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "snapshotDir", tempDir.toString());
+        ReflectionTestUtils.setField(service, "distanceProviders",
+                new DistanceProviderRegistry(List.of(provider), "counting", ""));
+        ReflectionTestUtils.setField(service, "cityRepository", repository(CityRepository.class));
+        ReflectionTestUtils.setField(service, "placeRepository", repository(PlaceRepository.class));
+        services.add(service);
+        return service;
+    }
+
+    private void rebuild(CityMatrixSnapshotService service) {
+        ReflectionTestUtils.invokeMethod(service, "rebuildCity", city.getId());
+    }
+
+    // In-memory stand-in answering just the two lookups the rebuild makes.
+    private <T> T repository(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "findById":
+                    return city.getId().equals(args[0]) ? Optional.of(city) : Optional.empty();
+                case "findByCity":
+                    return new ArrayList<>(places);
+                case "toString":
+                    return type.getSimpleName();
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        }));
+    }
+
+    private Place place(long id, double latitude, double longitude) {
+        Place place = new Place();
+        place.setId(id);
+        place.setName("P" + id);
+        place.setCity(city);
+        place.setLatitude(latitude);
+        place.setLongitude(longitude);
+        return place;
+    }
+}
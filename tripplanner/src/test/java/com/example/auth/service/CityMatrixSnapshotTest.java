@@ -0,0 +1,50 @@
+package com.example.auth.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CityMatrixSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writtenSnapshotMapsBackCellForCell() throws Exception {
+        long[] ids = {42L, 7L, 19L};
+        float[] meters = {0f, 120f, 300f, 125f, 0f, Float.NaN, 310f, 95f, 0f};
+        float[] seconds = {0f, 12f, 30f, 13f, 0f, Float.NaN, 31f, 9f, 0f};
+        Path file = tempDir.resolve("city-5.bin");
+        double[] latitudes = {48.85, 48.86, 48.87};
+        double[] longitudes = {2.35, 2.29, 2.33};
+        CityMatrixSnapshot.write(file, 5L, ids, latitudes, longitudes, meters, seconds);
+
+        CityMatrixSnapshot snapshot = CityMatrixSnapshot.open(file);
+        assertEquals(5L, snapshot.getCityId());
+        assertEquals(3, snapshot.size());
+        assertEquals(1, snapshot.indexOf(7L));
+        assertEquals(-1, snapshot.indexOf(8L));
+        assertEquals(300f, snapshot.meters(0, 2));
+        assertEquals(9f, snapshot.seconds(2, 1));
+        assertTrue(Float.isNaN(snapshot.meters(1, 2)));
+        assertEquals(48.86, snapshot.latitude(1));
+        assertEquals(2.33, snapshot.longitude(2));
+        assertFalse(Files.exists(tempDir.resolve("city-5.bin.tmp")));
+    }
+
+    @Test
+    void truncatedFileIsRejected() throws Exception {
+        Path file = tempDir.resolve("city-1.bin");
+        CityMatrixSnapshot.write(file, 1L, new long[]{1L, 2L}, new double[2], new double[2], new float[4], new float[4]);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 4));
+
+        assertThrows(IOException.class, () -> CityMatrixSnapshot.open(file));
+    }
+}
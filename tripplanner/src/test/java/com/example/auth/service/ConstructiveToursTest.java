@@ -0,0 +1,146 @@
+package com.example.auth.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import static com.example.auth.service.TestFixtures.assertValidTour;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConstructiveToursTest {
+
+    @Test
+    void everyBuilderReturnsAPermutationStartingAtTheFixedStart() {
+        Random random = new Random(4);
+        for (int n = 1; n <= 40; n++) {
+            double[][] meters = new double[n][n];
+            double[] latitudes = new double[n];
+            double[] longitudes = new double[n];
+            for (int i = 0; i < n; i++) {
+                latitudes[i] = 48 + random.nextDouble();
+                longitudes[i] = 2 + random.nextDouble();
+                for (int j = 0; j < n; j++) {
+                    meters[i][j] = i == j ? 0.0 : 100 + random.nextInt(5000);
+                }
+            }
+            DistanceMatrix matrix = DistanceMatrix.fromMeters(meters);
+
+            assertValidTour(ConstructiveTours.nearestNeighbour(matrix, n / 2), n);
+            assertValidTour(ConstructiveTours.greedyEdge(matrix), n);
+            assertValidTour(ConstructiveTours.cheapestInsertion(matrix), n);
+            assertValidTour(ConstructiveTours.farthestInsertion(matrix), n);
+            assertValidTour(ConstructiveTours.hilbertCurve(latitudes, longitudes), n);
+            TspProblem problem = new TspProblem(matrix, null, latitudes, longitudes);
+            List<int[]> seeds = ConstructiveTours.seedTours(problem, 8, new SplittableRandom(n));
+            assertTrue(seeds.size() <= 8);
+            for (int[] seed : seeds) {
+                assertValidTour(seed, n);
+            }
+        }
+    }
+
+    @Test
+    void distanceBasedBuildersFindTheHullOrderOnACircle() {
+        int n = 60;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        Random random = new Random(9);
+        for (int i = 0; i < n; i++) {
+            double angle = 2 * Math.PI * random.nextDouble();
+            x[i] = 1000 * Math.cos(angle);
+            y[i] = 1000 * Math.sin(angle);
+        }
+        DistanceMatrix matrix = euclidean(x, y);
+        // On convex positions the angular order is the optimal tour.
+        double optimum = TourUtils.tourLength(angularOrder(x, y), matrix);
+
+        assertEquals(optimum, TourUtils.tourLength(ConstructiveTours.greedyEdge(matrix), matrix), 1e-3);
+        assertEquals(optimum, TourUtils.tourLength(ConstructiveTours.cheapestInsertion(matrix), matrix), 1e-3);
+        assertEquals(optimum, TourUtils.tourLength(ConstructiveTours.farthestInsertion(matrix), matrix), 1e-3);
+    }
+
+    @Test
+    void hilbertOrderWalksAGridCellByCell() {
+        int side = 16;
+        int n = side * side;
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = i % side;
+            y[i] = i / side;
+            longitudes[i] = 2 + 0.001 * x[i];
+            latitudes[i] = 48 + 0.001 * y[i];
+        }
+        int[] tour = ConstructiveTours.hilbertCurve(latitudes, longitudes);
+        assertValidTour(tour, n);
+        // Every step along the curve is to an adjacent cell, except the one wrapping around to the start.
+        assertTrue(TourUtils.tourLength(tour, euclidean(x, y)) <= n - 1 + side);
+    }
+
+    @Test
+    void seededPopulationConvergesInFewerGenerations() {
+        int n = 120;
+        Random random = new Random(11);
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = random.nextDouble() * 10000;
+            y[i] = random.nextDouble() * 10000;
+        }
+        DistanceMatrix matrix = euclidean(x, y);
+        TspProblem problem = new TspProblem(matrix, null, y, x);
+        List<int[]> seeds = ConstructiveTours.seedTours(problem, 10, new SplittableRandom(1));
+        double bestSeed = Double.POSITIVE_INFINITY;
+        for (int[] seed : seeds) {
+            bestSeed = Math.min(bestSeed, TourUtils.tourLength(seed, matrix));
+        }
+
+        // Compare the populations themselves, before the local search finish evens things out.
+        GeneticAlgorithmTSP seeded = new GeneticAlgorithmTSP(matrix, 50, 1000, 0.1, 2L);
+        seeded.setSeedTours(seeds);
+        GeneticAlgorithmTSP unseeded = new GeneticAlgorithmTSP(matrix, 50, 1000, 0.1, 2L);
+        seeded.initializePopulation();
+        unseeded.initializePopulation();
+        assertTrue(seeded.getBestFitness() <= bestSeed + 1e-6);
+        for (int gen = 0; gen < 1000; gen++) {
+            unseeded.evolve();
+        }
+        // A thousand random-start generations still fall short of the seeded first generation.
+        assertTrue(seeded.getBestFitness() < unseeded.getBestFitness());
+    }
+
+    private static DistanceMatrix euclidean(double[] x, double[] y) {
+        int n = x.length;
+        double[][] meters = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                meters[i][j] = Math.hypot(x[i] - x[j], y[i] - y[j]);
+            }
+        }
+        return DistanceMatrix.fromMeters(meters);
+    }
+
+    // Places sorted by angle around the origin, rotated to start at place 0.
+    private static int[] angularOrder(double[] x, double[] y) {
+        int n = x.length;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(Math.atan2(y[a], x[a]), Math.atan2(y[b], x[b])));
+        int offset = 0;
+        while (order[offset] != 0) {
+            offset++;
+        }
+        int[] tour = new int[n];
+        for (int k = 0; k < n; k++) {
+            tour[k] = order[(offset + k) % n];
+        }
+        return tour;
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.auth.service;
+
+import com.example.auth.model.Place;
+import com.example.auth.model.PlaceDistance;
+import com.example.auth.repository.PlaceDistanceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceCacheServiceTest {
+
+    private final List<Place> places = new ArrayList<>();
+    private final List<PlaceDistance> rows = new CopyOnWriteArrayList<>();
+    private final SlowTomTom tomTom = new SlowTomTom();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private DistanceCacheService service;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= 5; id++) {
+            Place place = new Place();
+            place.setId(id);
+            place.setName("P" + id);
+            place.setLatitude(48.85 + 0.01 * id);
+            place.setLongitude(2.30 + 0.005 * id);
+            places.add(place);
+        }
+        service = newService(100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tomTom.release.countDown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void overlappingRequestsShareOneProviderCallPerPair() throws Exception {
+        // The first matrix call holds its twelve pairs in flight until released.
+        Future<TravelCost[][]> first = callers.submit(() -> service.getTravelCostMatrix(places.subList(0, 4)));
+        assertTrue(tomTom.entered.await(5, TimeUnit.SECONDS));
+
+        // Places 2 and 3 to the others: six pairs and the single leg are the first call's, so they wait for it.
+        Future<TravelCost[][]> second = callers.submit(() -> service.getTravelCostMatrix(places.subList(1, 3), places));
+        Future<TravelCost> single = callers.submit(() -> service.getTravelCost(places.get(1), places.get(2)));
+        awaitCoalesced(7);
+        tomTom.release.countDown();
+
+        TravelCost[][] a = first.get(5, TimeUnit.SECONDS);
+        TravelCost[][] b = second.get(5, TimeUnit.SECONDS);
+        assertEquals(a[1][2].getDistance(), single.get(5, TimeUnit.SECONDS).getDistance(), 1e-9);
+        for (int i = 0; i < 2; i++) {
+            for (int j = 0; j < 4; j++) {
+                assertEquals(a[i + 1][j].getDistance(), b[i][j].getDistance(), 1e-9);
+            }
+            assertTrue(b[i][4].isReachable());
+        }
+        // Only the legs to place 5 were left for the second call; no pair was asked for twice.
+        assertEquals(4 * 3 + 2, tomTom.calls.size());
+        tomTom.calls.values().forEach(count -> assertEquals(1, count.get()));
+        assertEquals(7L, service.getStats().get("coalescedRequests"));
+        assertEquals(0L, service.getStats().get("inFlight"));
+    }
+
+    @Test
+    void failedFetchStillCompletesTheWaiters() throws Exception {
+        tomTom.failing = true;
+        Future<TravelCost[][]> first = callers.submit(() -> service.getTravelCostMatrix(places.subList(0, 3)));
+        assertTrue(tomTom.entered.await(5, TimeUnit.SECONDS));
+        Future<TravelCost> waiter = callers.submit(() -> service.getTravelCost(places.get(0), places.get(1)));
+        awaitCoalesced(1);
+        tomTom.release.countDown();
+
+        Exception failure = assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof IllegalStateException);
+        assertFalse(waiter.get(5, TimeUnit.SECONDS).isReachable());
+        assertEquals(0L, service.getStats().get("inFlight"));
+        assertTrue(rows.isEmpty());
+    }
+
+    @Test
+    void leastRecentlyUsedLegIsEvictedToTheDatabase() {
+        tomTom.release.countDown();
+        service = newService(2);
+        Place a = places.get(0);
+        service.getTravelCost(a, places.get(1));
+        service.getTravelCost(a, places.get(2));
+        // Touching a->b makes a->c the eldest, so a->d pushes it out of memory.
+        service.getTravelCost(a, places.get(1));
+        service.getTravelCost(a, places.get(3));
+        assertEquals(1L, service.getStats().get("memoryHits"));
+
+        service.getTravelCost(a, places.get(3));
+        assertEquals(2L, service.getStats().get("memoryHits"));
+        service.getTravelCost(a, places.get(2));
+        assertEquals(1L, service.getStats().get("databaseHits"));
+        assertEquals(3L, service.getStats().get("providerFetches"));
+    }
+
+    @Test
+    void storedLegsAreReadThroughFromTheDatabase() {
+        tomTom.release.countDown();
+        rows.add(row(1L, 2L, 1234.0, 321.0));
+        rows.add(row(2L, 3L, 999.0, 111.0));
+
+        TravelCost leg = service.getTravelCost(places.get(0), places.get(1));
+        assertEquals(1234.0, leg.getDistance());
+        assertEquals(321.0, leg.getTravelTime());
+        assertEquals(1L, service.getStats().get("databaseHits"));
+        // Now in memory as well.
+        service.getTravelCost(places.get(0), places.get(1));
+        assertEquals(1L, service.getStats().get("memoryHits"));
+        assertTrue(tomTom.calls.isEmpty());
+
+        // The matrix takes both stored legs from the database and fetches only the other four.
+        TravelCost[][] matrix = service.getTravelCostMatrix(places.subList(0, 3));
+        assertEquals(1234.0, matrix[0][1].getDistance());
+        assertEquals(999.0, matrix[1][2].getDistance());
+        assertEquals(4L, service.getStats().get("providerFetches"));
+        assertEquals(6, rows.size());
+    }
+
+    @Test
+    void unreachableLegsAreNeverStored() {
+        tomTom.release.countDown();
+        tomTom.unreachableTo = 2L;
+
+        assertFalse(service.getTravelCost(places.get(0), places.get(1)).isReachable());
+        TravelCost[][] matrix = service.getTravelCostMatrix(places.subList(0, 3));
+        assertFalse(matrix[2][1].isReachable());
+        assertTrue(matrix[1][2].isReachable());
+        // Only the four legs that do not end at place 2 were kept, in memory and in the database.
+        assertEquals(4, rows.size());
+        assertTrue(rows.stream().noneMatch(d -> d.getDestinationPlaceId().equals(2L)));
+
+        // Once the place can be reached, the provider is asked again rather than answered from a cache.
+        tomTom.unreachableTo = null;
+        long fetches = service.getStats().get("providerFetches");
+        assertTrue(service.getTravelCost(places.get(0), places.get(1)).isReachable());
+        assertEquals(fetches + 1, service.getStats().get("providerFetches"));
+    }
+
+    @Test
+    void invalidatedPlaceIsDroppedFromMemoryAndDatabase() {
+        tomTom.release.countDown();
+        service.getTravelCostMatrix(places.subList(0, 3));
+        assertEquals(6, rows.size());
+
+        service.invalidatePlace(2L);
+        // Only the legs between places 1 and 3 are left.
+        assertEquals(2, rows.size());
+        assertTrue(rows.stream().noneMatch(d -> d.getOriginPlaceId().equals(2L) || d.getDestinationPlaceId().equals(2L)));
+        service.getTravelCost(places.get(0), places.get(2));
+        assertEquals(1L, service.getStats().get("memoryHits"));
+        service.getTravelCost(places.get(0), places.get(1));
+        assertEquals(0L, service.getStats().get("databaseHits"));
+        assertEquals(2, tomTom.calls.get("1->2").get());
+    }
+
+    private DistanceCacheService newService(int memoryCacheSize) {
+        DistanceCacheService cache = new DistanceCacheService(memoryCacheSize);
+        ReflectionTestUtils.setField(cache, "tomTomService", tomTom);
+        ReflectionTestUtils.setField(cache, "placeDistanceRepository", repository());
+        return cache;
+    }
+
+    private static PlaceDistance row(Long originId, Long destinationId, double meters, double seconds) {
+        PlaceDistance row = new PlaceDistance();
+        row.setOriginPlaceId(originId);
+        row.setDestinationPlaceId(destinationId);
+        row.setLengthInMeters(meters);
+        row.setTravelTimeInSeconds(seconds);
+        return row;
+    }
+
+    // Waits until that many callers are parked on another caller's fetch.
+    private void awaitCoalesced(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (service.getStats().get("coalescedRequests") < count) {
+            assertTrue(System.currentTimeMillis() < deadline, "callers never joined the fetch in flight");
+            Thread.sleep(5);
+        }
+    }
+
+    // place_distances held in rows, answering the calls the cache makes.
+    @SuppressWarnings("unchecked")
+    private PlaceDistanceRepository repository() {
+        return (PlaceDistanceRepository) Proxy.newProxyInstance(PlaceDistanceRepository.class.getClassLoader(),
+                new Class<?>[]{PlaceDistanceRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findByOriginPlaceIdAndDestinationPlaceId":
+                            return rows.stream()
+                                    .filter(d -> d.getOriginPlaceId().equals(args[0]) && d.getDestinationPlaceId().equals(args[1]))
+                                    .findFirst();
+                        case "findByOriginPlaceIdInAndDestinationPlaceIdIn":
+                            return rows.stream()
+                                    .filter(d -> ((Collection<Long>) args[0]).contains(d.getOriginPlaceId())
+                                            && ((Collection<Long>) args[1]).contains(d.getDestinationPlaceId()))
+                                    .toList();
+                        case "save":
+                            rows.add((PlaceDistance) args[0]);
+                            return args[0];
+                        case "saveAll":
+                            ((Iterable<PlaceDistance>) args[0]).forEach(rows::add);
+                            return args[0];
+                        case "deleteByPlaceId":
+                            List<PlaceDistance> dropped = rows.stream()
+                                    .filter(d -> d.getOriginPlaceId().equals(args[0]) || d.getDestinationPlaceId().equals(args[0]))
+                                    .toList();
+                            rows.removeAll(dropped);
+                            return dropped.size();
+                        case "toString":
+                            return "PlaceDistanceRepository";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    // Straight-line TomTom stand-in; its first call blocks until released, so others pile up behind it.
+    private static class SlowTomTom extends TomTomService {
+        final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile boolean failing;
+        volatile Long unreachableTo;
+
+        SlowTomTom() {
+            super(null, null, null);
+        }
+
+        @Override
+        public TravelCost getTravelCost(Place origin, Place destination) {
+            return getTravelCostMatrix(List.of(origin), List.of(destination))[0][0];
+        }
+
+        @Override
+        public TravelCost[][] getTravelCostMatrix(List<Place> origins, List<Place> destinations) {
+            boolean first = entered.getCount() > 0;
+            entered.countDown();
+            if (first) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failing) {
+                throw new IllegalStateException("TomTom is down");
+            }
+            TravelCost[][] matrix = new TravelCost[origins.size()][destinations.size()];
+            for (int i = 0; i < origins.size(); i++) {
+                for (int j = 0; j < destinations.size(); j++) {
+                    Place o = origins.get(i);
+                    Place d = destinations.get(j);
+                    if (o.getId().equals(d.getId())) {
+                        matrix[i][j] = TravelCost.ZERO;
+                        continue;
+                    }
+                    calls.computeIfAbsent(o.getId() + "->" + d.getId(), k -> new AtomicInteger()).incrementAndGet();
+                    if (d.getId().equals(unreachableTo)) {
+                        matrix[i][j] = TravelCost.UNREACHABLE;
+                        continue;
+                    }
+                    double meters = GeoUtils.haversineMeters(o.getLatitude(), o.getLongitude(),
+                            d.getLatitude(), d.getLongitude());
+                    matrix[i][j] = new TravelCost(meters, meters / 8.0);
+                }
+            }
+            return matrix;
+        }
+    }
+}
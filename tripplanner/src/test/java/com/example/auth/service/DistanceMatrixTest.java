@@ -0,0 +1,87 @@
+package com.example.auth.service;
+
+import com.example.auth.model.Place;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistanceMatrixTest {
+
+    @Test
+    void providerMatrixIsFlattenedWithPlaceIndex() {
+        List<Place> places = new ArrayList<>();
+        for (long id : new long[]{42L, 7L, 19L}) {
+            Place place = new Place();
+            place.setId(id);
+            places.add(place);
+        }
+        TravelCost[][] costs = {
+                {TravelCost.ZERO, new TravelCost(120, 12), new TravelCost(300, 30)},
+                {new TravelCost(125, 13), TravelCost.ZERO, TravelCost.UNREACHABLE},
+                {new TravelCost(310, 31), new TravelCost(95, 9), TravelCost.ZERO}
+        };
+
+        DistanceMatrix matrix = DistanceMatrix.fromTravelCosts(places, costs);
+        assertEquals(3, matrix.size());
+        assertEquals(1, matrix.indexOf(7L));
+        assertEquals(-1, matrix.indexOf(8L));
+        assertEquals(19L, matrix.getPlaceId(2));
+        assertEquals(300.0, matrix.distance(0, 2));
+        assertEquals(9.0, matrix.time(2, 1));
+        assertEquals(0.0, matrix.distance(1, 1));
+        assertFalse(matrix.isSymmetric());
+    }
+
+    @Test
+    void unreachableLegsStayFiniteAndAreReportedAsUnreachable() {
+        DistanceMatrix matrix = DistanceMatrix.fromMeters(new double[][]{
+                {0, 100, 50},
+                {100, 0, Double.NaN},
+                {Double.MAX_VALUE, 70, 0}
+        });
+        assertFalse(matrix.isReachable(2, 0));
+        assertFalse(matrix.isReachable(1, 2));
+        assertTrue(matrix.isReachable(0, 2));
+        assertEquals(DistanceMatrix.UNREACHABLE, matrix.distance(2, 0));
+        assertSame(TravelCost.UNREACHABLE, matrix.travelCost(1, 2));
+
+        // A tour over an unreachable leg is long, but sums and comparisons still work.
+        double length = TourUtils.tourLength(new int[]{0, 1, 2}, matrix);
+        assertTrue(Double.isFinite(length));
+        assertTrue(length > TourUtils.tourLength(new int[]{0, 2, 1}, matrix));
+    }
+
+    @Test
+    void rejectsArraysOfTheWrongSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> DistanceMatrix.of(new long[]{1L, 2L}, new float[3], new float[4]));
+    }
+
+    @Test
+    void selectKeepsTheCellsOfTheChosenPlacesInTheirOrder() {
+        DistanceMatrix matrix = DistanceMatrix.fromMeters(new double[][]{
+                {0, 10, 20, 30},
+                {11, 0, 21, 31},
+                {12, 22, 0, 32},
+                {13, 23, 33, 0}
+        });
+        List<Place> chosen = new ArrayList<>();
+        for (long id : new long[]{3L, 1L}) {
+            Place place = new Place();
+            place.setId(id);
+            chosen.add(place);
+        }
+        DistanceMatrix selected = matrix.select(chosen);
+        assertEquals(2, selected.size());
+        assertEquals(3L, selected.getPlaceId(0));
+        assertEquals(23.0, selected.distance(0, 1));
+        assertEquals(31.0, selected.distance(1, 0));
+
+        Place missing = new Place();
+        missing.setId(9L);
+        assertThrows(IllegalArgumentException.class, () -> matrix.select(List.of(missing)));
+    }
+}
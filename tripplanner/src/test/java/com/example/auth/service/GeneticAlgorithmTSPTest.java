@@ -0,0 +1,85 @@
+package com.example.auth.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.example.auth.service.TestFixtures.assertValidTour;
+import static com.example.auth.service.TestFixtures.randomMatrix;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneticAlgorithmTSPTest {
+
+    @Test
+    void returnsAPermutationStartingAtTheFixedStart() {
+        Random random = new Random(3);
+        for (int n = 1; n <= 30; n++) {
+            int[] tour = new GeneticAlgorithmTSP(randomMatrix(random, n), 20, 50, 0.1, n).run();
+
+            assertValidTour(tour, n);
+        }
+    }
+
+    @Test
+    void findsTheHullOrderForPlacesOnACircle() {
+        int n = 25;
+        DistanceMatrix matrix = circleMatrix(n);
+        int[] tour = new GeneticAlgorithmTSP(matrix, 50, 200, 0.1, 42L).run();
+        assertEquals(circleOptimum(matrix), TourUtils.tourLength(tour, matrix), 1e-3);
+    }
+
+    @Test
+    void islandModelFindsTheHullOrderWithMigration() {
+        int n = 40;
+        DistanceMatrix matrix = circleMatrix(n);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            int[] tour = new IslandGeneticAlgorithmTSP(matrix, 4, 30, 120, 0.1, 25, pool, 42L).run();
+            assertValidTour(tour, n);
+            assertEquals(circleOptimum(matrix), TourUtils.tourLength(tour, matrix), 1e-3);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Places evenly spaced on a circle in shuffled index order; the optimal tour visits them in angular order.
+    private static DistanceMatrix circleMatrix(int n) {
+        int[] angleSlot = angleSlots(n);
+        double[][] matrix = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double a = 2 * Math.PI * angleSlot[i] / n;
+                double b = 2 * Math.PI * angleSlot[j] / n;
+                matrix[i][j] = 1000 * Math.hypot(Math.cos(a) - Math.cos(b), Math.sin(a) - Math.sin(b));
+            }
+        }
+        return DistanceMatrix.fromMeters(matrix);
+    }
+
+    // Position of each place around the circle.
+    private static int[] angleSlots(int n) {
+        int[] angleSlot = new int[n];
+        Random random = new Random(9);
+        for (int i = 0; i < n; i++) {
+            angleSlot[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = angleSlot[i];
+            angleSlot[i] = angleSlot[j];
+            angleSlot[j] = t;
+        }
+        return angleSlot;
+    }
+
+    // Length of the angular order, measured on the matrix like the solvers' tours.
+    private static double circleOptimum(DistanceMatrix matrix) {
+        int[] angleSlot = angleSlots(matrix.size());
+        int[] hull = new int[angleSlot.length];
+        for (int i = 0; i < angleSlot.length; i++) {
+            hull[angleSlot[i]] = i;
+        }
+        return TourUtils.tourLength(hull, matrix);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.auth.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static com.example.auth.service.TestFixtures.assertValidTour;
+import static com.example.auth.service.TestFixtures.randomMatrix;
+import static com.example.auth.service.TestFixtures.randomMeters;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeldKarpTSPTest {
+
+    @Test
+    void matchesBruteForceOnRandomAsymmetricMatrices() {
+        Random random = new Random(7);
+        for (int n = 1; n <= 9; n++) {
+            for (int trial = 0; trial < 5; trial++) {
+                DistanceMatrix matrix = randomMatrix(random, n);
+                int[] tour = new HeldKarpTSP(matrix).run();
+
+                assertValidTour(tour, n);
+                int[] rest = new int[n - 1];
+                for (int i = 0; i < rest.length; i++) {
+                    rest[i] = i + 1;
+                }
+                double optimum = bruteForce(matrix, rest, 0);
+                assertEquals(optimum, TourUtils.tourLength(tour, matrix), 1e-6, "n=" + n + " trial=" + trial);
+            }
+        }
+    }
+
+    @Test
+    void stillReturnsATourWhenLegsAreUnreachable() {
+        double[][] meters = randomMeters(new Random(3), 6, false);
+        for (int j = 1; j < 6; j++) {
+            meters[2][j] = Double.MAX_VALUE;
+        }
+        assertValidTour(new HeldKarpTSP(DistanceMatrix.fromMeters(meters)).run(), 6);
+    }
+
+    @Test
+    void rejectsDaysTooLargeForExactSearch() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new HeldKarpTSP(DistanceMatrix.fromMeters(new double[HeldKarpTSP.MAX_PLACES + 1][HeldKarpTSP.MAX_PLACES + 1])));
+    }
+
+    // Minimum closed length over all orders of rest[k..], with rest[0..k) fixed after the start.
+    private static double bruteForce(DistanceMatrix matrix, int[] rest, int k) {
+        if (k == rest.length) {
+            int[] tour = new int[rest.length + 1];
+            System.arraycopy(rest, 0, tour, 1, rest.length);
+            return TourUtils.tourLength(tour, matrix);
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = k; i < rest.length; i++) {
+            swap(rest, k, i);
+            best = Math.min(best, bruteForce(matrix, rest, k + 1));
+            swap(rest, k, i);
+        }
+        return best;
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+}
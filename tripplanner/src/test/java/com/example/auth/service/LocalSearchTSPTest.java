@@ -0,0 +1,98 @@
+package com.example.auth.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static com.example.auth.service.TestFixtures.assertValidTour;
+import static com.example.auth.service.TestFixtures.randomMatrix;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalSearchTSPTest {
+
+    @Test
+    void untanglesARandomTourOfPlacesOnACircle() {
+        // Points in convex position: any crossing-free tour is optimal.
+        int n = 150;
+        double[][] matrix = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double a = 2 * Math.PI * i / n;
+                double b = 2 * Math.PI * j / n;
+                matrix[i][j] = 1000 * Math.hypot(Math.cos(a) - Math.cos(b), Math.sin(a) - Math.sin(b));
+            }
+        }
+        DistanceMatrix distances = DistanceMatrix.fromMeters(matrix);
+        int[] tour = shuffledTour(n, new Random(4));
+
+        new LocalSearchTSP(distances).improve(tour);
+
+        assertValidTour(tour, n);
+        // Places are indexed in angular order, so the identity is the optimal tour.
+        int[] hull = new int[n];
+        for (int i = 0; i < n; i++) {
+            hull[i] = i;
+        }
+        assertEquals(TourUtils.tourLength(hull, distances), TourUtils.tourLength(tour, distances), 1e-3);
+    }
+
+    @Test
+    void neverLengthensAsymmetricTours() {
+        Random random = new Random(12);
+        for (int n = 1; n <= 60; n += 3) {
+            DistanceMatrix matrix = randomMatrix(random, n);
+            int[] tour = shuffledTour(n, random);
+            double before = TourUtils.tourLength(tour, matrix);
+
+            new LocalSearchTSP(matrix, 5).improve(tour);
+
+            assertValidTour(tour, n);
+            assertTrue(TourUtils.tourLength(tour, matrix) <= before + 1e-6, "n=" + n);
+        }
+    }
+
+    @Test
+    void reachesATwoOptLocalOptimumOnRandomPlanarPlaces() {
+        int n = 120;
+        Random random = new Random(6);
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = random.nextDouble() * 10000;
+            y[i] = random.nextDouble() * 10000;
+        }
+        double[][] matrix = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                matrix[i][j] = Math.hypot(x[i] - x[j], y[i] - y[j]);
+            }
+        }
+        int[] tour = shuffledTour(n, random);
+
+        // With every place as a neighbour candidate the result must admit no improving 2-opt move.
+        new LocalSearchTSP(DistanceMatrix.fromMeters(matrix), n).improve(tour);
+
+        assertValidTour(tour, n);
+        for (int p = 0; p < n - 1; p++) {
+            for (int q = p + 2; q < n; q++) {
+                double delta = matrix[tour[p]][tour[q]] + matrix[tour[p + 1]][tour[(q + 1) % n]]
+                        - matrix[tour[p]][tour[p + 1]] - matrix[tour[q]][tour[(q + 1) % n]];
+                assertTrue(delta > -1e-6, "improving 2-opt move left at " + p + "," + q);
+            }
+        }
+    }
+
+    private static int[] shuffledTour(int n, Random random) {
+        int[] tour = new int[n];
+        for (int i = 0; i < n; i++) {
+            tour[i] = i;
+        }
+        for (int i = n - 1; i > 1; i--) {
+            int j = 1 + random.nextInt(i);
+            int t = tour[i];
+            tour[i] = tour[j];
+            tour[j] = t;
+        }
+        return tour;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.auth.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiDayPlannerTest {
+
+    @Test
+    void separatedNeighbourhoodsBecomeSeparateDays() {
+        // A hotel in the middle and three tight groups of six places around it.
+        double[][] centres = {{48.90, 2.25}, {48.80, 2.45}, {48.88, 2.50}};
+        int n = 1 + 3 * 6;
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        latitudes[0] = 48.86;
+        longitudes[0] = 2.35;
+        Random random = new Random(5);
+        for (int p = 1; p < n; p++) {
+            double[] centre = centres[(p - 1) % 3];
+            latitudes[p] = centre[0] + 0.01 * random.nextDouble();
+            longitudes[p] = centre[1] + 0.01 * random.nextDouble();
+        }
+        TspProblem problem = new TspProblem(haversineMatrix(latitudes, longitudes), null, latitudes, longitudes);
+
+        int[][] routes = new MultiDayPlanner(problem, 3, 7, 1L).plan(SolverBudget.start(0, 0, 0));
+
+        assertEquals(3, routes.length);
+        Set<Integer> visited = new HashSet<>();
+        for (int[] route : routes) {
+            assertEquals(0, route[0]);
+            assertTrue(route.length - 1 <= 7);
+            Set<Integer> groups = new HashSet<>();
+            for (int k = 1; k < route.length; k++) {
+                assertTrue(visited.add(route[k]));
+                groups.add((route[k] - 1) % 3);
+            }
+            assertEquals(1, groups.size(), "a day stays within one neighbourhood");
+        }
+        assertEquals(n - 1, visited.size());
+    }
+
+    @Test
+    void jointPlanBeatsARoundRobinSplitAndRespectsCapacity() {
+        int n = 31;
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        Random random = new Random(8);
+        for (int p = 0; p < n; p++) {
+            latitudes[p] = 48.80 + 0.1 * random.nextDouble();
+            longitudes[p] = 2.25 + 0.15 * random.nextDouble();
+        }
+        DistanceMatrix matrix = haversineMatrix(latitudes, longitudes);
+        MultiDayPlanner planner = new MultiDayPlanner(new TspProblem(matrix, null, latitudes, longitudes), 4, 8, 2L);
+
+        int[][] routes = planner.plan(SolverBudget.start(0, 0, 0));
+
+        int[][] roundRobin = new int[4][];
+        for (int d = 0; d < 4; d++) {
+            int size = 1 + (n - 1 - d + 3) / 4;
+            roundRobin[d] = new int[size];
+            for (int k = 1; k < size; k++) {
+                roundRobin[d][k] = 1 + d + 4 * (k - 1);
+            }
+        }
+        assertTrue(planner.totalLength(routes) < planner.totalLength(roundRobin));
+        int placed = 0;
+        for (int[] route : routes) {
+            assertTrue(route.length - 1 <= 8);
+            placed += route.length - 1;
+        }
+        assertEquals(n - 1, placed);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new MultiDayPlanner(new TspProblem(matrix), 3, 5));
+    }
+
+    private static DistanceMatrix haversineMatrix(double[] latitudes, double[] longitudes) {
+        int n = latitudes.length;
+        double[][] meters = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                meters[i][j] = GeoUtils.haversineMeters(latitudes[i], longitudes[i], latitudes[j], longitudes[j]);
+            }
+        }
+        return DistanceMatrix.fromMeters(meters);
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.auth.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimizationJobServiceTest {
+
+    private ThreadPoolExecutor executor;
+    private ExecutorService events;
+    private OptimizationJobService jobs;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+        RouteOptimizationService routes = new RouteOptimizationService();
+        ReflectionTestUtils.setField(routes, "timeLimitMs", 1000L);
+        jobs = new OptimizationJobService();
+        ReflectionTestUtils.setField(jobs, "optimizationExecutor", executor);
+        events = Executors.newCachedThreadPool();
+        ReflectionTestUtils.setField(jobs, "jobEventExecutor", events);
+        ReflectionTestUtils.setField(jobs, "routeOptimizationService", routes);
+        ReflectionTestUtils.setField(jobs, "retentionMs", 0L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        events.shutdownNow();
+    }
+
+    @Test
+    void jobReportsItsResultOrError() throws InterruptedException {
+        DayRoute route = new DayRoute(List.of("A", "B", "A"), new RouteDetails(0, 0, List.of()), "exact");
+        OptimizationJob ok = jobs.submit(1L, 2, List.of(), budget -> {
+            assertNotNull(budget);
+            return route;
+        });
+        OptimizationJob failed = jobs.submit(1L, 3, List.of(), budget -> {
+            throw new IllegalStateException("no route");
+        });
+        awaitFinished(ok);
+        awaitFinished(failed);
+
+        assertSame(ok, jobs.get(ok.getId()));
+        assertEquals(OptimizationJob.Status.SUCCEEDED, ok.getStatus());
+        assertSame(route, ok.getResult());
+        assertNotNull(ok.getBudget());
+        assertEquals(OptimizationJob.Status.FAILED, failed.getStatus());
+        assertEquals("no route", failed.getError());
+        assertNull(failed.getResult());
+
+        Thread.sleep(5);
+        jobs.purgeFinished();
+        assertNull(jobs.get(ok.getId()));
+        assertNull(jobs.get(failed.getId()));
+    }
+
+    @Test
+    void fullQueueRejectsNewJobs() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        OptimizationJob running = jobs.submit(1L, 1, List.of(), budget -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        });
+        OptimizationJob queued = jobs.submit(1L, 2, List.of(), budget -> null);
+        assertThrows(RejectedExecutionException.class, () -> jobs.submit(1L, 3, List.of(), budget -> null));
+        assertEquals(OptimizationJob.Status.QUEUED, queued.getStatus());
+
+        // Unfinished jobs survive the purge.
+        jobs.purgeFinished();
+        assertNotNull(jobs.get(running.getId()));
+
+        release.countDown();
+        awaitFinished(queued);
+        assertEquals(OptimizationJob.Status.SUCCEEDED, queued.getStatus());
+    }
+
+    @Test
+    void listenersFollowIncumbentsUntilAcceptedAndFinished() throws InterruptedException {
+        DistanceMatrix matrix = DistanceMatrix.fromMeters(new double[][]{
+                {0, 10, 20},
+                {10, 0, 15},
+                {20, 15, 0}
+        });
+        CountDownLatch firstOffered = new CountDownLatch(1);
+        OptimizationJob job = jobs.submit(1L, 1, List.of(0L, 1L, 2L), budget -> {
+            budget.offerIncumbent(matrix, new int[]{0, 2, 1}, 50, 0, Double.NaN);
+            firstOffered.countDown();
+            // Keep "solving" until the client accepts.
+            while (!budget.isExhausted()) {
+                Thread.onSpinWait();
+            }
+            budget.offerIncumbent(matrix, new int[]{0, 1, 2}, 45, -1, 12.5);
+            return new DayRoute(List.of("A", "B", "C", "A"), new RouteDetails(45, 0, List.of()), "ga");
+        });
+        assertTrue(firstOffered.await(5, TimeUnit.SECONDS));
+
+        // A late listener first gets the current incumbent, then the rest.
+        List<Incumbent> seen = new CopyOnWriteArrayList<>();
+        CountDownLatch firstSeen = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        job.addListener(new OptimizationJob.Listener() {
+            @Override
+            public void onIncumbent(OptimizationJob job, Incumbent incumbent) {
+                seen.add(incumbent);
+                firstSeen.countDown();
+            }
+
+            @Override
+            public void onFinished(OptimizationJob job) {
+                finished.countDown();
+            }
+        });
+        assertTrue(firstSeen.await(5, TimeUnit.SECONDS));
+        assertEquals(OptimizationJob.Status.RUNNING, job.getStatus());
+        job.accept();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+
+        assertTrue(job.getBudget().isCancelled());
+        assertEquals(OptimizationJob.Status.SUCCEEDED, job.getStatus());
+        assertEquals(2, seen.size());
+        assertEquals(List.of(0L, 2L, 1L), seen.get(0).getPlaceIds());
+        assertEquals(12.5, seen.get(1).getTemperature());
+        assertEquals(45.0, job.getIncumbent().getTotalDistance());
+    }
+
+    @Test
+    void stalledListenerDoesNotHoldUpTheSolvers() throws InterruptedException {
+        DistanceMatrix matrix = DistanceMatrix.fromMeters(new double[][]{
+                {0, 10, 20},
+                {10, 0, 15},
+                {20, 15, 0}
+        });
+        CountDownLatch listening = new CountDownLatch(1);
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Incumbent> seen = new CopyOnWriteArrayList<>();
+        CountDownLatch finished = new CountDownLatch(1);
+        OptimizationJob job = jobs.submit(1L, 1, List.of(0L, 1L, 2L), budget -> {
+            try {
+                listening.await();
+                budget.offerIncumbent(matrix, new int[]{0, 2, 1}, 50, 0, Double.NaN);
+                // The listener is now stuck writing the first tour; offering more must not wait for it.
+                stalled.await();
+                for (int k = 1; k <= 3; k++) {
+                    budget.offerIncumbent(matrix, new int[]{0, 1, 2}, 50 - k, -1, 10.0 / k);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new DayRoute(List.of("A", "B", "C", "A"), new RouteDetails(47, 0, List.of()), "ga");
+        });
+        // Like an SSE client whose connection stopped reading.
+        job.addListener(new OptimizationJob.Listener() {
+            @Override
+            public void onIncumbent(OptimizationJob job, Incumbent incumbent) {
+                seen.add(incumbent);
+                stalled.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void onFinished(OptimizationJob job) {
+                finished.countDown();
+            }
+        });
+        listening.countDown();
+
+        awaitFinished(job);
+        assertEquals(OptimizationJob.Status.SUCCEEDED, job.getStatus());
+        assertEquals(4, job.getIncumbent().getSequence());
+        assertEquals(1, seen.size());
+
+        // Once the client catches up it skips straight to the latest tour, then the end.
+        release.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(2, seen.size());
+        assertEquals(47.0, seen.get(1).getTotalDistance());
+    }
+
+    private static void awaitFinished(OptimizationJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(job.isFinished());
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.auth.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OsmRoadGraphConverterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void convertedExtractLoadsAsARoadGraph() throws Exception {
+        // Three nodes on a two-way residential street, a one-way link to a fourth,
+        // a footway that cars cannot use and a node used by no way at all.
+        Path osm = tempDir.resolve("city.osm");
+        Files.writeString(osm, """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <osm version="0.6">
+                  <node id="1" lat="21.000" lon="94.000"/>
+                  <node id="2" lat="21.001" lon="94.000"/>
+                  <node id="3" lat="21.002" lon="94.000"/>
+                  <node id="4" lat="21.002" lon="94.001"/>
+                  <node id="5" lat="21.003" lon="94.003"/>
+                  <node id="6" lat="21.005" lon="94.005"/>
+                  <way id="10">
+                    <nd ref="1"/><nd ref="2"/><nd ref="3"/>
+                    <tag k="highway" v="residential"/>
+                  </way>
+                  <way id="11">
+                    <nd ref="3"/><nd ref="4"/>
+                    <tag k="highway" v="tertiary"/>
+                    <tag k="oneway" v="yes"/>
+                    <tag k="maxspeed" v="36"/>
+                  </way>
+                  <way id="12">
+                    <nd ref="4"/><nd ref="5"/>
+                    <tag k="highway" v="footway"/>
+                  </way>
+                </osm>
+                """);
+        Path graphFile = tempDir.resolve("city-graph.txt");
+
+        int[] written = OsmRoadGraphConverter.convert(osm, graphFile);
+        assertArrayEquals(new int[]{4, 3}, written);
+
+        RoadGraph graph = RoadGraph.load(graphFile);
+        assertEquals(4, graph.getNodeCount());
+        int first = graph.nearestNode(21.000, 94.000);
+        int last = graph.nearestNode(21.002, 94.001);
+        double street = 2 * GeoUtils.haversineMeters(21.000, 94.000, 21.001, 94.000);
+        double link = GeoUtils.haversineMeters(21.002, 94.000, 21.002, 94.001);
+        double[] path = graph.shortestPath(first, last);
+        assertEquals(street + link, path[0], 0.5);
+        // 30 km/h on the residential street, the signed 36 km/h on the link.
+        assertEquals(street / (30 / 3.6) + link / 10.0, path[1], 0.5);
+        // The link is one-way.
+        assertNull(graph.shortestPath(last, first));
+    }
+
+    @Test
+    void zeroMaxspeedFallsBackToTheRoadClassSpeed() throws Exception {
+        Path osm = tempDir.resolve("zero.osm");
+        Files.writeString(osm, """
+                <osm version="0.6">
+                  <node id="1" lat="21.000" lon="94.000"/>
+                  <node id="2" lat="21.001" lon="94.000"/>
+                  <way id="10">
+                    <nd ref="1"/><nd ref="2"/>
+                    <tag k="highway" v="residential"/>
+                    <tag k="maxspeed" v="0"/>
+                  </way>
+                </osm>
+                """);
+        Path graphFile = tempDir.resolve("zero-graph.txt");
+        OsmRoadGraphConverter.convert(osm, graphFile);
+
+        RoadGraph graph = RoadGraph.load(graphFile);
+        double meters = GeoUtils.haversineMeters(21.000, 94.000, 21.001, 94.000);
+        double[] path = graph.shortestPath(graph.nearestNode(21.000, 94.000), graph.nearestNode(21.001, 94.000));
+        assertEquals(meters / (30 / 3.6), path[1], 0.5);
+    }
+
+    @Test
+    void extractWithoutDrivableRoadsIsRejected() throws Exception {
+        Path osm = tempDir.resolve("park.osm");
+        Files.writeString(osm, """
+                <osm version="0.6">
+                  <node id="1" lat="21.000" lon="94.000"/>
+                  <node id="2" lat="21.001" lon="94.000"/>
+                  <way id="10"><nd ref="1"/><nd ref="2"/><tag k="highway" v="footway"/></way>
+                </osm>
+                """);
+        assertThrows(IOException.class, () -> OsmRoadGraphConverter.convert(osm, tempDir.resolve("park-graph.txt")));
+    }
+}
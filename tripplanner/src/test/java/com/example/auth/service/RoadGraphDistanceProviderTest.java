@@ -0,0 +1,137 @@
+package com.example.auth.service;
+
+import com.example.auth.model.Place;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoadGraphDistanceProviderTest {
+
+    private static final int SIZE = 6;
+    private static final double STEP = 0.001;
+
+    @TempDir
+    Path tempDir;
+
+    private RoadGraph graph;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // A 6x6 street grid with 100 m blocks, one one-way street and one isolated node.
+        StringBuilder extract = new StringBuilder("# test extract\n");
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                extract.append("node ").append(id(r, c)).append(' ')
+                        .append(21.0 + r * STEP).append(' ').append(94.0 + c * STEP).append('\n');
+            }
+        }
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                if (c + 1 < SIZE) {
+                    // Row 0 is one-way eastbound.
+                    extract.append("edge ").append(id(r, c)).append(' ').append(id(r, c + 1))
+                            .append(" 100 10").append(r == 0 ? " 1" : "").append('\n');
+                }
+                if (r + 1 < SIZE) {
+                    extract.append("edge ").append(id(r, c)).append(' ').append(id(r + 1, c)).append(" 100 10\n");
+                }
+            }
+        }
+        extract.append("node 999 22.0 95.0\n");
+        Path file = tempDir.resolve("graph.txt");
+        Files.writeString(file, extract);
+        graph = RoadGraph.load(file);
+    }
+
+    private static int id(int r, int c) {
+        return r * SIZE + c + 1;
+    }
+
+    private static Place place(long id, double lat, double lon) {
+        Place place = new Place();
+        place.setId(id);
+        place.setLatitude(lat);
+        place.setLongitude(lon);
+        return place;
+    }
+
+    @Test
+    void bidirectionalSearchMatchesManhattanDistances() {
+        int from = graph.nearestNode(21.0, 94.0);
+        int to = graph.nearestNode(21.0 + 3 * STEP, 94.0 + 4 * STEP);
+        double[] path = graph.shortestPath(from, to);
+        assertEquals(700.0, path[0], 1e-9);
+        assertEquals(70.0, path[1], 1e-9);
+    }
+
+    @Test
+    void oneWayStreetMakesDistancesAsymmetric() {
+        int west = graph.nearestNode(21.0, 94.0);
+        int east = graph.nearestNode(21.0, 94.0 + 5 * STEP);
+        assertEquals(500.0, graph.shortestPath(west, east)[0], 1e-9);
+        // Coming back has to use row 1: down, across, up.
+        assertEquals(700.0, graph.shortestPath(east, west)[0], 1e-9);
+    }
+
+    @Test
+    void isolatedNodeIsUnreachable() {
+        int isolated = graph.nearestNode(22.0, 95.0);
+        assertNull(graph.shortestPath(graph.nearestNode(21.0, 94.0), isolated));
+    }
+
+    @Test
+    void emptyGraphIsRejectedRatherThanIndexed() throws Exception {
+        Path file = tempDir.resolve("empty.txt");
+        Files.writeString(file, "# nothing converted\n");
+        assertThrows(IOException.class, () -> RoadGraph.load(file));
+
+        RoadGraph empty = new RoadGraph(new double[0], new double[0], new int[0], new int[0], new double[0], new double[0]);
+        assertThrows(IllegalStateException.class, () -> empty.nearestNode(21.0, 94.0));
+        RoadGraphDistanceProvider provider = new RoadGraphDistanceProvider();
+        provider.setGraph(empty);
+        assertFalse(provider.isAvailable());
+        List<Place> places = List.of(place(1, 21.0, 94.0), place(2, 21.001, 94.0));
+        assertFalse(provider.getTravelCost(places.get(0), places.get(1)).isReachable());
+        assertFalse(provider.getTravelCostMatrix(places)[0][1].isReachable());
+    }
+
+    @Test
+    void matrixAgreesWithPointQueries() {
+        RoadGraphDistanceProvider provider = new RoadGraphDistanceProvider();
+        provider.setGraph(graph);
+        List<Place> places = new ArrayList<>();
+        long id = 1;
+        for (int r = 0; r < SIZE; r += 2) {
+            for (int c = 0; c < SIZE; c += 3) {
+                places.add(place(id++, 21.0 + r * STEP, 94.0 + c * STEP));
+            }
+        }
+        places.add(place(id, 22.0, 95.0));
+
+        TravelCost[][] matrix = provider.getTravelCostMatrix(places);
+
+        for (int i = 0; i < places.size(); i++) {
+            for (int j = 0; j < places.size(); j++) {
+                TravelCost single = provider.getTravelCost(places.get(i), places.get(j));
+                if (i == j) {
+                    assertEquals(0.0, matrix[i][j].getDistance());
+                } else {
+                    assertEquals(single.isReachable(), matrix[i][j].isReachable());
+                    if (single.isReachable()) {
+                        assertEquals(single.getDistance(), matrix[i][j].getDistance(), 1e-6);
+                        assertEquals(single.getTravelTime(), matrix[i][j].getTravelTime(), 1e-6);
+                    }
+                }
+            }
+        }
+        assertFalse(matrix[0][places.size() - 1].isReachable());
+    }
+}
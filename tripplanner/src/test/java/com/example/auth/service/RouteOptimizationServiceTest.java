@@ -0,0 +1,412 @@
+package com.example.auth.service;
+
+import com.example.auth.model.Place;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.example.auth.service.TestFixtures.assertValidTour;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteOptimizationServiceTest {
+
+    private final TestFixtures.CountingProvider provider = new TestFixtures.CountingProvider();
+    private final List<Place> places = new ArrayList<>();
+    private CityMatrixSnapshotService snapshots;
+    private RouteOptimizationService service;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(6);
+        for (long id = 1; id <= 30; id++) {
+            Place place = new Place();
+            place.setId(id);
+            place.setName("P" + id);
+            place.setLatitude(48.80 + 0.1 * random.nextDouble());
+            place.setLongitude(2.25 + 0.15 * random.nextDouble());
+            places.add(place);
+        }
+        snapshots = new CityMatrixSnapshotService();
+        service = new RouteOptimizationService();
+        ReflectionTestUtils.setField(service, "distanceProviders",
+                new DistanceProviderRegistry(List.of(provider), "counting", ""));
+        ReflectionTestUtils.setField(service, "cityMatrixSnapshotService", snapshots);
+        ReflectionTestUtils.setField(service, "incrementalMaxNewPlaces", 5);
+        ReflectionTestUtils.setField(service, "matrixCacheSize", 16);
+        ReflectionTestUtils.setField(service, "timeLimitMs", 1000L);
+        RouteResultCache cache = new RouteResultCache(100);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(service, "routeResultCache", cache);
+        ReflectionTestUtils.setField(service, "solverPool", ForkJoinPool.commonPool());
+        ReflectionTestUtils.setField(service, "tspSolvers", new TspSolverRegistry(
+                List.of(new LocalSearchTspSolver()), "local-search", "local-search", ForkJoinPool.commonPool()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        snapshots.shutdown();
+    }
+
+    @Test
+    void smallEditFetchesOnlyTheNewRowsAndColumns() {
+        Place start = places.get(0);
+        List<Place> day = new ArrayList<>(places.subList(1, 20));
+        List<Long> stored = new ArrayList<>();
+        stored.add(start.getId());
+        for (Place p : day) {
+            stored.add(p.getId());
+        }
+        OptimizationResult first = service.reoptimizeRoute(start, day, stored, null);
+        assertEquals(20 * 19, provider.legs.get());
+        assertValidTour(first.getTour(), 20);
+
+        // Drop one stop, add two new ones.
+        List<Long> previous = idsInTourOrder(first);
+        day.remove(5);
+        day.add(places.get(25));
+        day.add(places.get(26));
+        provider.legs.set(0);
+        OptimizationResult second = service.reoptimizeRoute(start, day, previous, null);
+
+        // Two new rows and columns over 21 places; the cell between the two new places is asked for twice.
+        assertEquals(2 * 2 * 20, provider.legs.get());
+        assertEquals("incremental", second.getSolverName());
+        assertValidTour(second.getTour(), 21);
+        Set<Long> visited = new HashSet<>(idsInTourOrder(second));
+        assertTrue(visited.contains(places.get(25).getId()));
+        assertTrue(visited.contains(places.get(26).getId()));
+        assertFalse(visited.contains(places.get(6).getId()));
+        assertEquals(start.getId(), idsInTourOrder(second).get(0));
+    }
+
+    @Test
+    void daysSharingAHotelKeepTheirOwnMatrices() {
+        Place hotel = places.get(0);
+        List<Place> monday = new ArrayList<>(places.subList(1, 10));
+        List<Place> tuesday = new ArrayList<>(places.subList(10, 19));
+        List<Long> mondayRoute = idsInTourOrder(service.reoptimizeRoute(hotel, monday, withStart(hotel, monday), null));
+        service.reoptimizeRoute(hotel, tuesday, withStart(hotel, tuesday), null);
+
+        // Editing Monday after Tuesday was solved still only fetches Monday's new place.
+        monday.add(places.get(25));
+        provider.legs.set(0);
+        OptimizationResult edited = service.reoptimizeRoute(hotel, monday, mondayRoute, null);
+        assertEquals(2 * 10, provider.legs.get());
+        assertEquals("incremental", edited.getSolverName());
+        assertValidTour(edited.getTour(), 11);
+    }
+
+    @Test
+    void legsThatFailedDuringAnOutageAreFetchedAgain() {
+        Place start = places.get(0);
+        List<Place> day = new ArrayList<>(places.subList(1, 10));
+        // TomTom cannot route into one place, so its whole column comes back unreachable.
+        provider.unreachableTo = day.get(2).getId();
+        List<Long> stored = idsInTourOrder(service.reoptimizeRoute(start, day, withStart(start, day), null));
+
+        // The provider recovers and a place is added: the new place and the one with failed legs are fetched.
+        provider.unreachableTo = null;
+        provider.legs.set(0);
+        day.add(places.get(25));
+        OptimizationResult edited = service.reoptimizeRoute(start, day, stored, null);
+        assertEquals(2 * 2 * 10, provider.legs.get());
+        assertEquals("incremental", edited.getSolverName());
+        DistanceMatrix matrix = edited.getMatrix();
+        for (int i = 0; i < matrix.size(); i++) {
+            for (int j = 0; j < matrix.size(); j++) {
+                assertTrue(i == j || matrix.isReachable(i, j));
+            }
+        }
+    }
+
+    @Test
+    void movedPlaceDropsTheCachedMatrix() {
+        Place start = places.get(0);
+        List<Place> day = new ArrayList<>(places.subList(1, 10));
+        List<Long> stored = new ArrayList<>();
+        stored.add(start.getId());
+        for (Place p : day) {
+            stored.add(p.getId());
+        }
+        service.reoptimizeRoute(start, day, stored, null);
+
+        service.placeMoved(places.get(3).getId());
+        provider.legs.set(0);
+        service.reoptimizeRoute(start, day, stored, null);
+        assertEquals(10 * 9, provider.legs.get());
+    }
+
+    @Test
+    void repeatedPlaceSetIsServedFromTheResultCache() {
+        Place start = places.get(0);
+        List<Place> day = new ArrayList<>(places.subList(1, 15));
+        OptimizationResult first = service.optimizeRoute(start, day);
+        assertEquals(15 * 14, provider.legs.get());
+
+        // Same places picked in another order: no distance lookups, same route and totals.
+        List<Place> shuffled = new ArrayList<>(day);
+        Collections.reverse(shuffled);
+        provider.legs.set(0);
+        OptimizationResult second = service.optimizeRoute(start, shuffled);
+        assertEquals(0, provider.legs.get());
+        assertEquals("cached:local-search", second.getSolverName());
+        assertEquals(idsInTourOrder(first), idsInTourOrder(second));
+        assertEquals(service.getRouteDetails(first).getTotalDistance(),
+                service.getRouteDetails(second).getTotalDistance(), 1e-3);
+
+        // Moving a member place invalidates the entry.
+        service.placeMoved(day.get(4).getId());
+        service.optimizeRoute(start, day);
+        assertEquals(15 * 14, provider.legs.get());
+    }
+
+    @Test
+    void routeOverAnUnroutableLegIsNotCached() {
+        Place start = places.get(0);
+        List<Place> day = new ArrayList<>(places.subList(1, 6));
+        // Every leg into one place fails, as during a provider outage, so any tour crosses a penalty leg.
+        provider.unreachableTo = day.get(2).getId();
+        OptimizationResult first = service.optimizeRoute(start, day);
+        assertFalse(service.getRouteDetails(first).getLegs().stream().allMatch(TravelCost::isReachable));
+
+        provider.unreachableTo = null;
+        provider.legs.set(0);
+        OptimizationResult second = service.optimizeRoute(start, day);
+        assertEquals(6 * 5, provider.legs.get());
+        assertEquals("local-search", second.getSolverName());
+        assertTrue(service.getRouteDetails(second).getLegs().stream().allMatch(TravelCost::isReachable));
+    }
+
+    @Test
+    void severalDaysShareOneMatrixBuild() {
+        Place hotel = places.get(0);
+        List<List<Place>> days = List.of(
+                new ArrayList<>(places.subList(1, 10)),
+                new ArrayList<>(places.subList(8, 18)),
+                new ArrayList<>(places.subList(18, 25)));
+        List<OptimizationResult> results = service.optimizeRoutes(List.of(hotel, hotel, hotel), days, null, null);
+
+        // One matrix over the hotel and the 24 distinct places of the three days.
+        assertEquals(25 * 24, provider.legs.get());
+        assertEquals(3, results.size());
+        for (int d = 0; d < days.size(); d++) {
+            OptimizationResult result = results.get(d);
+            assertValidTour(result.getTour(), days.get(d).size() + 1);
+            assertEquals(days.get(d).size() + 1, result.getMatrix().size());
+            assertEquals(hotel.getId(), idsInTourOrder(result).get(0));
+        }
+
+        // The same days again come from the result cache without any distance lookups.
+        provider.legs.set(0);
+        List<OptimizationResult> again = service.optimizeRoutes(List.of(hotel, hotel, hotel), days, null, null);
+        assertEquals(0, provider.legs.get());
+        assertEquals(idsInTourOrder(results.get(1)), idsInTourOrder(again.get(1)));
+    }
+
+    @Test
+    void hotelsAreRankedOnOneStarShapedMatrix() {
+        List<Place> stops = new ArrayList<>(places.subList(0, 8));
+        List<Place> hotels = new ArrayList<>(places.subList(18, 30));
+        List<OptimizationResult> ranking = service.rankStartingPlaces(hotels, stops, 3, null);
+
+        // Legs among the stops and between stops and hotels, none between two hotels.
+        assertEquals(8 * 7 + 2 * 8 * 12, provider.legs.get());
+        assertEquals(3, ranking.size());
+        double previous = 0.0;
+        for (OptimizationResult result : ranking) {
+            assertValidTour(result.getTour(), 9);
+            double length = TourUtils.tourLength(result.getTour(), result.getMatrix());
+            assertTrue(length >= previous);
+            previous = length;
+        }
+
+        // Same winner as solving every hotel on its own.
+        double bestLength = Double.POSITIVE_INFINITY;
+        Long bestHotel = null;
+        for (Place hotel : hotels) {
+            List<Place> day = new ArrayList<>();
+            day.add(hotel);
+            day.addAll(stops);
+            DistanceMatrix matrix = DistanceMatrix.fromTravelCosts(day, provider.getTravelCostMatrix(day));
+            double length = TourUtils.tourLength(new LocalSearchTspSolver().solve(new TspProblem(matrix), SolverBudget.unlimited()), matrix);
+            if (length < bestLength) {
+                bestLength = length;
+                bestHotel = hotel.getId();
+            }
+        }
+        assertEquals(bestHotel, ranking.get(0).getPlaces().get(0).getId());
+        assertEquals(bestLength, TourUtils.tourLength(ranking.get(0).getTour(), ranking.get(0).getMatrix()), 1e-3);
+    }
+
+    @Test
+    void hotelsThatCannotWinAreNotSolved() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        AtomicInteger solves = new AtomicInteger();
+        LocalSearchTspSolver counting = new LocalSearchTspSolver() {
+            @Override
+            public int[] solve(TspProblem problem, SolverBudget budget) {
+                solves.incrementAndGet();
+                return super.solve(problem, budget);
+            }
+        };
+        ReflectionTestUtils.setField(service, "solverPool", pool);
+        ReflectionTestUtils.setField(service, "tspSolvers",
+                new TspSolverRegistry(List.of(counting), "local-search", "local-search", pool));
+        List<Place> stops = new ArrayList<>(places.subList(0, 8));
+        List<Place> hotels = new ArrayList<>(places.subList(18, 22));
+        // Hotels some 50 km out of town: their bound alone exceeds any tour from a hotel in town.
+        for (long id = 101; id <= 104; id++) {
+            Place far = new Place();
+            far.setId(id);
+            far.setName("Far" + id);
+            far.setLatitude(49.30 + 0.01 * id / 100);
+            far.setLongitude(2.30);
+            hotels.add(far);
+        }
+
+        try {
+            List<OptimizationResult> ranking = service.rankStartingPlaces(hotels, stops, 1, null);
+            assertEquals(1, ranking.size());
+            assertTrue(ranking.get(0).getPlaces().get(0).getId() < 100);
+            // Waves of two: the four hotels in town at most, never the far ones.
+            assertTrue(solves.get() <= 4, "solved " + solves.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void progressiveRouteStreamsEstimatesThenSolvesOnRoadDistances() {
+        enableProgressive();
+        Place start = places.get(0);
+        List<Place> day = new ArrayList<>(places.subList(1, 15));
+        SolverBudget budget = service.newBudget();
+        List<Incumbent> incumbents = new CopyOnWriteArrayList<>();
+        List<Integer> legsSoFar = new CopyOnWriteArrayList<>();
+        budget.setIncumbentListener(incumbent -> {
+            incumbents.add(incumbent);
+            legsSoFar.add(provider.legs.get());
+        });
+        OptimizationResult result = service.optimizeRoute(start, day, null, null, budget);
+
+        // A nearest-neighbour tour on great-circle estimates comes first, before any road distance is asked for.
+        List<Place> allPlaces = new ArrayList<>(places.subList(0, 15));
+        HaversineDistanceProvider haversine = (HaversineDistanceProvider) ReflectionTestUtils.getField(service,
+                "haversineDistanceProvider");
+        DistanceMatrix estimate = DistanceMatrix.fromTravelCosts(allPlaces, haversine.getTravelCostMatrix(allPlaces));
+        int[] nearestNeighbour = TourUtils.nearestNeighbourTour(estimate);
+        assertTrue(incumbents.size() >= 2);
+        assertEquals(0, legsSoFar.get(0));
+        assertEquals(TourUtils.tourLength(nearestNeighbour, estimate), incumbents.get(0).getTotalDistance(), 1e-2);
+        // Then the local-search tour on the same estimates, shorter than nearest neighbour.
+        int[] localSearch = tourOf(incumbents.get(1).getPlaceIds(), allPlaces);
+        assertValidTour(localSearch, 15);
+        assertEquals(TourUtils.tourLength(localSearch, estimate), incumbents.get(1).getTotalDistance(), 1e-2);
+        assertTrue(incumbents.get(1).getTotalDistance() < incumbents.get(0).getTotalDistance());
+
+        // The final tour is on the provider's matrix and no longer than nearest neighbour on it.
+        assertEquals(15 * 14, provider.legs.get());
+        assertValidTour(result.getTour(), 15);
+        DistanceMatrix road = result.getMatrix();
+        assertEquals(provider.getTravelCost(start, day.get(0)).getDistance(), road.distance(0, 1), 1e-3);
+        assertTrue(TourUtils.tourLength(result.getTour(), road)
+                <= TourUtils.tourLength(TourUtils.nearestNeighbourTour(road), road) + 1e-6);
+        // The last streamed tour is the returned one, measured on road distances like it.
+        assertFalse(incumbents.isEmpty());
+        assertEquals(TourUtils.tourLength(result.getTour(), road),
+                incumbents.get(incumbents.size() - 1).getTotalDistance(), 1e-2);
+    }
+
+    @Test
+    void failedMatrixBuildStopsTheProvisionalSolve() throws InterruptedException {
+        enableProgressive();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        CountDownLatch stopped = new CountDownLatch(1);
+        AtomicReference<ForkJoinPool> ranOn = new AtomicReference<>();
+        // Runs until its budget says stop, as a long GA would.
+        TspSolver untilStopped = new TspSolver() {
+            @Override
+            public String getName() {
+                return "until-stopped";
+            }
+
+            @Override
+            public int[] solve(TspProblem problem, SolverBudget budget) {
+                ranOn.set(ForkJoinTask.getPool());
+                while (!budget.isExhausted()) {
+                    Thread.onSpinWait();
+                }
+                stopped.countDown();
+                return TourUtils.nearestNeighbourTour(problem.getDistanceMatrix());
+            }
+        };
+        ReflectionTestUtils.setField(service, "solverPool", pool);
+        ReflectionTestUtils.setField(service, "timeLimitMs", 60_000L);
+        ReflectionTestUtils.setField(service, "tspSolvers",
+                new TspSolverRegistry(List.of(untilStopped), "until-stopped", "until-stopped", pool));
+        provider.down = true;
+
+        try {
+            assertThrows(RuntimeException.class, () -> service.optimizeRoute(places.get(0),
+                    new ArrayList<>(places.subList(1, 10)), null, null, null));
+            // Well before the 48 s provisional slice would run out.
+            assertTrue(stopped.await(5, TimeUnit.SECONDS));
+            assertSame(pool, ranOn.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void enableProgressive() {
+        HaversineDistanceProvider haversine = new HaversineDistanceProvider();
+        ReflectionTestUtils.setField(haversine, "detourFactor", 1.3);
+        ReflectionTestUtils.setField(haversine, "speedKmh", 30.0);
+        ReflectionTestUtils.setField(service, "haversineDistanceProvider", haversine);
+        ReflectionTestUtils.setField(service, "progressiveEnabled", true);
+    }
+
+    private static List<Long> idsInTourOrder(OptimizationResult result) {
+        List<Long> ids = new ArrayList<>();
+        for (int index : result.getTour()) {
+            ids.add(result.getPlaces().get(index).getId());
+        }
+        return ids;
+    }
+
+    // Indexes into places of the given ids, in order.
+    private static int[] tourOf(List<Long> placeIds, List<Place> places) {
+        int[] tour = new int[placeIds.size()];
+        for (int k = 0; k < tour.length; k++) {
+            for (int i = 0; i < places.size(); i++) {
+                if (places.get(i).getId().equals(placeIds.get(k))) {
+                    tour[k] = i;
+                }
+            }
+        }
+        return tour;
+    }
+
+    private static List<Long> withStart(Place start, List<Place> day) {
+        List<Long> ids = new ArrayList<>();
+        ids.add(start.getId());
+        for (Place p : day) {
+            ids.add(p.getId());
+        }
+        return ids;
+    }
+}
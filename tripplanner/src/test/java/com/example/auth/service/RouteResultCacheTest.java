@@ -0,0 +1,75 @@
+package com.example.auth.service;
+
+import com.example.auth.model.Place;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteResultCacheTest {
+
+    @Test
+    void keyIgnoresSelectionOrderAndTheRepeatedStart() {
+        assertEquals(RouteResultCache.key(5L, List.of(5L, 9L, 2L, 7L), null, "tomtom"),
+                RouteResultCache.key(5L, List.of(7L, 2L, 9L), null, "tomtom"));
+        assertNotEquals(RouteResultCache.key(5L, List.of(2L, 7L), null, "tomtom"),
+                RouteResultCache.key(5L, List.of(2L, 7L), null, "road-graph"));
+        assertNotEquals(RouteResultCache.key(5L, List.of(2L, 7L), null, "tomtom"),
+                RouteResultCache.key(2L, List.of(5L, 7L), null, "tomtom"));
+    }
+
+    @Test
+    void servesTheStoredLegsUntilEvictedOrExpired() throws InterruptedException {
+        RouteResultCache cache = newCache(2, 0);
+        List<Place> places = places(1L, 2L, 3L);
+        DistanceMatrix matrix = DistanceMatrix.fromTravelCosts(places, new TravelCost[][]{
+                {TravelCost.ZERO, new TravelCost(100, 10), new TravelCost(300, 30)},
+                {new TravelCost(110, 11), TravelCost.ZERO, new TravelCost(200, 20)},
+                {new TravelCost(310, 31), new TravelCost(210, 21), TravelCost.ZERO}
+        });
+        cache.put("a", new OptimizationResult(places, new int[]{0, 2, 1}, matrix, "exact"));
+
+        // Fresh Place objects for the same ids, as a later request would load them.
+        OptimizationResult hit = cache.get("a", places(1L, 2L, 3L));
+        assertNotNull(hit);
+        assertEquals("cached:exact", hit.getSolverName());
+        assertArrayEquals(new int[]{0, 2, 1}, hit.getTour());
+        assertEquals(300.0, hit.getMatrix().distance(0, 2));
+        assertEquals(21.0, hit.getMatrix().time(2, 1));
+        assertEquals(110.0, hit.getMatrix().distance(1, 0));
+        assertFalse(hit.getMatrix().isReachable(0, 1));
+        assertNull(cache.get("a", places(1L, 2L, 4L)));
+
+        cache.put("b", new OptimizationResult(places, new int[]{0, 1, 2}, matrix, "exact"));
+        cache.put("c", new OptimizationResult(places, new int[]{0, 1, 2}, matrix, "exact"));
+        assertNull(cache.get("a", places), "least recently used entry is evicted");
+
+        cache.invalidatePlace(2L);
+        assertNull(cache.get("b", places));
+
+        RouteResultCache shortLived = newCache(10, 1);
+        shortLived.put("a", new OptimizationResult(places, new int[]{0, 1, 2}, matrix, "exact"));
+        Thread.sleep(20);
+        assertNull(shortLived.get("a", places));
+    }
+
+    private static RouteResultCache newCache(int size, long ttlMs) {
+        RouteResultCache cache = new RouteResultCache(size);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "ttlMs", ttlMs);
+        return cache;
+    }
+
+    private static List<Place> places(long... ids) {
+        List<Place> places = new ArrayList<>();
+        for (long id : ids) {
+            Place place = new Place();
+            place.setId(id);
+            places.add(place);
+        }
+        return places;
+    }
+}
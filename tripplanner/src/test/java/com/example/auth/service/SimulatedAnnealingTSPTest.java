@@ -0,0 +1,71 @@
+package com.example.auth.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.example.auth.service.TestFixtures.assertValidTour;
+import static com.example.auth.service.TestFixtures.randomMatrix;
+import static com.example.auth.service.TestFixtures.randomMeters;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatedAnnealingTSPTest {
+
+    @Test
+    void reachesTheExactOptimumOnSmallInstances() {
+        Random random = new Random(11);
+        for (boolean symmetric : new boolean[]{true, false}) {
+            for (int n = 3; n <= 10; n++) {
+                DistanceMatrix matrix = DistanceMatrix.fromMeters(randomMeters(random, n, symmetric));
+                SimulatedAnnealingTSP sa = new SimulatedAnnealingTSP(matrix, 10000.0, 0.995, 500, n);
+                int[] tour = sa.run();
+
+                assertValidTour(tour, n);
+                double optimum = sa.routeDistance(new HeldKarpTSP(matrix).run());
+                assertEquals(optimum, sa.routeDistance(tour), 1e-6, "n=" + n + " symmetric=" + symmetric);
+            }
+        }
+    }
+
+    @Test
+    void neverReturnsAWorseTourThanItWasGiven() {
+        DistanceMatrix matrix = randomMatrix(new Random(5), 40);
+        int[] start = new int[40];
+        for (int i = 0; i < start.length; i++) {
+            start[i] = i;
+        }
+        SimulatedAnnealingTSP sa = new SimulatedAnnealingTSP(matrix, 1.0, 0.9, 50, 1L);
+        int[] tour = sa.run(start);
+
+        assertValidTour(tour, 40);
+        assertTrue(sa.routeDistance(tour) <= sa.routeDistance(start));
+    }
+
+    @Test
+    void parallelChainsReturnTheBestOfTheirTours() {
+        DistanceMatrix matrix = randomMatrix(new Random(8), 30);
+        int[] start = new int[30];
+        for (int i = 0; i < start.length; i++) {
+            start[i] = i;
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // Same seed, so chain k of the parallel run matches a standalone chain seeded alike.
+            int[] tour = new ParallelSimulatedAnnealingTSP(matrix, 100.0, 0.95, 100, 4, pool, 21L).run(start);
+            SplittableRandom seeds = new java.util.SplittableRandom(21L);
+            double best = Double.POSITIVE_INFINITY;
+            SimulatedAnnealingTSP reference = null;
+            for (int k = 0; k < 4; k++) {
+                reference = new SimulatedAnnealingTSP(matrix, 100.0, 0.95, 100, seeds.nextLong());
+                best = Math.min(best, reference.routeDistance(reference.run(start)));
+            }
+
+            assertValidTour(tour, 30);
+            assertEquals(best, reference.routeDistance(tour), 1e-6);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
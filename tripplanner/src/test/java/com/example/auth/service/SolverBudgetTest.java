@@ -0,0 +1,107 @@
+package com.example.auth.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.example.auth.service.TestFixtures.assertValidTour;
+import static com.example.auth.service.TestFixtures.randomMatrix;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverBudgetTest {
+
+    @Test
+    void slicesShareEvaluationsAndCancellationWithTheirParent() {
+        SolverBudget budget = SolverBudget.start(0, 1000, 0);
+        SolverBudget slice = budget.slice(0.5);
+        assertFalse(slice.isExhausted());
+
+        slice.addEvaluations(1000);
+        assertTrue(budget.isExhausted());
+
+        SolverBudget other = SolverBudget.unlimited();
+        SolverBudget otherSlice = other.slice(0.5);
+        other.cancel();
+        assertTrue(otherSlice.isExhausted());
+    }
+
+    @Test
+    void sliceEndsBeforeItsParentDeadline() throws Exception {
+        SolverBudget budget = SolverBudget.start(400, 0, 0);
+        SolverBudget slice = budget.slice(0.25);
+        Thread.sleep(150);
+        assertTrue(slice.isExhausted());
+        assertFalse(budget.isExhausted());
+    }
+
+    @Test
+    void solversStopAtTheBudgetWithAValidTour() {
+        int n = 60;
+        Random random = new Random(2);
+        DistanceMatrix matrix = randomMatrix(random, n);
+
+        // Evaluation cap: the GA stops after a handful of generations instead of 100000.
+        SolverBudget capped = SolverBudget.start(0, 2000, 0);
+        int[] gaTour = new GeneticAlgorithmTSP(matrix, 50, 100000, 0.1, 1L).run(capped);
+        assertValidTour(gaTour, n);
+        assertTrue(capped.getEvaluations() < 2100);
+
+        // Stall limit: with no time or evaluation limit the GA still terminates.
+        int[] stalledTour = new GeneticAlgorithmTSP(matrix, 20, Integer.MAX_VALUE, 0.1, 1L).run(SolverBudget.start(0, 0, 30));
+        assertValidTour(stalledTour, n);
+
+        // Deadline: a schedule of millions of temperature steps returns within the time limit.
+        long start = System.nanoTime();
+        int[] saTour = new SimulatedAnnealingTSP(matrix, 10000.0, 0.999999, 500, 1L).run(gaTour, SolverBudget.start(200, 0, 0));
+        assertValidTour(saTour, n);
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 2000);
+    }
+
+    @Test
+    void listenerSeesStrictlyImprovingIncumbentsFromEverySlice() {
+        int n = 40;
+        Random random = new Random(4);
+        DistanceMatrix distances = randomMatrix(random, n);
+        SolverBudget budget = SolverBudget.start(0, 0, 30);
+        List<Incumbent> incumbents = new ArrayList<>();
+        budget.setIncumbentListener(incumbents::add);
+
+        // GA then SA on slices of the same budget, as the ga-sa solver runs them.
+        int[] gaTour = new GeneticAlgorithmTSP(distances, 30, 300, 0.1, 3L).run(budget.slice(0.5));
+        new SimulatedAnnealingTSP(distances, 10000.0, 0.99, 200, 3L).run(gaTour, budget);
+
+        assertTrue(incumbents.size() > 1);
+        assertEquals(0, incumbents.get(0).getGeneration());
+        assertTrue(incumbents.stream().anyMatch(incumbent -> !Double.isNaN(incumbent.getTemperature())));
+        for (int k = 0; k < incumbents.size(); k++) {
+            Incumbent incumbent = incumbents.get(k);
+            assertEquals(n, incumbent.getPlaceIds().size());
+            assertEquals(0L, incumbent.getPlaceIds().get(0));
+            assertEquals(k + 1, incumbent.getSequence());
+            if (k > 0) {
+                assertTrue(incumbent.getTotalDistance() < incumbents.get(k - 1).getTotalDistance());
+            }
+        }
+    }
+
+    @Test
+    void resetLetsLongerTourOnANewMatrixThrough() {
+        DistanceMatrix estimate = DistanceMatrix.fromMeters(new double[][]{{0, 10, 10}, {10, 0, 10}, {10, 10, 0}});
+        DistanceMatrix road = DistanceMatrix.fromMeters(new double[][]{{0, 14, 14}, {14, 0, 14}, {14, 14, 0}});
+        SolverBudget budget = SolverBudget.unlimited();
+        List<Incumbent> incumbents = new ArrayList<>();
+        budget.setIncumbentListener(incumbents::add);
+
+        budget.slice(0.8).offerIncumbent(estimate, new int[]{0, 1, 2}, 30, -1, Double.NaN);
+        budget.offerIncumbent(road, new int[]{0, 1, 2}, 42, -1, Double.NaN);
+        assertEquals(1, incumbents.size());
+
+        budget.resetIncumbent();
+        budget.offerIncumbent(road, new int[]{0, 1, 2}, 42, -1, Double.NaN);
+        budget.offerIncumbent(road, new int[]{0, 2, 1}, 42, -1, Double.NaN);
+        assertEquals(2, incumbents.size());
+        assertEquals(42, incumbents.get(1).getTotalDistance());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.auth.service;
+
+import com.example.auth.model.Place;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Matrices, tour checks and a distance provider shared by the solver and route tests.
+ */
+final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    // Distances of 100..5099 m between n places, asymmetric unless asked otherwise.
+    static double[][] randomMeters(Random random, int n, boolean symmetric) {
+        double[][] meters = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j && (!symmetric || j > i)) {
+                    meters[i][j] = 100 + random.nextInt(5000);
+                    if (symmetric) {
+                        meters[j][i] = meters[i][j];
+                    }
+                }
+            }
+        }
+        return meters;
+    }
+
+    static DistanceMatrix randomMatrix(Random random, int n) {
+        return DistanceMatrix.fromMeters(randomMeters(random, n, false));
+    }
+
+    // A permutation of 0..n-1 starting at the fixed start.
+    static void assertValidTour(int[] tour, int n) {
+        assertEquals(n, tour.length);
+        if (n > 0) {
+            assertEquals(0, tour[0]);
+        }
+        boolean[] seen = new boolean[n];
+        for (int place : tour) {
+            assertFalse(seen[place], "n=" + n);
+            seen[place] = true;
+        }
+    }
+
+    // Straight-line provider that counts the legs it is asked for.
+    static class CountingProvider implements DistanceProvider {
+        final AtomicInteger legs = new AtomicInteger();
+        volatile Long unreachableTo;
+        volatile boolean down;
+
+        @Override
+        public String getName() {
+            return "counting";
+        }
+
+        @Override
+        public TravelCost getTravelCost(Place origin, Place destination) {
+            legs.incrementAndGet();
+            if (down) {
+                throw new RuntimeException("Distance provider unavailable");
+            }
+            if (destination.getId().equals(unreachableTo)) {
+                return TravelCost.UNREACHABLE;
+            }
+            double meters = GeoUtils.haversineMeters(origin.getLatitude(), origin.getLongitude(),
+                    destination.getLatitude(), destination.getLongitude());
+            return new TravelCost(meters, meters / 8.0);
+        }
+
+        @Override
+        public TravelCost[][] getTravelCostMatrix(List<Place> places) {
+            return getTravelCostMatrix(places, places);
+        }
+    }
+}
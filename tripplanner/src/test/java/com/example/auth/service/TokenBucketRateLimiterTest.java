@@ -0,0 +1,84 @@
+package com.example.auth.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    // Runs on simulated time: sleeping just moves the clock forward.
+    private static class SimulatedLimiter extends TokenBucketRateLimiter {
+        long now;
+        long slept;
+
+        SimulatedLimiter(double permitsPerSecond, int burst) {
+            super(permitsPerSecond, burst);
+        }
+
+        @Override
+        long nanoTime() {
+            return now;
+        }
+
+        @Override
+        void sleepNanos(long nanos) {
+            now += nanos;
+            slept += nanos;
+        }
+    }
+
+    @Test
+    void fullBucketServesTheBurstWithoutWaiting() throws InterruptedException {
+        SimulatedLimiter limiter = new SimulatedLimiter(5, 3);
+        for (int k = 0; k < 3; k++) {
+            assertTrue(limiter.tryAcquire(0, TimeUnit.MILLISECONDS));
+        }
+        assertFalse(limiter.tryAcquire(0, TimeUnit.MILLISECONDS));
+        assertEquals(0, limiter.slept);
+    }
+
+    @Test
+    void emptyBucketRefillsAtTheConfiguredRate() throws InterruptedException {
+        SimulatedLimiter limiter = new SimulatedLimiter(5, 3);
+        for (int k = 0; k < 3; k++) {
+            limiter.tryAcquire(0, TimeUnit.MILLISECONDS);
+        }
+
+        // One token every 200 ms once the burst is spent.
+        assertTrue(limiter.tryAcquire(1, TimeUnit.SECONDS));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), limiter.slept, 1);
+        assertTrue(limiter.tryAcquire(1, TimeUnit.SECONDS));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(400), limiter.slept, 2);
+
+        // A long idle spell refills no more than the burst.
+        limiter.now += TimeUnit.SECONDS.toNanos(10);
+        limiter.slept = 0;
+        for (int k = 0; k < 3; k++) {
+            assertTrue(limiter.tryAcquire(0, TimeUnit.MILLISECONDS));
+        }
+        assertFalse(limiter.tryAcquire(0, TimeUnit.MILLISECONDS));
+        assertEquals(0, limiter.slept);
+    }
+
+    @Test
+    void givesUpWhenNoTokenArrivesBeforeTheTimeout() throws InterruptedException {
+        SimulatedLimiter limiter = new SimulatedLimiter(2, 1);
+        assertTrue(limiter.tryAcquire(0, TimeUnit.MILLISECONDS));
+
+        // The next token is 500 ms away; waiting 300 ms is not enough, and no token is taken.
+        assertFalse(limiter.tryAcquire(300, TimeUnit.MILLISECONDS));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(300), limiter.slept);
+
+        // The 300 ms already waited count towards the refill.
+        assertTrue(limiter.tryAcquire(300, TimeUnit.MILLISECONDS));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.slept, 1);
+    }
+
+    @Test
+    void rejectsNonPositiveRateOrBurst() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(1, 0));
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.auth.service;
+
+import com.example.auth.model.Place;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TomTomMatrixClientTest {
+
+    private TomTomStubServer stub;
+    private ExecutorService executor;
+    private List<Place> places;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new TomTomStubServer();
+        executor = Executors.newFixedThreadPool(4);
+        places = new ArrayList<>();
+        // A small grid of places around Bagan.
+        for (int i = 0; i < 12; i++) {
+            Place place = new Place();
+            place.setId((long) (i + 1));
+            place.setName("Place " + i);
+            place.setLatitude(21.17 + 0.01 * (i / 4));
+            place.setLongitude(94.86 + 0.01 * (i % 4));
+            places.add(place);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+        executor.shutdownNow();
+    }
+
+    private TomTomMatrixClient newClient(int maxCells) {
+        return new TomTomMatrixClient(stub.getBaseUrl(), "test-key", maxCells, 5000,
+                new RestTemplate(), new TokenBucketRateLimiter(1000, 100), executor);
+    }
+
+    @Test
+    void fetchesWholeMatrixInOneRequest() {
+        TomTomMatrixClient client = newClient(200);
+
+        TravelCost[][] matrix = client.getMatrix(places, places);
+
+        assertEquals(1, stub.matrixRequests.get());
+        assertEquals(0, stub.routeRequests.get());
+        for (int i = 0; i < places.size(); i++) {
+            for (int j = 0; j < places.size(); j++) {
+                assertNotNull(matrix[i][j]);
+            }
+        }
+        assertTrue(matrix[0][11].getDistance() > 0);
+        assertTrue(matrix[0][11].getTravelTime() > 0);
+    }
+
+    @Test
+    void splitsLargeMatricesIntoTilesWithinTheCellLimit() {
+        TomTomMatrixClient client = newClient(30);
+
+        TravelCost[][] matrix = client.getMatrix(places, places);
+
+        // 12 destinations per tile leaves room for 2 origins: 6 tiles of 24 cells.
+        assertEquals(6, stub.matrixRequests.get());
+        assertTrue(stub.largestMatrixCells.get() <= 30);
+        TravelCost[][] reference = newClient(200).getMatrix(places, places);
+        for (int i = 0; i < places.size(); i++) {
+            for (int j = 0; j < places.size(); j++) {
+                assertEquals(reference[i][j].getDistance(), matrix[i][j].getDistance());
+            }
+        }
+    }
+
+    @Test
+    void retriesOnlyFailedCellsWithSingleRouteCalls() {
+        Place origin = places.get(2);
+        Place destination = places.get(7);
+        stub.failCell(origin.getLatitude(), origin.getLongitude(), destination.getLatitude(), destination.getLongitude());
+
+        TomTomService service = new TomTomService(new RestTemplate(), new TokenBucketRateLimiter(1000, 100), executor);
+        ReflectionTestUtils.setField(service, "tomTomApiKey", "test-key");
+        ReflectionTestUtils.setField(service, "tomTomBaseUrl", stub.getBaseUrl());
+        ReflectionTestUtils.setField(service, "timeoutMs", 5000L);
+        ReflectionTestUtils.setField(service, "matrixClient", newClient(200));
+
+        TravelCost[][] matrix = service.getTravelCostMatrix(places, places);
+
+        assertEquals(1, stub.matrixRequests.get());
+        assertEquals(1, stub.routeRequests.get());
+        assertTrue(matrix[2][7].isReachable());
+        assertEquals(0.0, matrix[5][5].getDistance());
+    }
+
+    @Test
+    void tilesArrivingAfterTheDeadlineAreIgnored() throws InterruptedException {
+        stub.matrixDelayMs = 600;
+        TomTomMatrixClient client = new TomTomMatrixClient(stub.getBaseUrl(), "test-key", 30, 200,
+                new RestTemplate(), new TokenBucketRateLimiter(1000, 100), executor);
+
+        TravelCost[][] matrix = client.getMatrix(places, places);
+        Thread.sleep(900);
+
+        // The tiles did answer, but too late: the returned matrix was never written to.
+        assertTrue(stub.matrixRequests.get() > 0);
+        for (TravelCost[] row : matrix) {
+            for (TravelCost cell : row) {
+                assertNull(cell);
+            }
+        }
+    }
+
+    @Test
+    void fallbacksArrivingAfterTheDeadlineAreIgnored() throws InterruptedException {
+        Place origin = places.get(2);
+        Place destination = places.get(7);
+        stub.failCell(origin.getLatitude(), origin.getLongitude(), destination.getLatitude(), destination.getLongitude());
+        stub.routeDelayMs = 600;
+
+        TomTomService service = new TomTomService(new RestTemplate(), new TokenBucketRateLimiter(1000, 100), executor);
+        ReflectionTestUtils.setField(service, "tomTomApiKey", "test-key");
+        ReflectionTestUtils.setField(service, "tomTomBaseUrl", stub.getBaseUrl());
+        ReflectionTestUtils.setField(service, "timeoutMs", 200L);
+        ReflectionTestUtils.setField(service, "matrixClient", newClient(200));
+
+        TravelCost[][] matrix = service.getTravelCostMatrix(places, places);
+        TravelCost returned = matrix[2][7];
+        Thread.sleep(900);
+
+        // The single-route call did answer, but too late: the cell stays unreachable.
+        assertEquals(1, stub.routeRequests.get());
+        assertFalse(returned.isReachable());
+        assertSame(returned, matrix[2][7]);
+    }
+}
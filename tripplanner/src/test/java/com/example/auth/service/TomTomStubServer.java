@@ -0,0 +1,166 @@
+package com.example.auth.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the TomTom routing API used by offline tests.
+ *
+ * Speaks the same JSON as Matrix Routing v2 ({@code POST /routing/matrix/2}) and
+ * calculateRoute ({@code GET /routing/1/calculateRoute/...}). Distances are straight-line
+ * distances scaled by 1.3 and travel times assume 36 km/h, so results are deterministic.
+ * Individual origin/destination coordinate pairs can be made to fail in matrix responses.
+ */
+public class TomTomStubServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Set<String> failingCells = new HashSet<>();
+
+    public final AtomicInteger matrixRequests = new AtomicInteger();
+    public final AtomicInteger routeRequests = new AtomicInteger();
+    public final AtomicInteger largestMatrixCells = new AtomicInteger();
+
+    // Artificial latency of the matrix and single-route endpoints, for timeout tests.
+    public volatile long matrixDelayMs;
+    public volatile long routeDelayMs;
+
+    public TomTomStubServer() throws IOException {
+        this(0);
+    }
+
+    public TomTomStubServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/routing/matrix/2", this::handleMatrix);
+        server.createContext("/routing/1/calculateRoute", this::handleRoute);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    // Makes the matrix endpoint report a detailedError for this directed pair.
+    public void failCell(double originLat, double originLon, double destinationLat, double destinationLon) {
+        failingCells.add(key(originLat, originLon, destinationLat, destinationLon));
+    }
+
+    private void handleMatrix(HttpExchange exchange) throws IOException {
+        matrixRequests.incrementAndGet();
+        pause(matrixDelayMs);
+        JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+        JsonNode origins = body.path("origins");
+        JsonNode destinations = body.path("destinations");
+        largestMatrixCells.accumulateAndGet(origins.size() * destinations.size(), Math::max);
+
+        ObjectNode response = objectMapper.createObjectNode();
+        ArrayNode data = response.putArray("data");
+        int failures = 0;
+        for (int i = 0; i < origins.size(); i++) {
+            JsonNode o = origins.get(i).path("point");
+            for (int j = 0; j < destinations.size(); j++) {
+                JsonNode d = destinations.get(j).path("point");
+                ObjectNode cell = data.addObject();
+                cell.put("originIndex", i);
+                cell.put("destinationIndex", j);
+                double oLat = o.path("latitude").asDouble();
+                double oLon = o.path("longitude").asDouble();
+                double dLat = d.path("latitude").asDouble();
+                double dLon = d.path("longitude").asDouble();
+                if (failingCells.contains(key(oLat, oLon, dLat, dLon))) {
+                    ObjectNode error = cell.putObject("detailedError");
+                    error.put("code", "MAP_MATCHING_FAILURE");
+                    error.put("message", "Destination could not be matched to the road network");
+                    failures++;
+                } else {
+                    writeSummary(cell.putObject("routeSummary"), oLat, oLon, dLat, dLon);
+                }
+            }
+        }
+        ObjectNode statistics = response.putObject("statistics");
+        statistics.put("totalCount", origins.size() * destinations.size());
+        statistics.put("successes", origins.size() * destinations.size() - failures);
+        statistics.put("failures", failures);
+        respond(exchange, response);
+    }
+
+    private void handleRoute(HttpExchange exchange) throws IOException {
+        routeRequests.incrementAndGet();
+        pause(routeDelayMs);
+        // Path: /routing/1/calculateRoute/{lat},{lon}:{lat},{lon}/json
+        String[] segments = exchange.getRequestURI().getPath().split("/");
+        String[] points = segments[4].split(":");
+        String[] origin = points[0].split(",");
+        String[] destination = points[1].split(",");
+
+        ObjectNode response = objectMapper.createObjectNode();
+        ObjectNode summary = response.putArray("routes").addObject().putObject("summary");
+        writeSummary(summary, Double.parseDouble(origin[0]), Double.parseDouble(origin[1]),
+                Double.parseDouble(destination[0]), Double.parseDouble(destination[1]));
+        respond(exchange, response);
+    }
+
+    private static void pause(long ms) {
+        if (ms <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeSummary(ObjectNode summary, double oLat, double oLon, double dLat, double dLon) {
+        double meters = Math.round(1.3 * haversine(oLat, oLon, dLat, dLon));
+        summary.put("lengthInMeters", (long) meters);
+        summary.put("travelTimeInSeconds", (long) (meters / 10.0));
+    }
+
+    private void respond(HttpExchange exchange, JsonNode body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String key(double oLat, double oLon, double dLat, double dLon) {
+        return String.format(Locale.US, "%.6f,%.6f:%.6f,%.6f", oLat, oLon, dLat, dLon);
+    }
+
+    private static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * 6_371_000 * Math.asin(Math.sqrt(a));
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    // Allows running the stub by hand: point tomtom.api.base-url at the printed address.
+    public static void main(String[] args) throws IOException {
+        TomTomStubServer stub = new TomTomStubServer(args.length > 0 ? Integer.parseInt(args[0]) : 8089);
+        System.out.println("TomTom stub listening on " + stub.getBaseUrl());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.auth.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.example.auth.service.TestFixtures.randomMatrix;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TspSolverRegistryTest {
+
+    private ForkJoinPool pool;
+    private TspSolverRegistry registry;
+
+    // Stands in for a slow heuristic: spins until its budget is exhausted, then returns the identity tour.
+    private static class StubbornSolver implements TspSolver {
+        @Override
+        public String getName() {
+            return "ga-sa";
+        }
+
+        @Override
+        public int[] solve(TspProblem problem, SolverBudget budget) {
+            while (!budget.isExhausted()) {
+                Thread.onSpinWait();
+            }
+            int[] tour = new int[problem.getSize()];
+            for (int i = 0; i < tour.length; i++) {
+                tour[i] = i;
+            }
+            return tour;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        ExactTspSolver exact = new ExactTspSolver();
+        ReflectionTestUtils.setField(exact, "exactMaxPlaces", 10);
+        registry = new TspSolverRegistry(List.of(exact, new StubbornSolver(), new LocalSearchTspSolver()),
+                "auto", "exact,ga-sa,local-search", pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void autoPicksTheExactSolverOnlyForSmallDays() {
+        assertEquals("exact", registry.get(null, new TspProblem(randomMatrix(new Random(8), 8))).getName());
+        assertEquals("ga-sa", registry.get(null, new TspProblem(randomMatrix(new Random(30), 30))).getName());
+        assertTrue(registry.isExact("auto", 10));
+        assertFalse(registry.isExact("local-search", 5));
+    }
+
+    @Test
+    void unknownOrUnsuitableSolversAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> registry.get("quantum", new TspProblem(randomMatrix(new Random(5), 5))));
+        assertThrows(IllegalArgumentException.class, () -> registry.get("exact", new TspProblem(randomMatrix(new Random(30), 30))));
+        assertThrows(IllegalStateException.class,
+                () -> new TspSolverRegistry(List.of(new LocalSearchTspSolver()), "auto", "ga", pool));
+    }
+
+    @Test
+    void portfolioStopsTheOthersOnceTheExactSolverFinishes() {
+        DistanceMatrix matrix = randomMatrix(new Random(9), 9);
+        TspSolver portfolio = registry.get("portfolio", new TspProblem(matrix));
+
+        long start = System.nanoTime();
+        int[] tour = portfolio.solve(new TspProblem(matrix), SolverBudget.start(10_000, 0, 0));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < 5_000, "stubborn member was not cancelled");
+        assertEquals(TourUtils.tourLength(new HeldKarpTSP(matrix).run(), matrix), TourUtils.tourLength(tour, matrix), 1e-6);
+        assertEquals("exact", ((PortfolioTspSolver) portfolio).getWinner());
+    }
+
+    @Test
+    void portfolioSkipsMembersThatCannotHandleTheDay() {
+        DistanceMatrix matrix = randomMatrix(new Random(40), 40);
+        TspSolver portfolio = registry.get("portfolio", new TspProblem(matrix));
+
+        // No exact member here, so the race ends at the deadline with the best heuristic tour.
+        int[] tour = portfolio.solve(new TspProblem(matrix), SolverBudget.start(300, 0, 0));
+
+        assertEquals(40, tour.length);
+        assertEquals("local-search", ((PortfolioTspSolver) portfolio).getWinner());
+    }
+}